@@ -1,7 +1,7 @@
 package org.sosylab;
 
 import javax.swing.SwingUtilities;
-import org.sosylab.model.Game;
+import org.sosylab.model.Engines;
 import org.sosylab.model.Model;
 import org.sosylab.view.Controller;
 import org.sosylab.view.GameOfLifeController;
@@ -14,22 +14,28 @@ import org.sosylab.view.View;
 public class GameOfLifeMain {
 
   /**
-   * Invokes the actual starting method {@link GameOfLifeMain#showGameOfLife()} on the <code> AWT
-   * event dispatching thread</code>. This causes the method to be executed asynchronously after all
-   * pending AWT events have been processed.
+   * Invokes the actual starting method {@link GameOfLifeMain#showGameOfLife(String)} on the
+   * <code> AWT event dispatching thread</code>. This causes the method to be executed
+   * asynchronously after all pending AWT events have been processed.
+   *
+   * <p>The first command line argument optionally selects the engine of the model, see
+   * {@link Engines#getAvailableEngines()}.
    *
    * @param args The command line arguments.
    */
   public static void main(String[] args) {
-    SwingUtilities.invokeLater(GameOfLifeMain::showGameOfLife);
+    String engine = args.length > 0 ? args[0] : Engines.DEFAULT_ENGINE;
+    SwingUtilities.invokeLater(() -> showGameOfLife(engine));
   }
 
   /**
    * Initializes the main {@link Model}, {@link View}, and {@link Controller} classes of this game,
    * and sets the appropriate relations between each other accordingly.
+   *
+   * @param engine the name of the engine of the model
    */
-  private static void showGameOfLife() {
-    Model model = new Game();
+  private static void showGameOfLife(String engine) {
+    Model model = Engines.createByName(engine);
     Controller controller = new GameOfLifeController(model);
 
     View view = new GameOfLifeView(model, controller);
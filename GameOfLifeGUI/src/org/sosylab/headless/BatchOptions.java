@@ -0,0 +1,227 @@
+package org.sosylab.headless;
+
+import java.util.Arrays;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Rule;
+import org.sosylab.model.Shapes;
+
+/**
+ * The options of a {@link BatchRunner} run, parsed from the command line.
+ *
+ * <p>The grid is seeded either with a pattern file or a shape of {@link Shapes} placed in its
+ * middle, or with a random soup of the given density, which is reproducible by its seed.
+ */
+public class BatchOptions {
+
+  /**
+   * Describes the command line options.
+   */
+  public static final String USAGE = String.join("\n",
+      "Usage: BatchRunner [options]",
+      "  --engine NAME        engine of the model (default: " + Engines.DEFAULT_ENGINE + ")",
+      "  --size COLSxROWS     size of the grid (default: 100x100)",
+      "  --rule RULE          rule in B/S notation (default: the rule of the pattern or B3/S23)",
+      "  --pattern FILE       seeds the grid with an .rle or .cells pattern in its middle",
+      "  --shape NAME         seeds the grid with a shape in its middle",
+      "  --density D          seeds the grid with a random soup of density D (default: 0.3)",
+      "  --seed N             random seed of the soup (default: 42)",
+      "  --generations N      number of generations to compute (default: 1000)",
+      "  --sample N           counts the population every N generations (default: 1)",
+      "  --output FILE        writes the final state to FILE, as a pattern if it ends with",
+      "                       .rle or .cells, as a binary checkpoint if it ends with .snapshot");
+
+  private String engine = Engines.DEFAULT_ENGINE;
+  private int columns = 100;
+  private int rows = 100;
+  private Rule rule;
+  private String pattern;
+  private String shape;
+  private double density = 0.3;
+  private long seed = 42;
+  private long generations = 1000;
+  private long sampleInterval = 1;
+  private String output;
+
+  /**
+   * Parses the options from the command line arguments.
+   *
+   * @param args the command line arguments
+   * @return the options
+   * @throws IllegalArgumentException if an option is not recognized or has an invalid value
+   */
+  public static BatchOptions parse(String[] args) {
+    BatchOptions options = new BatchOptions();
+    for (int i = 0; i < args.length; i += 2) {
+      String name = args[i];
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("The option " + name + " requires a value");
+      }
+      String value = args[i + 1];
+      switch (name) {
+        case "--engine" -> options.engine = value;
+        case "--size" -> options.parseSize(value);
+        case "--rule" -> options.rule = Rule.parse(value);
+        case "--pattern" -> options.pattern = value;
+        case "--shape" -> options.shape = value;
+        case "--density" -> options.density = parseDouble(name, value);
+        case "--seed" -> options.seed = parseLong(name, value);
+        case "--generations" -> options.generations = parseLong(name, value);
+        case "--sample" -> options.sampleInterval = parseLong(name, value);
+        case "--output" -> options.output = value;
+        default -> throw new IllegalArgumentException("The option " + name + " is not recognized");
+      }
+    }
+    options.validate();
+    return options;
+  }
+
+  private void parseSize(String value) {
+    String[] dimensions = value.split("x");
+    if (dimensions.length != 2) {
+      throw new IllegalArgumentException("The size must be given as COLSxROWS");
+    }
+    columns = parseInt("--size", dimensions[0]);
+    rows = parseInt("--size", dimensions[1]);
+  }
+
+  private static int parseInt(String name, String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The value of " + name + " must be a number");
+    }
+  }
+
+  private static long parseLong(String name, String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The value of " + name + " must be a number");
+    }
+  }
+
+  private static double parseDouble(String name, String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The value of " + name + " must be a number");
+    }
+  }
+
+  private void validate() {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    } else if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    } else if (sampleInterval <= 0) {
+      throw new IllegalArgumentException("The sample interval must be positive");
+    } else if (density < 0 || density > 1) {
+      throw new IllegalArgumentException("The density must lie between 0 and 1");
+    } else if (!Arrays.asList(Engines.getAvailableEngines()).contains(engine)) {
+      throw new IllegalArgumentException("The engine is not recognized");
+    } else if (shape != null && pattern != null) {
+      throw new IllegalArgumentException("Either a shape or a pattern may be given");
+    } else if (shape != null && Shapes.getShapeByName(shape) == null) {
+      throw new IllegalArgumentException("The shape is not recognized");
+    }
+  }
+
+  /**
+   * Gets the name of the engine of the model.
+   *
+   * @return the engine
+   */
+  public String getEngine() {
+    return engine;
+  }
+
+  /**
+   * Gets the number of columns of the grid.
+   *
+   * @return Number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets the number of rows of the grid.
+   *
+   * @return Number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Gets the rule of the game.
+   *
+   * @return the rule, or <code>null</code> if the rule of the pattern or Conway's rule is used
+   */
+  public Rule getRule() {
+    return rule;
+  }
+
+  /**
+   * Gets the pattern file the grid is seeded with.
+   *
+   * @return the pattern file, or <code>null</code> if the grid is not seeded with a pattern
+   */
+  public String getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Gets the name of the shape the grid is seeded with.
+   *
+   * @return the shape, or <code>null</code> if the grid is seeded with a random soup
+   */
+  public String getShape() {
+    return shape;
+  }
+
+  /**
+   * Gets the probability of a cell of the random soup to be alive.
+   *
+   * @return the density
+   */
+  public double getDensity() {
+    return density;
+  }
+
+  /**
+   * Gets the random seed of the soup.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Gets the number of generations to compute.
+   *
+   * @return the generations
+   */
+  public long getGenerations() {
+    return generations;
+  }
+
+  /**
+   * Gets the number of generations between two counts of the population.
+   *
+   * @return the sample interval
+   */
+  public long getSampleInterval() {
+    return sampleInterval;
+  }
+
+  /**
+   * Gets the file the final state is written to.
+   *
+   * @return the file, or <code>null</code> if the final state is not written
+   */
+  public String getOutput() {
+    return output;
+  }
+}
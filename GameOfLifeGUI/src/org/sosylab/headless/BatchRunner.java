@@ -0,0 +1,160 @@
+package org.sosylab.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.sosylab.io.PatternInfo;
+import org.sosylab.io.PatternReader;
+import org.sosylab.io.PatternWriter;
+import org.sosylab.io.SnapshotFile;
+import org.sosylab.model.Cell;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+import org.sosylab.model.Rule;
+import org.sosylab.model.Shape;
+import org.sosylab.model.Shapes;
+import org.sosylab.model.Transform;
+
+/**
+ * Runs a Game of Life simulation without any user interface, e.g. on a compute node without a
+ * display. It seeds a grid, computes the requested number of generations, optionally writes the
+ * final state to a file, and prints the {@link BatchStatistics} of the run.
+ *
+ * <p>See {@link BatchOptions#USAGE} for the command line options.
+ */
+public class BatchRunner {
+
+  private BatchRunner() {
+  }
+
+  /**
+   * Runs the simulation described by the command line arguments.
+   *
+   * @param args The command line arguments.
+   */
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    BatchOptions options;
+    try {
+      options = BatchOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(BatchOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+    try {
+      System.out.println(run(options));
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+    } catch (IOException e) {
+      System.err.println("The file could not be accessed: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Runs the simulation described by the options.
+   *
+   * @param options the options of the run
+   * @return the statistics of the run
+   * @throws IOException              if the pattern cannot be read or the final state cannot be
+   *                                  written
+   * @throws IllegalArgumentException if the pattern is malformed or its rule is not supported
+   */
+  public static BatchStatistics run(BatchOptions options) throws IOException {
+    long start = System.nanoTime();
+    Model model = Engines.createByName(options.getEngine(), options.getColumns(),
+        options.getRows());
+    Rule rule = options.getRule() != null ? options.getRule() : Rule.CONWAY;
+    if (options.getPattern() != null) {
+      PatternInfo info = placePattern(model, Path.of(options.getPattern()));
+      if (options.getRule() == null) {
+        rule = Rule.parse(info.getRule());
+      }
+    } else if (options.getShape() != null) {
+      placeShape(model, Shapes.getShapeByName(options.getShape()));
+    } else {
+      fillSoup(model, options.getDensity(), options.getSeed());
+    }
+    model.setRule(rule);
+    long setupNanos = System.nanoTime() - start;
+
+    long simulationNanos = 0;
+    long samplingNanos = 0;
+    int population = model.getPackedLiveCells().length;
+    int peakPopulation = population;
+    for (long done = 0; done < options.getGenerations(); ) {
+      long generations = Math.min(options.getSampleInterval(), options.getGenerations() - done);
+      start = System.nanoTime();
+      model.advance(generations);
+      simulationNanos += System.nanoTime() - start;
+      done += generations;
+
+      start = System.nanoTime();
+      population = model.getPackedLiveCells().length;
+      peakPopulation = Math.max(peakPopulation, population);
+      samplingNanos += System.nanoTime() - start;
+    }
+
+    start = System.nanoTime();
+    if (options.getOutput() != null) {
+      Path output = Path.of(options.getOutput());
+      if (SnapshotFile.isSnapshotFile(output)) {
+        SnapshotFile.write(output, model);
+      } else if (PatternReader.formatOf(output) != null) {
+        PatternWriter.write(output, model);
+      } else {
+        Files.writeString(output, model + "\n");
+      }
+    }
+    long outputNanos = System.nanoTime() - start;
+
+    return new BatchStatistics(options.getEngine(), options.getGenerations(), setupNanos,
+        simulationNanos, samplingNanos, outputNanos, peakPopulation, population);
+  }
+
+  /**
+   * Places the pattern of a file in the middle of the grid.
+   *
+   * @return the metadata of the pattern
+   */
+  private static PatternInfo placePattern(Model model, Path path) throws IOException {
+    // Like PatternReader.readShape, but keeps the metadata for the rule of the file
+    Shape.Builder builder = new Shape.Builder();
+    PatternInfo info = PatternReader.read(path, builder);
+    placeShape(model, builder.build(path.getFileName().toString(), info.getColumns(),
+        info.getRows()));
+    return info;
+  }
+
+  /**
+   * Places the shape in the middle of the grid.
+   */
+  private static void placeShape(Model model, Shape shape) {
+    int offsetColumns = Math.floorDiv(model.getColumns() - shape.getColumns(), 2);
+    int offsetRows = Math.floorDiv(model.getRows() - shape.getRows(), 2);
+    model.stamp(shape, offsetColumns, offsetRows, Transform.IDENTITY);
+  }
+
+  /**
+   * Sets cells of the grid alive at random.
+   */
+  private static void fillSoup(Model model, double density, long seed) {
+    Random random = new Random(seed);
+    List<Cell> cells = new ArrayList<>();
+    for (int row = 0; row < model.getRows(); row++) {
+      for (int col = 0; col < model.getColumns(); col++) {
+        if (random.nextDouble() < density) {
+          cells.add(new Cell(col, row));
+        }
+      }
+    }
+    model.applyChanges(cells, Collections.emptyList());
+  }
+}
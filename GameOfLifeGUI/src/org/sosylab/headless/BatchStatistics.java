@@ -0,0 +1,103 @@
+package org.sosylab.headless;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The figures of a {@link BatchRunner} run. The wall time is split into the phases of the run:
+ * setting up the seed, computing the generations, counting the population and writing the output.
+ */
+public class BatchStatistics {
+
+  private final String engine;
+  private final long generations;
+  private final long setupNanos;
+  private final long simulationNanos;
+  private final long samplingNanos;
+  private final long outputNanos;
+  private final int peakPopulation;
+  private final int finalPopulation;
+
+  /**
+   * Constructs new statistics.
+   *
+   * @param engine          the name of the engine.
+   * @param generations     the number of computed generations.
+   * @param setupNanos      the wall time of setting up the seed in nanoseconds.
+   * @param simulationNanos the wall time of computing the generations in nanoseconds.
+   * @param samplingNanos   the wall time of counting the population in nanoseconds.
+   * @param outputNanos     the wall time of writing the output in nanoseconds.
+   * @param peakPopulation  the greatest counted population.
+   * @param finalPopulation the population after the last generation.
+   */
+  public BatchStatistics(String engine, long generations, long setupNanos, long simulationNanos,
+      long samplingNanos, long outputNanos, int peakPopulation, int finalPopulation) {
+    this.engine = engine;
+    this.generations = generations;
+    this.setupNanos = setupNanos;
+    this.simulationNanos = simulationNanos;
+    this.samplingNanos = samplingNanos;
+    this.outputNanos = outputNanos;
+    this.peakPopulation = peakPopulation;
+    this.finalPopulation = finalPopulation;
+  }
+
+  /**
+   * Gets the number of computed generations.
+   *
+   * @return the generations
+   */
+  public long getGenerations() {
+    return generations;
+  }
+
+  /**
+   * Gets the number of generations computed per second, not counting the other phases.
+   *
+   * @return generations per second
+   */
+  public double getGenerationsPerSecond() {
+    return simulationNanos == 0 ? 0
+        : generations * (double) TimeUnit.SECONDS.toNanos(1) / simulationNanos;
+  }
+
+  /**
+   * Gets the greatest population counted during the run.
+   *
+   * @return the peak population
+   */
+  public int getPeakPopulation() {
+    return peakPopulation;
+  }
+
+  /**
+   * Gets the population after the last generation.
+   *
+   * @return the final population
+   */
+  public int getFinalPopulation() {
+    return finalPopulation;
+  }
+
+  /**
+   * Gets the wall time of computing the generations.
+   *
+   * @return the wall time in nanoseconds
+   */
+  public long getSimulationNanos() {
+    return simulationNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.join("\n",
+        "engine: " + engine,
+        "generations: " + generations,
+        String.format("generations per second: %.1f", getGenerationsPerSecond()),
+        "peak population: " + peakPopulation,
+        "final population: " + finalPopulation,
+        String.format("setup: %.3f ms", setupNanos / 1e6),
+        String.format("simulation: %.3f ms", simulationNanos / 1e6),
+        String.format("sampling: %.3f ms", samplingNanos / 1e6),
+        String.format("output: %.3f ms", outputNanos / 1e6));
+  }
+}
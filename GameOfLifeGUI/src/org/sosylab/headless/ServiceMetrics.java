@@ -0,0 +1,96 @@
+package org.sosylab.headless;
+
+/**
+ * The aggregate figures of a {@link SimulationService}: the boards it hosts and the generations it
+ * has computed for all of them together.
+ */
+public class ServiceMetrics {
+
+  private final int boards;
+  private final int activeBoards;
+  private final long generations;
+  private final long cellUpdates;
+  private final double generationsPerSecond;
+  private final double cellUpdatesPerSecond;
+
+  /**
+   * Constructs new metrics.
+   *
+   * @param boards               the number of hosted boards.
+   * @param activeBoards         the number of boards that are running or have steps pending.
+   * @param generations          the number of generations computed since the service started.
+   * @param cellUpdates          the number of cells of these generations, i.e. the sum of the
+   *                             sizes of the boards of every computed generation.
+   * @param generationsPerSecond the number of generations computed during the last second.
+   * @param cellUpdatesPerSecond the number of cells of these generations.
+   */
+  public ServiceMetrics(int boards, int activeBoards, long generations, long cellUpdates,
+      double generationsPerSecond, double cellUpdatesPerSecond) {
+    this.boards = boards;
+    this.activeBoards = activeBoards;
+    this.generations = generations;
+    this.cellUpdates = cellUpdates;
+    this.generationsPerSecond = generationsPerSecond;
+    this.cellUpdatesPerSecond = cellUpdatesPerSecond;
+  }
+
+  /**
+   * Gets the number of hosted boards.
+   *
+   * @return the boards
+   */
+  public int getBoards() {
+    return boards;
+  }
+
+  /**
+   * Gets the number of boards that are running or have steps pending.
+   *
+   * @return the active boards
+   */
+  public int getActiveBoards() {
+    return activeBoards;
+  }
+
+  /**
+   * Gets the number of generations computed since the service started, over all boards.
+   *
+   * @return the generations
+   */
+  public long getGenerations() {
+    return generations;
+  }
+
+  /**
+   * Gets the number of cells whose next state has been computed since the service started.
+   *
+   * @return the cell updates
+   */
+  public long getCellUpdates() {
+    return cellUpdates;
+  }
+
+  /**
+   * Gets the number of generations computed during the last second, over all boards.
+   *
+   * @return generations per second
+   */
+  public double getGenerationsPerSecond() {
+    return generationsPerSecond;
+  }
+
+  /**
+   * Gets the number of cells whose next state has been computed during the last second.
+   *
+   * @return cell updates per second
+   */
+  public double getCellUpdatesPerSecond() {
+    return cellUpdatesPerSecond;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d boards (%d active), %d generations, %.1f gen/s, %.3g cells/s",
+        boards, activeBoards, generations, generationsPerSecond, cellUpdatesPerSecond);
+  }
+}
@@ -0,0 +1,589 @@
+package org.sosylab.headless;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosylab.model.Engines;
+import org.sosylab.model.GenerationSnapshot;
+import org.sosylab.model.Model;
+
+/**
+ * Hosts many independent boards without a user interface and computes their generations on a
+ * bounded pool of worker threads, e.g. for parameter sweeps over seeds and densities.
+ *
+ * <p>A board is created with {@link #createBoard(String, int, int)}, computes generations while it
+ * is {@linkplain #start(long) running} or has {@linkplain #step(long, long) steps} pending, is
+ * queried with {@link #getSnapshot(long)} and is removed with {@link #destroyBoard(long)}. Every
+ * board is identified by a number that the service assigns.
+ *
+ * <p>The boards with work take turns in the order in which their work became due: a turn computes
+ * generations of one board until it has no more work or {@link #TIME_SLICE_NANOS} have passed,
+ * then the board queues up behind all other boards again. A board is never computed by two
+ * workers at once. A board with a {@linkplain #setRateLimit(long, double) rate limit} waits
+ * outside of the queue until its next generation is due.
+ */
+public class SimulationService implements AutoCloseable {
+
+  /**
+   * The time after which a turn ends even if the board has more work, in nanoseconds.
+   */
+  public static final long TIME_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final ExecutorService workers;
+  private final ScheduledExecutorService timer;
+  private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+  private final AtomicInteger activeBoards = new AtomicInteger();
+  private volatile boolean shutdown;
+
+  private final LongAdder generations = new LongAdder();
+  private final LongAdder cellUpdates = new LongAdder();
+
+  // Counts of the current interval of a second, from which the rates of the last second are taken
+  private volatile long intervalStart = System.nanoTime();
+  private long intervalGenerations = generations.sum();
+  private long intervalCellUpdates = cellUpdates.sum();
+  private double generationsPerSecond;
+  private double cellUpdatesPerSecond;
+
+  /**
+   * Constructs a new service with one worker thread per available processor.
+   */
+  public SimulationService() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a new service.
+   *
+   * @param threads the number of worker threads that compute generations.
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  public SimulationService(int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive");
+    }
+    workers = Executors.newFixedThreadPool(threads, daemonThreads("simulation-worker-"));
+    timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("simulation-timer-"));
+  }
+
+  /**
+   * Creates a board consisting solely of dead cells.
+   *
+   * @param engine  the name of the engine, see {@link Engines#getAvailableEngines()}.
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   * @return the number of the new board
+   * @throws IllegalArgumentException if the engine is not recognized or the size is not positive
+   * @throws IllegalStateException    if the service has been shut down
+   */
+  public long createBoard(String engine, int columns, int rows) {
+    return createBoard(Engines.createByName(requireNonNull(engine), columns, rows));
+  }
+
+  /**
+   * Hosts an existing model as a new board, e.g. one that has been seeded already. The model must
+   * not be changed other than through the service afterwards.
+   *
+   * @param model the model.
+   * @return the number of the new board
+   * @throws IllegalStateException if the service has been shut down
+   */
+  public long createBoard(Model model) {
+    requireNonNull(model);
+    checkNotShutdown();
+    long id = nextId.getAndIncrement();
+    boards.put(id, new Board(model));
+    return id;
+  }
+
+  /**
+   * Removes a board. A generation that is being computed is still completed, the futures of
+   * pending steps are cancelled.
+   *
+   * @param id the number of the board.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public void destroyBoard(long id) {
+    Board board = boards.remove(id);
+    if (board == null) {
+      throw new IllegalArgumentException("The board does not exist");
+    }
+    board.destroy();
+  }
+
+  /**
+   * Gets the numbers of all boards.
+   *
+   * @return a new list of the numbers of the boards in no particular order
+   */
+  public List<Long> getBoardIds() {
+    return new ArrayList<>(boards.keySet());
+  }
+
+  /**
+   * Requests the computation of further generations of a board. The steps add up with the steps
+   * that are still pending; generations computed while the board is running count as steps, too.
+   *
+   * @param id          the number of the board.
+   * @param generations the number of generations to compute.
+   * @return a future that is completed with the number of generations of the board once the steps
+   *         have been computed
+   * @throws IllegalArgumentException if the board does not exist or the number is negative
+   * @throws IllegalStateException    if the service has been shut down
+   */
+  public CompletableFuture<Long> step(long id, long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    checkNotShutdown();
+    return getBoard(id).step(generations);
+  }
+
+  /**
+   * Starts computing generations of a board until {@link #stop(long)} gets called.
+   *
+   * @param id the number of the board.
+   * @throws IllegalArgumentException if the board does not exist
+   * @throws IllegalStateException    if the service has been shut down
+   */
+  public void start(long id) {
+    checkNotShutdown();
+    getBoard(id).setRunning(true);
+  }
+
+  /**
+   * Stops computing generations of a board. Pending steps are still computed.
+   *
+   * @param id the number of the board.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public void stop(long id) {
+    getBoard(id).setRunning(false);
+  }
+
+  /**
+   * Checks whether a board computes generations until it gets stopped.
+   *
+   * @param id the number of the board.
+   * @return <code>true</code> if the board is running, <code>false</code> otherwise.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public boolean isRunning(long id) {
+    return getBoard(id).isRunning();
+  }
+
+  /**
+   * Limits the number of generations per second of a board.
+   *
+   * @param id                   the number of the board.
+   * @param generationsPerSecond the greatest rate, or {@link Double#POSITIVE_INFINITY} for none.
+   * @throws IllegalArgumentException if the board does not exist or the rate is not positive
+   */
+  public void setRateLimit(long id, double generationsPerSecond) {
+    if (!(generationsPerSecond > 0)) {
+      throw new IllegalArgumentException("Rate must be positive");
+    }
+    getBoard(id).setRateLimit(generationsPerSecond);
+  }
+
+  /**
+   * Gets the greatest number of generations per second of a board.
+   *
+   * @param id the number of the board.
+   * @return the rate limit, {@link Double#POSITIVE_INFINITY} if there is none.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public double getRateLimit(long id) {
+    return getBoard(id).getRateLimit();
+  }
+
+  /**
+   * Gets the current state of a board. The snapshot is immutable, so it can be read while the board
+   * computes further generations.
+   *
+   * @param id the number of the board.
+   * @return the snapshot.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public GenerationSnapshot getSnapshot(long id) {
+    return getBoard(id).model.getSnapshot();
+  }
+
+  /**
+   * Gets the number of generations of a board.
+   *
+   * @param id the number of the board.
+   * @return the generations.
+   * @throws IllegalArgumentException if the board does not exist
+   */
+  public long getGenerations(long id) {
+    return getBoard(id).getGenerations();
+  }
+
+  /**
+   * Gets the aggregate figures of all boards.
+   *
+   * @return the metrics.
+   */
+  public synchronized ServiceMetrics getMetrics() {
+    completeInterval();
+    return new ServiceMetrics(boards.size(), activeBoards.get(), generations.sum(),
+        cellUpdates.sum(), generationsPerSecond, cellUpdatesPerSecond);
+  }
+
+  /**
+   * Stops computing generations for good and lets the worker threads end. Generations that are
+   * being computed are still completed, the futures of pending steps are cancelled.
+   */
+  public void shutdown() {
+    shutdown = true;
+    workers.shutdown();
+    timer.shutdownNow();
+    for (Board board : boards.values()) {
+      board.destroy();
+    }
+  }
+
+  /**
+   * Shuts the service down, see {@link #shutdown()}.
+   */
+  @Override
+  public void close() {
+    shutdown();
+  }
+
+  /**
+   * Waits until the worker threads have ended after {@link #shutdown()}.
+   *
+   * @param timeout the longest time to wait.
+   * @param unit    the unit of the timeout.
+   * @return <code>true</code> if the threads have ended, <code>false</code> if the time is up
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return workers.awaitTermination(timeout, unit);
+  }
+
+  private Board getBoard(long id) {
+    Board board = boards.get(id);
+    if (board == null) {
+      throw new IllegalArgumentException("The board does not exist");
+    }
+    return board;
+  }
+
+  private void checkNotShutdown() {
+    if (shutdown) {
+      throw new IllegalStateException("The service has been shut down");
+    }
+  }
+
+  /**
+   * Counts a computed generation before the futures waiting for it are completed.
+   *
+   * @param cells the size of the board.
+   */
+  private void generationComputed(long cells) {
+    generations.increment();
+    cellUpdates.add(cells);
+  }
+
+  /**
+   * Takes over the rates of the current interval at the end of a turn once it has lasted a second.
+   */
+  private void turnCompleted() {
+    if (System.nanoTime() - intervalStart >= ONE_SECOND) {
+      synchronized (this) {
+        completeInterval();
+      }
+    }
+  }
+
+  private void completeInterval() {
+    long now = System.nanoTime();
+    if (now - intervalStart < ONE_SECOND) {
+      return;
+    }
+    long totalGenerations = generations.sum();
+    long totalCellUpdates = cellUpdates.sum();
+    generationsPerSecond = (totalGenerations - intervalGenerations) * (double) ONE_SECOND
+        / (now - intervalStart);
+    cellUpdatesPerSecond = (totalCellUpdates - intervalCellUpdates) * (double) ONE_SECOND
+        / (now - intervalStart);
+    intervalStart = now;
+    intervalGenerations = totalGenerations;
+    intervalCellUpdates = totalCellUpdates;
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * A hosted model and its work. The fields are guarded by the lock of the board, the model is only
+   * computed by the worker whose turn it is.
+   */
+  private final class Board {
+
+    private final Model model;
+
+    private boolean running;
+    private boolean destroyed;
+
+    // Whether a turn of the board is queued, waiting for the timer or being computed, and the task
+    // of the timer while the turn waits for it
+    private boolean scheduled;
+    private ScheduledFuture<?> timerTask;
+
+    // The generation up to which steps have been requested, and the futures of these steps
+    private long targetGeneration;
+    private final List<StepRequest> requests = new ArrayList<>();
+
+    private long generation;
+    private double rateLimit = Double.POSITIVE_INFINITY;
+    private long period;
+    private long nextDue = System.nanoTime();
+
+    private Board(Model model) {
+      this.model = model;
+      this.generation = model.getGenerations();
+      this.targetGeneration = generation;
+    }
+
+    private synchronized CompletableFuture<Long> step(long generations) {
+      CompletableFuture<Long> future = new CompletableFuture<>();
+      if (destroyed) {
+        future.cancel(false);
+        return future;
+      }
+      boolean wasActive = hasWork();
+      targetGeneration = Math.max(targetGeneration, generation) + generations;
+      if (generation >= targetGeneration) {
+        future.complete(generation);
+      } else {
+        requests.add(new StepRequest(targetGeneration, future));
+        workChanged(wasActive);
+      }
+      return future;
+    }
+
+    private synchronized void setRunning(boolean running) {
+      boolean wasActive = hasWork();
+      this.running = running;
+      workChanged(wasActive);
+    }
+
+    private synchronized boolean isRunning() {
+      return running;
+    }
+
+    /**
+     * Sets the rate limit and makes the next generation due at once. A turn that waits for the
+     * timer under the old limit is scheduled anew.
+     *
+     * @param generationsPerSecond the greatest rate.
+     */
+    private synchronized void setRateLimit(double generationsPerSecond) {
+      rateLimit = generationsPerSecond;
+      period = Double.isInfinite(generationsPerSecond) ? 0
+          : Math.max(1, Math.round(ONE_SECOND / generationsPerSecond));
+      nextDue = System.nanoTime();
+      if (timerTask != null && timerTask.cancel(false)) {
+        timerTask = null;
+        scheduled = false;
+        if (hasWork()) {
+          scheduleTurn();
+        }
+      }
+    }
+
+    private synchronized double getRateLimit() {
+      return rateLimit;
+    }
+
+    private synchronized long getGenerations() {
+      return generation;
+    }
+
+    private void destroy() {
+      List<StepRequest> cancelled;
+      synchronized (this) {
+        boolean wasActive = hasWork();
+        destroyed = true;
+        running = false;
+        cancelled = new ArrayList<>(requests);
+        requests.clear();
+        workChanged(wasActive);
+      }
+      for (StepRequest request : cancelled) {
+        request.future.cancel(false);
+      }
+    }
+
+    private boolean hasWork() {
+      return !destroyed && (running || generation < targetGeneration);
+    }
+
+    /**
+     * Counts the board as active or inactive after a change of its work and schedules a turn if it
+     * has work and no turn is scheduled yet.
+     *
+     * @param wasActive whether the board had work before the change
+     */
+    private void workChanged(boolean wasActive) {
+      boolean active = hasWork();
+      if (active != wasActive) {
+        activeBoards.addAndGet(active ? 1 : -1);
+      }
+      if (active && !scheduled) {
+        scheduleTurn();
+      }
+    }
+
+    /**
+     * Queues a turn of the board behind the turns of all other boards, or waits with it until the
+     * next generation is due.
+     */
+    private void scheduleTurn() {
+      scheduled = true;
+      long delay = nextDue - System.nanoTime();
+      try {
+        if (delay > 0) {
+          timerTask = timer.schedule(this::submitTurn, delay, TimeUnit.NANOSECONDS);
+        } else {
+          workers.execute(this::runTurn);
+        }
+      } catch (RejectedExecutionException e) {
+        scheduled = false; // the service has been shut down
+      }
+    }
+
+    private void submitTurn() {
+      synchronized (this) {
+        timerTask = null;
+      }
+      try {
+        workers.execute(this::runTurn);
+      } catch (RejectedExecutionException e) {
+        synchronized (this) {
+          scheduled = false;
+        }
+      }
+    }
+
+    /**
+     * Computes generations of the board until it has no more work, its next generation is not due
+     * yet or the time slice is used up.
+     */
+    private void runTurn() {
+      long turnStart = System.nanoTime();
+      long cells = (long) model.getColumns() * model.getRows();
+      while (true) {
+        synchronized (this) {
+          long now = System.nanoTime();
+          if (!hasWork() || now - nextDue < 0 || now - turnStart >= TIME_SLICE_NANOS) {
+            scheduled = false;
+            if (hasWork()) {
+              scheduleTurn();
+            }
+            break;
+          }
+          nextDue = now + period;
+        }
+        try {
+          model.next();
+        } catch (RuntimeException e) {
+          failed(e);
+          break;
+        }
+        generationComputed(cells);
+        completeSteps();
+      }
+      turnCompleted();
+    }
+
+    /**
+     * Takes over the generation of the model and completes the futures of the steps that have been
+     * computed. The futures are completed after the lock has been released, so that their
+     * dependent actions can query other boards without risking a deadlock.
+     */
+    private void completeSteps() {
+      List<StepRequest> completed = new ArrayList<>();
+      long reached;
+      synchronized (this) {
+        boolean wasActive = hasWork();
+        generation = model.getGenerations();
+        reached = generation;
+        workChanged(wasActive); // the turn is still scheduled
+        for (int i = requests.size() - 1; i >= 0; i--) {
+          StepRequest request = requests.get(i);
+          if (generation >= request.targetGeneration) {
+            requests.remove(i);
+            completed.add(request);
+          }
+        }
+      }
+      for (StepRequest request : completed) {
+        request.future.complete(reached);
+      }
+    }
+
+    /**
+     * Stops the board after its model has thrown an exception and passes it to the futures of the
+     * pending steps.
+     *
+     * @param exception the exception.
+     */
+    private void failed(RuntimeException exception) {
+      List<StepRequest> failed;
+      synchronized (this) {
+        boolean wasActive = hasWork();
+        running = false;
+        targetGeneration = generation;
+        failed = new ArrayList<>(requests);
+        requests.clear();
+        scheduled = false;
+        workChanged(wasActive);
+      }
+      for (StepRequest request : failed) {
+        request.future.completeExceptionally(exception);
+      }
+    }
+  }
+
+  /**
+   * A future that is completed once a board has reached a generation.
+   */
+  private static final class StepRequest {
+
+    private final long targetGeneration;
+    private final CompletableFuture<Long> future;
+
+    private StepRequest(long targetGeneration, CompletableFuture<Long> future) {
+      this.targetGeneration = targetGeneration;
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.sosylab.io;
+
+/**
+ * The metadata of a pattern file: its name, its dimensions and the rule it is meant for.
+ */
+public class PatternInfo {
+
+  private final String name;
+  private final int columns;
+  private final int rows;
+  private final String rule;
+
+  /**
+   * Constructs new metadata.
+   *
+   * @param name    the name of the pattern, or <code>null</code> if the file does not name it.
+   * @param columns the number of columns of the pattern.
+   * @param rows    the number of rows of the pattern.
+   * @param rule    the rule of the pattern in B/S notation.
+   */
+  public PatternInfo(String name, int columns, int rows, String rule) {
+    this.name = name;
+    this.columns = columns;
+    this.rows = rows;
+    this.rule = rule;
+  }
+
+  /**
+   * Gets the name of the pattern.
+   *
+   * @return the name, or <code>null</code> if the file does not name it
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the dimension of the pattern in x direction.
+   *
+   * @return number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets the dimension of the pattern in y direction.
+   *
+   * @return number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Gets the rule the pattern is meant for.
+   *
+   * @return the rule in B/S notation, e.g. <code>B3/S23</code>
+   */
+  public String getRule() {
+    return rule;
+  }
+}
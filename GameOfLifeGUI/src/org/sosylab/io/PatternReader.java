@@ -0,0 +1,325 @@
+package org.sosylab.io;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.sosylab.model.IntBiConsumer;
+import org.sosylab.model.Model;
+import org.sosylab.model.Shape;
+import org.sosylab.model.Transform;
+
+/**
+ * Reads patterns in the run length encoded format of Golly (<code>.rle</code>) and in the
+ * plaintext format (<code>.cells</code>).
+ *
+ * <p>The files are parsed in a single streaming pass: every living cell is handed to an
+ * {@link IntBiConsumer} as soon as it has been read, so that patterns with millions of cells can
+ * be loaded without building a matrix of the whole pattern first. The top left corner of a pattern
+ * is at column and row zero.
+ */
+public class PatternReader {
+
+  /**
+   * The rule of patterns whose file does not name one.
+   */
+  public static final String CONWAY_RULE = "B3/S23";
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private PatternReader() {
+  }
+
+  /**
+   * Gets the format of a pattern file by its extension.
+   *
+   * @param path the pattern file
+   * @return <code>"rle"</code>, <code>"cells"</code>, or <code>null</code> if the format is not
+   *         supported
+   */
+  public static String formatOf(Path path) {
+    String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+    if (fileName.endsWith(".rle")) {
+      return "rle";
+    } else if (fileName.endsWith(".cells")) {
+      return "cells";
+    }
+    return null;
+  }
+
+  /**
+   * Reads a pattern file, choosing the format by its extension.
+   *
+   * @param path  the pattern file
+   * @param cells receives the living cells of the pattern
+   * @return the metadata of the pattern
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the format is not recognized or the file is malformed
+   */
+  public static PatternInfo read(Path path, IntBiConsumer cells) throws IOException {
+    String format = formatOf(path);
+    if (format == null) {
+      throw new IllegalArgumentException("The pattern format is not recognized");
+    }
+    try (Reader reader = new InputStreamReader(Files.newInputStream(path),
+        StandardCharsets.UTF_8)) {
+      return read(format, reader, cells);
+    }
+  }
+
+  /**
+   * Reads a pattern in the given format.
+   *
+   * @param format the format, <code>"rle"</code> or <code>"cells"</code>
+   * @param reader the source of the pattern, which is not closed
+   * @param cells  receives the living cells of the pattern
+   * @return the metadata of the pattern
+   * @throws IOException              if the pattern cannot be read
+   * @throws IllegalArgumentException if the format is not recognized or the pattern is malformed
+   */
+  public static PatternInfo read(String format, Reader reader, IntBiConsumer cells)
+      throws IOException {
+    return switch (format) {
+      case "rle" -> readRle(reader, cells);
+      case "cells" -> readCells(reader, cells);
+      default -> throw new IllegalArgumentException("The pattern format is not recognized");
+    };
+  }
+
+  /**
+   * Reads a pattern file into a new shape, which is named after the pattern or else after the
+   * file.
+   *
+   * @param path the pattern file
+   * @return the shape
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the format is not recognized or the file is malformed
+   */
+  public static Shape readShape(Path path) throws IOException {
+    Shape.Builder builder = new Shape.Builder();
+    PatternInfo info = read(path, builder);
+    String name = info.getName() != null ? info.getName() : path.getFileName().toString();
+    return builder.build(name, info.getColumns(), info.getRows());
+  }
+
+  /**
+   * Reads a pattern file into a model, whose listeners get notified only once. Cells that fall
+   * outside of the grid are left out.
+   *
+   * <p>The cells are collected into the packed bitmap of a {@link Shape}, which is then
+   * {@linkplain Model#stamp(Shape, int, int, Transform) stamped} onto the model.
+   *
+   * @param path          the pattern file
+   * @param model         the model to set the cells alive in
+   * @param offsetColumns the column of the grid the left edge of the pattern is placed at
+   * @param offsetRows    the row of the grid the top edge of the pattern is placed at
+   * @return the metadata of the pattern
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the format is not recognized or the file is malformed
+   */
+  public static PatternInfo readInto(Path path, Model model, int offsetColumns, int offsetRows)
+      throws IOException {
+    Shape.Builder builder = new Shape.Builder();
+    PatternInfo info = read(path, builder);
+    model.stamp(builder.build(path.getFileName().toString(), 0, 0), offsetColumns, offsetRows,
+        Transform.IDENTITY);
+    return info;
+  }
+
+  /**
+   * Reads a pattern in the run length encoded format of Golly. Cells of any state other than the
+   * dead state <code>b</code> or <code>.</code> count as living.
+   *
+   * @param reader the source of the pattern, which is not closed
+   * @param cells  receives the living cells of the pattern
+   * @return the metadata of the pattern
+   * @throws IOException              if the pattern cannot be read
+   * @throws IllegalArgumentException if the pattern is malformed
+   */
+  public static PatternInfo readRle(Reader reader, IntBiConsumer cells) throws IOException {
+    Source in = new Source(reader);
+    String name = null;
+    String header = null;
+    while (header == null) {
+      int c = in.peek();
+      if (c == -1) {
+        throw in.malformed("the header is missing");
+      } else if (c == '#') {
+        String line = in.readLine();
+        if (line.startsWith("#N")) {
+          name = line.substring(2).trim();
+        }
+      } else if (Character.isWhitespace(c)) {
+        in.read();
+      } else {
+        header = in.readLine();
+      }
+    }
+
+    int columns = -1;
+    int rows = -1;
+    String rule = CONWAY_RULE;
+    for (String entry : header.split(",")) {
+      String[] keyValue = entry.split("=");
+      if (keyValue.length != 2) {
+        throw in.malformed("the header is not of the form x = m, y = n");
+      }
+      String value = keyValue[1].trim();
+      switch (keyValue[0].trim()) {
+        case "x" -> columns = parseDimension(in, value);
+        case "y" -> rows = parseDimension(in, value);
+        case "rule" -> rule = value;
+        default -> throw in.malformed("the header entry " + keyValue[0].trim()
+            + " is not recognized");
+      }
+    }
+    if (columns < 0 || rows < 0) {
+      throw in.malformed("the header is not of the form x = m, y = n");
+    }
+
+    int col = 0;
+    int row = 0;
+    int maxColumn = -1;
+    int count = 0;
+    for (int c = in.read(); c != -1 && c != '!'; c = in.read()) {
+      if (c >= '0' && c <= '9') {
+        if (count > (Integer.MAX_VALUE - 9) / 10) {
+          throw in.malformed("the run count is too large");
+        }
+        count = count * 10 + (c - '0');
+        continue;
+      }
+      int run = Math.max(count, 1);
+      count = 0;
+      if (c == 'b' || c == '.') {
+        col = advance(in, col, run);
+      } else if (c == 'o' || (c >= 'A' && c <= 'X')) {
+        int end = advance(in, col, run);
+        for (; col < end; col++) {
+          cells.accept(col, row);
+        }
+        maxColumn = Math.max(maxColumn, end - 1);
+      } else if (c == '$') {
+        row = advance(in, row, run);
+        col = 0;
+      } else if (!Character.isWhitespace(c)) {
+        throw in.malformed("the character '" + (char) c + "' is not recognized");
+      }
+    }
+    return new PatternInfo(name, Math.max(columns, maxColumn + 1), Math.max(rows, row + 1), rule);
+  }
+
+  /**
+   * Reads a pattern in the plaintext format, in which <code>O</code> marks a living cell,
+   * <code>.</code> a dead cell, and lines starting with <code>!</code> are comments.
+   *
+   * @param reader the source of the pattern, which is not closed
+   * @param cells  receives the living cells of the pattern
+   * @return the metadata of the pattern
+   * @throws IOException              if the pattern cannot be read
+   * @throws IllegalArgumentException if the pattern is malformed
+   */
+  public static PatternInfo readCells(Reader reader, IntBiConsumer cells) throws IOException {
+    Source in = new Source(reader);
+    String name = null;
+    int row = 0;
+    int columns = 0;
+    while (in.peek() != -1) {
+      if (in.peek() == '!') {
+        String line = in.readLine();
+        if (line.startsWith("!Name:")) {
+          name = line.substring("!Name:".length()).trim();
+        }
+        continue;
+      }
+      int col = 0;
+      for (int c = in.read(); c != -1 && c != '\n'; c = in.read()) {
+        if (c == 'O' || c == 'o' || c == '*') {
+          cells.accept(col++, row);
+        } else if (c == '.') {
+          col++;
+        } else if (!Character.isWhitespace(c)) {
+          throw in.malformed("the character '" + (char) c + "' is not recognized");
+        }
+      }
+      columns = Math.max(columns, col);
+      row++;
+    }
+    return new PatternInfo(name, columns, row, CONWAY_RULE);
+  }
+
+  private static int parseDimension(Source in, String value) {
+    try {
+      int dimension = Integer.parseInt(value);
+      if (dimension < 0) {
+        throw in.malformed("the dimensions may not be negative");
+      }
+      return dimension;
+    } catch (NumberFormatException e) {
+      throw in.malformed("the dimension " + value + " is not a number");
+    }
+  }
+
+  private static int advance(Source in, int position, int run) {
+    if (position > Integer.MAX_VALUE - run) {
+      throw in.malformed("the pattern is too large");
+    }
+    return position + run;
+  }
+
+  /**
+   * Hands out the characters of a reader from a large buffer, counting the lines.
+   */
+  private static final class Source {
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    Source(Reader reader) {
+      this.reader = reader;
+    }
+
+    int peek() throws IOException {
+      if (position == limit) {
+        limit = Math.max(reader.read(buffer), 0);
+        position = 0;
+        if (limit == 0) {
+          return -1;
+        }
+      }
+      return buffer[position];
+    }
+
+    int read() throws IOException {
+      int c = peek();
+      if (c != -1) {
+        position++;
+        if (c == '\n') {
+          line++;
+        }
+      }
+      return c;
+    }
+
+    String readLine() throws IOException {
+      StringBuilder builder = new StringBuilder();
+      for (int c = read(); c != -1 && c != '\n'; c = read()) {
+        if (c != '\r') {
+          builder.append((char) c);
+        }
+      }
+      return builder.toString();
+    }
+
+    IllegalArgumentException malformed(String reason) {
+      return new IllegalArgumentException("The pattern is malformed in line " + line + ": "
+          + reason);
+    }
+  }
+}
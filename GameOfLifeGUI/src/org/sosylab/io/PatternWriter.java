@@ -0,0 +1,160 @@
+package org.sosylab.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.sosylab.model.GenerationSnapshot;
+import org.sosylab.model.Model;
+import org.sosylab.model.Rule;
+
+/**
+ * Writes the state of a model in the run length encoded format of Golly (<code>.rle</code>) or in
+ * the plaintext format (<code>.cells</code>), so that it can be read again by
+ * {@link PatternReader}.
+ */
+public class PatternWriter {
+
+  /**
+   * Maximum length of the lines of a run length encoded pattern.
+   */
+  private static final int RLE_LINE_LENGTH = 70;
+
+  private PatternWriter() {
+  }
+
+  /**
+   * Writes the current state of a model to a pattern file, choosing the format by its extension.
+   * The pattern is named after the file. The plaintext format cannot hold the rule of the model.
+   *
+   * @param path  the pattern file
+   * @param model the model to write
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the format is not recognized
+   */
+  public static void write(Path path, Model model) throws IOException {
+    String format = PatternReader.formatOf(path);
+    if (format == null) {
+      throw new IllegalArgumentException("The pattern format is not recognized");
+    }
+    GenerationSnapshot snapshot = model.getSnapshot();
+    String name = path.getFileName().toString();
+    name = name.substring(0, name.lastIndexOf('.'));
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      switch (format) {
+        case "rle" -> writeRle(snapshot, name, model.getRule(), writer);
+        case "cells" -> writeCells(snapshot, name, writer);
+        default -> throw new IllegalArgumentException("The pattern format is not recognized");
+      }
+    }
+  }
+
+  /**
+   * Writes a snapshot of Conway's Game of Life in the run length encoded format.
+   *
+   * @param snapshot the state to write
+   * @param name     the name of the pattern, or <code>null</code> to leave it out
+   * @param writer   the destination of the pattern, which is not closed
+   * @throws IOException if the pattern cannot be written
+   */
+  public static void writeRle(GenerationSnapshot snapshot, String name, Writer writer)
+      throws IOException {
+    writeRle(snapshot, name, Rule.CONWAY, writer);
+  }
+
+  /**
+   * Writes a snapshot in the run length encoded format. Dead cells at the end of a row and empty
+   * rows at the end of the grid are left out, as the dimensions are given by the header.
+   *
+   * @param snapshot the state to write
+   * @param name     the name of the pattern, or <code>null</code> to leave it out
+   * @param rule     the rule of the game
+   * @param writer   the destination of the pattern, which is not closed
+   * @throws IOException if the pattern cannot be written
+   */
+  public static void writeRle(GenerationSnapshot snapshot, String name, Rule rule, Writer writer)
+      throws IOException {
+    if (name != null) {
+      writer.write("#N " + name + "\n");
+    }
+    writer.write("x = " + snapshot.getColumns() + ", y = " + snapshot.getRows() + ", rule = "
+        + rule + "\n");
+
+    RleLine line = new RleLine(writer);
+    int pendingRows = 0;
+    for (int row = 0; row < snapshot.getRows(); row++) {
+      int pendingDead = 0;
+      int col = 0;
+      while (col < snapshot.getColumns()) {
+        boolean alive = snapshot.isCellAlive(col, row);
+        int run = 1;
+        while (col + run < snapshot.getColumns() && snapshot.isCellAlive(col + run, row) == alive) {
+          run++;
+        }
+        if (alive) {
+          line.append(pendingRows, '$');
+          line.append(pendingDead, 'b');
+          line.append(run, 'o');
+          pendingRows = 0;
+          pendingDead = 0;
+        } else {
+          pendingDead = run;
+        }
+        col += run;
+      }
+      pendingRows++;
+    }
+    line.append(1, '!');
+    writer.write("\n");
+  }
+
+  /**
+   * Writes a snapshot in the plaintext format.
+   *
+   * @param snapshot the state to write
+   * @param name     the name of the pattern, or <code>null</code> to leave it out
+   * @param writer   the destination of the pattern, which is not closed
+   * @throws IOException if the pattern cannot be written
+   */
+  public static void writeCells(GenerationSnapshot snapshot, String name, Writer writer)
+      throws IOException {
+    if (name != null) {
+      writer.write("!Name: " + name + "\n");
+    }
+    char[] line = new char[snapshot.getColumns() + 1];
+    line[snapshot.getColumns()] = '\n';
+    for (int row = 0; row < snapshot.getRows(); row++) {
+      for (int col = 0; col < snapshot.getColumns(); col++) {
+        line[col] = snapshot.isCellAlive(col, row) ? 'O' : '.';
+      }
+      writer.write(line);
+    }
+  }
+
+  /**
+   * Wraps the runs of a run length encoded pattern into lines of limited length.
+   */
+  private static final class RleLine {
+
+    private final Writer writer;
+    private int length;
+
+    RleLine(Writer writer) {
+      this.writer = writer;
+    }
+
+    void append(int count, char tag) throws IOException {
+      if (count == 0) {
+        return;
+      }
+      String run = count == 1 ? String.valueOf(tag) : count + String.valueOf(tag);
+      if (length + run.length() > RLE_LINE_LENGTH) {
+        writer.write("\n");
+        length = 0;
+      }
+      writer.write(run);
+      length += run.length();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package org.sosylab.io;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import org.sosylab.model.GenerationSnapshot;
+import org.sosylab.model.Model;
+
+/**
+ * A binary checkpoint of a grid, which is written and read through a memory mapping of the file,
+ * so that saving and restoring huge boards costs little more than copying their packed cells.
+ *
+ * <p>All numbers are stored in little-endian byte order. The file starts with a header:
+ *
+ * <ol>
+ * <li>the magic number <code>GOLS</code> and the version of the format, an <code>int</code>
+ * each,</li>
+ * <li>the number of columns and of rows, an <code>int</code> each,</li>
+ * <li>the generation, a <code>long</code>,</li>
+ * <li>the length of the rule in bytes as an <code>int</code>, followed by the rule in UTF-8,
+ * padded with zeros to a multiple of eight bytes.</li>
+ * </ol>
+ *
+ * <p>The body holds the cells packed into <code>long</code> words in the layout of
+ * {@link GenerationSnapshot}: every row is a sequence of
+ * {@linkplain GenerationSnapshot#wordsPerRow(int) words}, in which bit <code>i</code> of word
+ * <code>w</code> holds the cell in column <code>64 * w + i</code>.
+ */
+public final class SnapshotFile {
+
+  /**
+   * The extension of snapshot files.
+   */
+  public static final String EXTENSION = ".snapshot";
+
+  private static final int MAGIC = 0x534C4F47; // "GOLS" in little-endian byte order
+  private static final int FORMAT_VERSION = 1;
+  private static final int FIXED_HEADER_SIZE = 28;
+
+  private final GenerationSnapshot snapshot;
+  private final String rule;
+
+  private SnapshotFile(GenerationSnapshot snapshot, String rule) {
+    this.snapshot = snapshot;
+    this.rule = rule;
+  }
+
+  /**
+   * Checks whether a file is a snapshot file by its extension.
+   *
+   * @param path the file
+   * @return <code>true</code> if the file name ends with {@link #EXTENSION}, <code>false</code>
+   *         otherwise.
+   */
+  public static boolean isSnapshotFile(Path path) {
+    return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+  }
+
+  /**
+   * Writes the current state and the rule of a model to a snapshot file.
+   *
+   * @param path  the snapshot file, which is replaced if it exists
+   * @param model the model to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path, Model model) throws IOException {
+    write(path, model.getSnapshot(), model.getRule().toString());
+  }
+
+  /**
+   * Writes a snapshot to a snapshot file.
+   *
+   * @param path     the snapshot file, which is replaced if it exists
+   * @param snapshot the state to write
+   * @param rule     the rule of the game, e.g. <code>B3/S23</code>
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the snapshot is too large to be mapped
+   */
+  public static void write(Path path, GenerationSnapshot snapshot, String rule)
+      throws IOException {
+    byte[] ruleBytes = rule.getBytes(StandardCharsets.UTF_8);
+    long headerSize = headerSize(ruleBytes.length);
+    long size = headerSize + bodySize(snapshot.getColumns(), snapshot.getRows());
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The snapshot is too large to be mapped");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC);
+      buffer.putInt(FORMAT_VERSION);
+      buffer.putInt(snapshot.getColumns());
+      buffer.putInt(snapshot.getRows());
+      buffer.putLong(snapshot.getGeneration());
+      buffer.putInt(ruleBytes.length);
+      buffer.put(ruleBytes);
+      buffer.position((int) headerSize);
+      buffer.asLongBuffer().put(snapshot.getWords());
+      buffer.force();
+    }
+  }
+
+  /**
+   * Reads a snapshot file.
+   *
+   * @param path the snapshot file
+   * @return the content of the file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a snapshot file or is truncated
+   */
+  public static SnapshotFile read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < FIXED_HEADER_SIZE) {
+        throw new IllegalArgumentException("The file is not a snapshot");
+      } else if (size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The snapshot is too large to be mapped");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("The file is not a snapshot");
+      } else if (buffer.getInt() != FORMAT_VERSION) {
+        throw new IllegalArgumentException("The version of the snapshot is not supported");
+      }
+      int columns = buffer.getInt();
+      int rows = buffer.getInt();
+      long generation = buffer.getLong();
+      int ruleLength = buffer.getInt();
+      if (columns <= 0 || rows <= 0 || ruleLength < 0
+          || headerSize(ruleLength) + bodySize(columns, rows) > size) {
+        throw new IllegalArgumentException("The snapshot is truncated");
+      }
+      byte[] ruleBytes = new byte[ruleLength];
+      buffer.get(ruleBytes);
+      buffer.position((int) headerSize(ruleLength));
+      LongBuffer words = buffer.asLongBuffer();
+      return new SnapshotFile(GenerationSnapshot.fromWords(columns, rows, generation, words),
+          new String(ruleBytes, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static long headerSize(int ruleLength) {
+    return (FIXED_HEADER_SIZE + (long) ruleLength + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+  }
+
+  private static long bodySize(int columns, int rows) {
+    return (long) rows * GenerationSnapshot.wordsPerRow(columns) * Long.BYTES;
+  }
+
+  /**
+   * Gets the state of the grid.
+   *
+   * @return the snapshot, whose version is zero
+   */
+  public GenerationSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets the rule of the game.
+   *
+   * @return the rule, e.g. <code>B3/S23</code>
+   */
+  public String getRule() {
+    return rule;
+  }
+}
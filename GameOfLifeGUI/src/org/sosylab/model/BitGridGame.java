@@ -0,0 +1,943 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Game of Life implementation that stores the state of every cell as a single bit.
+ *
+ * <p>Each row of the grid is a sequence of <code>long</code> words, in which bit <code>i</code> of
+ * word <code>w</code> holds the cell in column <code>64 * w + i</code>. The rows are stored one
+ * after another in a single array, framed by a halo row above the first and below the last row, so
+ * that the computation of the next generation needs no bounds checks for rows. Before every
+ * generation the halo rows are filled according to the {@link Topology}, e.g. with the last and the
+ * first row on a torus, and the columns just outside of the grid are looked up once per row.
+ *
+ * <p>The next generation is computed 64 cells at a time: the eight neighbor words of a word are
+ * summed up with bitwise half and full adders into a four bit wide neighbor count, which is then
+ * matched against the rules of the game. The rules and the topologies are the same as in
+ * {@link Game}. Conway's rule is matched with a handful of bitwise operations, other
+ * {@linkplain Rule rules} by comparing the count with each neighbor count that occurs in the rule.
+ *
+ * <p>With a parallelism level above one, the grid is split into horizontal bands of rows whose next
+ * generation is computed concurrently on a {@link ForkJoinPool}. All bands read from the buffer of
+ * the current generation and write their own rows of the buffer of the next generation, so the
+ * result is identical to the sequential computation.
+ *
+ * <p>When {@linkplain #setVectorized(boolean) vectorized}, the adders run on vectors of four or
+ * eight words with the incubating Vector API, except for the first and the last word of each row,
+ * which take the columns outside of the grid into account. Without the Vector API the game stays
+ * with one word at a time.
+ */
+public class BitGridGame implements Model {
+
+  /**
+   * Initial number of columns when the game is shown.
+   */
+  private static final int INITIAL_COLUMNS = 50;
+
+  /**
+   * Initial number of rows when the game is shown.
+   */
+  private static final int INITIAL_ROWS = 30;
+
+  // Number of bands per worker thread, more than one to balance uneven workloads
+  private static final int BANDS_PER_THREAD = 4;
+
+  // Minimum number of rows of a band, smaller bands are not worth the scheduling overhead
+  private static final int MIN_BAND_ROWS = 16;
+
+  // Whether the incubating Vector API has been added to the JVM with --add-modules
+  private static final boolean VECTOR_MODULE_PRESENT =
+      ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  private final PropertyChangeSupport support;
+
+  private int parallelism;
+  private ForkJoinPool pool;
+
+  // Whether the words between the first and the last word of a row are computed with vectors
+  private boolean vectorized;
+
+  private long generation = 0;
+
+  private Rule rule = Rule.CONWAY;
+
+  // The rule reduced to a circuit when it is set, or null for Conway's rule, which is inlined
+  private RuleCircuit ruleCircuit;
+
+  private Topology topology = Topology.DEAD_EDGE;
+
+  /*
+   * The columns whose cells stand for the cells just left and right of the grid under the topology,
+   * or -1 if these are dead.
+   */
+  private int westHaloColumn = -1;
+  private int eastHaloColumn = -1;
+
+  private int columns;
+  private int rows;
+
+  // Number of words per row
+  private int words;
+
+  // Mask of the valid bits in the last word of a row
+  private long lastWordMask;
+
+  /*
+   * The current and the next generation. Row r of the grid starts at index (r + 1) * words, the
+   * first and the last row of the arrays are the halo rows around the grid.
+   */
+  private long[] cells;
+  private long[] nextCells;
+
+  // Hash of the living cells, maintained with every change once it is requested
+  private boolean hashing;
+  private long populationHash;
+
+  // Latest published snapshot, null until getSnapshot() is called for the first time
+  private volatile GenerationSnapshot snapshot;
+  private long snapshotVersion;
+
+  /**
+   * Constructs a new game with a default size of {@link BitGridGame#INITIAL_COLUMNS} and of
+   * {@link BitGridGame#INITIAL_ROWS} consisting solely of dead cells.
+   */
+  public BitGridGame() {
+    this(INITIAL_COLUMNS, INITIAL_ROWS);
+  }
+
+  /**
+   * Constructs a new game consisting solely of dead cells.
+   *
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   */
+  public BitGridGame(int columns, int rows) {
+    this(columns, rows, 1);
+  }
+
+  /**
+   * Constructs a new game consisting solely of dead cells, whose generations are computed by the
+   * given number of threads.
+   *
+   * @param columns     Number of columns.
+   * @param rows        Number of rows.
+   * @param parallelism Number of threads computing the next generation.
+   */
+  public BitGridGame(int columns, int rows, int parallelism) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    }
+
+    support = new PropertyChangeSupport(this);
+    allocate(columns, rows);
+    setParallelism(parallelism);
+  }
+
+  /**
+   * Gets the number of threads that compute the next generation.
+   *
+   * @return the parallelism level
+   */
+  public synchronized int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Sets the number of threads that compute the next generation. A level of one computes it on the
+   * calling thread.
+   *
+   * @param parallelism the parallelism level
+   * @throws IllegalArgumentException if the level is not positive
+   */
+  public synchronized void setParallelism(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+    this.parallelism = parallelism;
+    if (parallelism > 1) {
+      pool = new ForkJoinPool(parallelism);
+    }
+  }
+
+  /**
+   * Checks whether the generations can be computed with the Vector API. It is incubating in this
+   * version of Java, so the JVM has to be started with
+   * <code>--add-modules jdk.incubator.vector</code>, and the processor has to support vectors of
+   * more than one <code>long</code>.
+   *
+   * @return <code>true</code> if {@link #setVectorized(boolean)} takes effect, <code>false</code>
+   *         otherwise.
+   */
+  public static boolean isVectorApiAvailable() {
+    return VECTOR_MODULE_PRESENT && VectorRows.lanes() > 1;
+  }
+
+  /**
+   * Checks whether the generations are computed with the Vector API.
+   *
+   * @return <code>true</code> if vectors are used, <code>false</code> if the generations are
+   *         computed one word at a time.
+   */
+  public synchronized boolean isVectorized() {
+    return vectorized;
+  }
+
+  /**
+   * Sets whether the generations are computed with the Vector API, which handles as many words of
+   * a row at once as the vectors of the processor hold. If the Vector API is not
+   * {@linkplain #isVectorApiAvailable() available}, the generations keep being computed one word at
+   * a time.
+   *
+   * @param vectorized <code>true</code> to use vectors if available, <code>false</code> to compute
+   *                   one word at a time.
+   */
+  public synchronized void setVectorized(boolean vectorized) {
+    this.vectorized = vectorized && isVectorApiAvailable();
+  }
+
+  /**
+   * Sets the dimensions of the grid and allocates empty buffers for them.
+   *
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   */
+  private void allocate(int columns, int rows) {
+    this.columns = columns;
+    this.rows = rows;
+    this.words = (columns + Long.SIZE - 1) / Long.SIZE;
+    this.lastWordMask = -1L >>> (words * Long.SIZE - columns);
+    this.cells = new long[(rows + 2) * words];
+    this.nextCells = new long[(rows + 2) * words];
+    updateHaloColumns();
+  }
+
+  /**
+   * Checks whether the given coordinates lie within the grid.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @throws IllegalArgumentException if the coordinates are outside of the grid
+   */
+  private void checkBounds(int col, int row) {
+    if (col < 0 || row < 0) {
+      throw new IllegalArgumentException("Number of column and row may not be negative");
+    } else if (col >= columns || row >= rows) {
+      throw new IllegalArgumentException(
+          "Parameters for column and row may not exceed the maximum number of columns and rows");
+    }
+  }
+
+  /**
+   * Gets the index of the word that holds the specified cell.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @return index into {@link #cells}
+   */
+  private int wordIndex(int col, int row) {
+    return (row + 1) * words + (col >>> 6);
+  }
+
+  @Override
+  public synchronized boolean isCellAlive(int col, int row) {
+    checkBounds(col, row);
+    return (cells[wordIndex(col, row)] & (1L << col)) != 0;
+  }
+
+  @Override
+  public void setCellAlive(int col, int row) {
+    List<Cell> births = new ArrayList<>(1);
+    synchronized (this) {
+      if (setCellWithoutNotification(col, row, true)) {
+        births.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(births, Collections.emptyList());
+  }
+
+  @Override
+  public void setCellDead(int col, int row) {
+    List<Cell> deaths = new ArrayList<>(1);
+    synchronized (this) {
+      if (setCellWithoutNotification(col, row, false)) {
+        deaths.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(Collections.emptyList(), deaths);
+  }
+
+  /**
+   * Put a cell into either a living or dead state without notifying the listeners.
+   *
+   * @param col   The column of the cell
+   * @param row   The row of the cell
+   * @param alive if <code>true</code>, the cell is set alive; otherwise it is put into its dead
+   *              state
+   * @return <code>true</code> if the state of the cell has changed, <code>false</code> otherwise
+   */
+  private synchronized boolean setCellWithoutNotification(int col, int row, boolean alive) {
+    checkBounds(col, row);
+    int index = wordIndex(col, row);
+    long old = cells[index];
+    if (alive) {
+      cells[index] |= 1L << col;
+    } else {
+      cells[index] &= ~(1L << col);
+    }
+    if (cells[index] == old) {
+      return false;
+    }
+    if (hashing) {
+      populationHash ^= PopulationHash.cellKey(col, row);
+    }
+    return true;
+  }
+
+  @Override
+  public void applyChanges(Collection<Cell> born, Collection<Cell> died) {
+    List<Cell> births = new ArrayList<>();
+    List<Cell> deaths = new ArrayList<>();
+    synchronized (this) {
+      for (Cell cell : died) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : born) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : died) {
+        if (setCellWithoutNotification(cell.getColumn(), cell.getRow(), false)) {
+          deaths.add(cell);
+        }
+      }
+      for (Cell cell : born) {
+        if (setCellWithoutNotification(cell.getColumn(), cell.getRow(), true)) {
+          births.add(cell);
+        }
+      }
+      publishSnapshot();
+    }
+    notifyListeners(births, deaths);
+  }
+
+  @Override
+  public void stamp(Shape shape, int col, int row, Transform transform) {
+    Shape placed = shape.transform(transform);
+    List<Cell> births;
+    int shapeWords = GenerationSnapshot.wordsPerRow(placed.getColumns());
+    synchronized (this) {
+      // Whether to collect the births is decided in the section that collects them
+      births = support.hasListeners(STATE_CHANGED) ? new ArrayList<>() : null;
+      int fromRow = Math.max(0, -row);
+      int toRow = (int) Math.min(placed.getRows(), (long) rows - row);
+      for (int shapeRow = fromRow; shapeRow < toRow; shapeRow++) {
+        int gridRow = row + shapeRow;
+        for (int w = 0; w < shapeWords; w++) {
+          long word = placed.getWord(shapeRow, w);
+          if (word == 0) {
+            continue;
+          }
+          // The word covers the columns from start on, which span up to two words of the grid
+          long start = (long) col + (long) w * Long.SIZE;
+          long target = Math.floorDiv(start, Long.SIZE);
+          int shift = Math.floorMod(start, Long.SIZE);
+          stampWord(gridRow, target, word << shift, births);
+          if (shift != 0) {
+            stampWord(gridRow, target + 1, word >>> (Long.SIZE - shift), births);
+          }
+        }
+      }
+      publishSnapshot();
+    }
+    if (births != null) {
+      notifyListeners(births, Collections.emptyList());
+    }
+  }
+
+  /**
+   * Sets the cells of a word of a row alive, leaving out cells beyond the last column.
+   *
+   * @param row    y-position.
+   * @param word   index of the word within the row, may lie outside of the grid.
+   * @param alive  the cells to set alive.
+   * @param births receives the cells that are born, or <code>null</code> if not needed
+   */
+  private void stampWord(int row, long word, long alive, List<Cell> births) {
+    if (word < 0 || word >= words) {
+      return;
+    }
+    if (word == words - 1) {
+      alive &= lastWordMask;
+    }
+    int index = (row + 1) * words + (int) word;
+    long born = alive & ~cells[index];
+    cells[index] |= alive;
+    if (births != null || hashing) {
+      while (born != 0) {
+        int col = (int) word * Long.SIZE + Long.numberOfTrailingZeros(born);
+        if (births != null) {
+          births.add(new Cell(col, row));
+        }
+        if (hashing) {
+          populationHash ^= PopulationHash.cellKey(col, row);
+        }
+        born &= born - 1;
+      }
+    }
+  }
+
+  @Override
+  public synchronized void resize(int newCols, int newRows) {
+    if (newCols == columns && newRows == rows) {
+      return; // nothing to do
+    }
+
+    long[] oldCells = cells;
+    int oldWords = words;
+    int keptRows = Math.min(rows, newRows);
+    allocate(newCols, newRows);
+
+    int keptWords = Math.min(oldWords, words);
+    for (int row = 1; row <= keptRows; row++) {
+      System.arraycopy(oldCells, row * oldWords, cells, row * words, keptWords);
+      cells[row * words + words - 1] &= lastWordMask; // drop cells beyond the new last column
+    }
+    if (hashing) {
+      populationHash = computePopulationHash();
+    }
+    publishSnapshot();
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public synchronized int getRows() {
+    return rows;
+  }
+
+  @Override
+  public Collection<Cell> getPopulation() {
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      return current.getPopulation();
+    }
+    synchronized (this) {
+      Set<Cell> population = new HashSet<>();
+      for (int row = 0; row < rows; row++) {
+        int offset = (row + 1) * words;
+        for (int w = 0; w < words; w++) {
+          long word = cells[offset + w];
+          while (word != 0) {
+            int bit = Long.numberOfTrailingZeros(word);
+            population.add(new Cell(w * Long.SIZE + bit, row));
+            word &= word - 1;
+          }
+        }
+      }
+      return population;
+    }
+  }
+
+  @Override
+  public void forEachLiveCell(IntBiConsumer action) {
+    requireNonNull(action);
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      current.forEachLiveCell(action);
+      return;
+    }
+    synchronized (this) {
+      for (int row = 0; row < rows; row++) {
+        int offset = (row + 1) * words;
+        for (int w = 0; w < words; w++) {
+          long word = cells[offset + w];
+          while (word != 0) {
+            action.accept(w * Long.SIZE + Long.numberOfTrailingZeros(word), row);
+            word &= word - 1;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized long[] getPackedLiveCells() {
+    int count = 0;
+    for (int i = words; i < (rows + 1) * words; i++) {
+      count += Long.bitCount(cells[i]);
+    }
+    long[] packed = new long[count];
+    int next = 0;
+    for (int row = 0; row < rows; row++) {
+      int offset = (row + 1) * words;
+      for (int w = 0; w < words; w++) {
+        long word = cells[offset + w];
+        while (word != 0) {
+          packed[next++] = (long) row << 32 | w * Long.SIZE + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        }
+      }
+    }
+    return packed;
+  }
+
+  @Override
+  public synchronized void clear() {
+    generation = 0;
+    Arrays.fill(cells, 0L);
+    populationHash = 0;
+    publishSnapshot();
+
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized void next() {
+    computeNext();
+    publishSnapshot();
+
+    List<Cell> births = new ArrayList<>();
+    List<Cell> deaths = new ArrayList<>();
+    if (support.hasListeners(STATE_CHANGED)) {
+      collectChanges(births, deaths);
+    }
+    notifyListeners(births, deaths);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The generations are computed under a single lock, and the snapshot is published only once.
+   */
+  @Override
+  public void advance(long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    synchronized (this) {
+      for (long i = 0; i < generations; i++) {
+        computeNext();
+      }
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Computes the next generation into {@link #nextCells} and swaps it with {@link #cells}. It must
+   * be called with the lock held.
+   */
+  private void computeNext() {
+    fillHaloRows();
+    int bandRows = Math.max(MIN_BAND_ROWS, rows / (parallelism * BANDS_PER_THREAD));
+    if (pool == null || bandRows >= rows) {
+      populationHash ^= computeRows(1, rows + 1);
+    } else {
+      populationHash ^= pool.invoke(new BandTask(1, rows + 1, bandRows));
+    }
+    long[] swap = cells;
+    cells = nextCells;
+    nextCells = swap;
+    generation++;
+  }
+
+  /**
+   * Compares the current generation in {@link #cells} with the previous one, which is left in
+   * {@link #nextCells} after a step.
+   *
+   * @param births receives the cells that have been born
+   * @param deaths receives the cells that have died
+   */
+  private void collectChanges(List<Cell> births, List<Cell> deaths) {
+    for (int row = 0; row < rows; row++) {
+      int offset = (row + 1) * words;
+      for (int w = 0; w < words; w++) {
+        long changed = cells[offset + w] ^ nextCells[offset + w];
+        while (changed != 0) {
+          int bit = Long.numberOfTrailingZeros(changed);
+          Cell cell = new Cell(w * Long.SIZE + bit, row);
+          if ((cells[offset + w] & (1L << bit)) != 0) {
+            births.add(cell);
+          } else {
+            deaths.add(cell);
+          }
+          changed &= changed - 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Fills the halo rows of {@link #cells} with the rows that they stand for under the topology.
+   */
+  private void fillHaloRows() {
+    int top = 0;
+    int first = words;
+    int lastRow = rows * words;
+    int bottom = (rows + 1) * words;
+    switch (topology) {
+      case TORUS -> {
+        System.arraycopy(cells, lastRow, cells, top, words);
+        System.arraycopy(cells, first, cells, bottom, words);
+      }
+      case KLEIN_BOTTLE -> {
+        reverseRow(lastRow, top);
+        reverseRow(first, bottom);
+      }
+      case MIRRORED -> {
+        System.arraycopy(cells, first, cells, top, words);
+        System.arraycopy(cells, lastRow, cells, bottom, words);
+      }
+      default -> {
+        Arrays.fill(cells, top, first, 0L);
+        Arrays.fill(cells, bottom, bottom + words, 0L);
+      }
+    }
+  }
+
+  /**
+   * Copies a row of {@link #cells} into another one with its columns in reverse order.
+   *
+   * @param from index of the first word of the row to copy
+   * @param to   index of the first word of the row to write, which must be a different row
+   */
+  private void reverseRow(int from, int to) {
+    for (int w = 0; w < words; w++) {
+      cells[to + w] = Long.reverse(cells[from + words - 1 - w]);
+    }
+    // The reversed row ends in the last bit of the last word, move it back to the first column
+    int padding = words * Long.SIZE - columns;
+    if (padding != 0) {
+      for (int w = 0; w < words; w++) {
+        long next = w < words - 1 ? cells[to + w + 1] << (Long.SIZE - padding) : 0;
+        cells[to + w] = (cells[to + w] >>> padding) | next;
+      }
+    }
+  }
+
+  /**
+   * Gets a cell of a row of {@link #cells} that stands for a cell just outside of the grid.
+   *
+   * @param offset index of the first word of the row
+   * @param col    x-position of the cell, or -1 for a dead cell
+   * @return <code>1</code> if the cell is alive, <code>0</code> otherwise
+   */
+  private long haloCell(int offset, int col) {
+    return col < 0 ? 0 : cells[offset + (col >>> 6)] >>> col & 1;
+  }
+
+  /**
+   * Computes the next generation of a band of rows of {@link #cells} into {@link #nextCells}.
+   *
+   * @param fromRow first row of the band within the framed arrays, inclusive
+   * @param toRow   last row of the band within the framed arrays, exclusive
+   * @return the change of the hash of the population by the births and deaths within the band
+   */
+  private long computeRows(int fromRow, int toRow) {
+    long hashChange = 0;
+    for (int row = fromRow; row < toRow; row++) {
+      hashChange ^= computeRow(row);
+    }
+    return hashChange;
+  }
+
+  /**
+   * Computes the next generation of one row of {@link #cells} into {@link #nextCells}.
+   *
+   * @param row index of the row within the framed arrays, i.e. grid row + 1
+   * @return the change of the hash of the population by the births and deaths within the row, or
+   *         zero if the hash is not maintained
+   */
+  private long computeRow(int row) {
+    int above = (row - 1) * words;
+    int middle = row * words;
+    int below = (row + 1) * words;
+    int last = words - 1;
+    int eastBit = (columns - 1) & (Long.SIZE - 1);
+    long aboveWest = haloCell(above, westHaloColumn);
+    long aboveEast = haloCell(above, eastHaloColumn) << eastBit;
+    long middleWest = haloCell(middle, westHaloColumn);
+    long middleEast = haloCell(middle, eastHaloColumn) << eastBit;
+    long belowWest = haloCell(below, westHaloColumn);
+    long belowEast = haloCell(below, eastHaloColumn) << eastBit;
+
+    // The first and the last word need the halo cells, the words between them may use vectors
+    int firstScalarWord = 1;
+    if (vectorized) {
+      firstScalarWord = VectorRows.computeWords(cells, nextCells, above, middle, below, 1, last,
+          ruleCircuit);
+    }
+
+    RuleCircuit circuit = ruleCircuit;
+    for (int w = 0; w <= last; w = w == 0 ? firstScalarWord : w + 1) {
+      long a = cells[above + w];
+      long b = cells[middle + w];
+      long c = cells[below + w];
+
+      // Neighbors in the western and eastern column, including the bits of the adjacent words
+      long aw = (a << 1) | (w > 0 ? cells[above + w - 1] >>> 63 : aboveWest);
+      long ae = (a >>> 1) | (w < last ? cells[above + w + 1] << 63 : aboveEast);
+      long bw = (b << 1) | (w > 0 ? cells[middle + w - 1] >>> 63 : middleWest);
+      long be = (b >>> 1) | (w < last ? cells[middle + w + 1] << 63 : middleEast);
+      long cw = (c << 1) | (w > 0 ? cells[below + w - 1] >>> 63 : belowWest);
+      long ce = (c >>> 1) | (w < last ? cells[below + w + 1] << 63 : belowEast);
+
+      // Sum of each row of neighbors (full adder above and below, half adder in the middle)
+      long aboveOnes = aw ^ a ^ ae;
+      long aboveTwos = (aw & a) | (ae & (aw ^ a));
+      long middleOnes = bw ^ be;
+      long middleTwos = bw & be;
+      long belowOnes = cw ^ c ^ ce;
+      long belowTwos = (cw & c) | (ce & (cw ^ c));
+
+      // Sum of the rows into the four bits of the neighbor count
+      long count1 = aboveOnes ^ middleOnes ^ belowOnes;
+      long onesCarry = (aboveOnes & middleOnes) | (belowOnes & (aboveOnes ^ middleOnes));
+      long twos = aboveTwos ^ middleTwos ^ belowTwos;
+      long twosCarry = (aboveTwos & middleTwos) | (belowTwos & (aboveTwos ^ middleTwos));
+      long count2 = twos ^ onesCarry;
+      long fours = twos & onesCarry;
+      long count4 = twosCarry ^ fours;
+      long count8 = twosCarry & fours;
+
+      if (circuit == null) {
+        // Alive with two or three neighbors, or dead with exactly three neighbors
+        nextCells[middle + w] = count2 & ~count4 & ~count8 & (count1 | b);
+      } else {
+        nextCells[middle + w] = circuit.apply(b, count1, count2, count4, count8);
+      }
+    }
+    nextCells[middle + last] &= lastWordMask;
+
+    long hashChange = 0;
+    if (hashing) {
+      for (int w = 0; w <= last; w++) {
+        long changed = nextCells[middle + w] ^ cells[middle + w];
+        while (changed != 0) {
+          hashChange ^= PopulationHash.cellKey(w * Long.SIZE + Long.numberOfTrailingZeros(changed),
+              row - 1);
+          changed &= changed - 1;
+        }
+      }
+    }
+    return hashChange;
+  }
+
+  /**
+   * Computes the hash of the living cells from scratch.
+   *
+   * @return the hash of the population
+   */
+  private long computePopulationHash() {
+    long hash = 0;
+    for (int row = 0; row < rows; row++) {
+      int offset = (row + 1) * words;
+      for (int w = 0; w < words; w++) {
+        long word = cells[offset + w];
+        while (word != 0) {
+          hash ^= PopulationHash.cellKey(w * Long.SIZE + Long.numberOfTrailingZeros(word), row);
+          word &= word - 1;
+        }
+      }
+    }
+    return hash;
+  }
+
+  @Override
+  public synchronized Rule getRule() {
+    return rule;
+  }
+
+  @Override
+  public synchronized void setRule(Rule rule) {
+    this.rule = requireNonNull(rule);
+    ruleCircuit = rule.equals(Rule.CONWAY) ? null : new RuleCircuit(rule);
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized Topology getTopology() {
+    return topology;
+  }
+
+  @Override
+  public synchronized void setTopology(Topology topology) {
+    this.topology = requireNonNull(topology);
+    updateHaloColumns();
+    notifyListeners();
+  }
+
+  /**
+   * Looks up the columns that stand for the cells just left and right of the grid, which depend on
+   * the topology and the number of columns.
+   */
+  private void updateHaloColumns() {
+    switch (topology) {
+      case TORUS, KLEIN_BOTTLE -> {
+        westHaloColumn = columns - 1;
+        eastHaloColumn = 0;
+      }
+      case MIRRORED -> {
+        westHaloColumn = 0;
+        eastHaloColumn = columns - 1;
+      }
+      default -> {
+        westHaloColumn = -1;
+        eastHaloColumn = -1;
+      }
+    }
+  }
+
+  @Override
+  public synchronized long getPopulationHash() {
+    if (!hashing) {
+      hashing = true;
+      populationHash = computePopulationHash();
+    }
+    return populationHash;
+  }
+
+  @Override
+  public synchronized long getGenerations() {
+    return generation;
+  }
+
+  @Override
+  public String toString() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = createSnapshot();
+      }
+    }
+    return current.toString();
+  }
+
+  @Override
+  public GenerationSnapshot getSnapshot() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          snapshot = createSnapshot();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Publishes a snapshot of the current state once snapshots have been requested. It must be called
+   * with the lock held after every change, before the listeners get notified.
+   */
+  private void publishSnapshot() {
+    if (snapshot != null) {
+      snapshot = createSnapshot();
+    }
+  }
+
+  /**
+   * Copies the current state into a new snapshot.
+   *
+   * @return the snapshot
+   */
+  private GenerationSnapshot createSnapshot() {
+    long[] bits = new long[rows * words];
+    System.arraycopy(cells, words, bits, 0, bits.length);
+    return new GenerationSnapshot(columns, rows, generation, ++snapshotVersion, bits);
+  }
+
+  @Override
+  public void addPropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.addPropertyChangeListener(pcl);
+  }
+
+  @Override
+  public void removePropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.removePropertyChangeListener(pcl);
+  }
+
+  /**
+   * Splits a band of rows in halves until it is small enough to be computed by a single thread,
+   * and combines the changes of the hash of the population of the halves.
+   */
+  private final class BandTask extends RecursiveTask<Long> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int fromRow;
+    private final int toRow;
+    private final int bandRows;
+
+    /**
+     * Creates a task for a band of rows.
+     *
+     * @param fromRow  first row of the band within the framed arrays, inclusive
+     * @param toRow    last row of the band within the framed arrays, exclusive
+     * @param bandRows maximum number of rows that are computed without splitting the band
+     */
+    private BandTask(int fromRow, int toRow, int bandRows) {
+      this.fromRow = fromRow;
+      this.toRow = toRow;
+      this.bandRows = bandRows;
+    }
+
+    @Override
+    protected Long compute() {
+      if (toRow - fromRow <= bandRows) {
+        return computeRows(fromRow, toRow);
+      }
+      int middle = (fromRow + toRow) >>> 1;
+      BandTask upper = new BandTask(fromRow, middle, bandRows);
+      BandTask lower = new BandTask(middle, toRow, bandRows);
+      invokeAll(upper, lower);
+      return upper.join() ^ lower.join();
+    }
+  }
+
+  /**
+   * Invokes the model to fire a new event, such that any attached observer (i.e.,
+   * {@link PropertyChangeListener}) gets notified about a change in this model.
+   */
+  private void notifyListeners() {
+    support.firePropertyChange(STATE_CHANGED, null, this);
+  }
+
+  /**
+   * Invokes the model to fire a new {@link GenerationEvent}, such that any attached observer gets
+   * notified about the cells that have changed in this model.
+   *
+   * @param births the cells that have been set alive
+   * @param deaths the cells that have been put into a dead state
+   */
+  private void notifyListeners(List<Cell> births, List<Cell> deaths) {
+    support.firePropertyChange(new GenerationEvent(this, getGenerations(), births, deaths));
+  }
+}
@@ -51,8 +51,9 @@ public class Cell {
 
   @Override
   public int hashCode() {
-    int hashfactor = 5000;
-    return hashfactor * row + column;
+    // Mixes both coordinates, so that cells of arbitrarily wide grids rarely collide
+    long key = (long) row << 32 | column;
+    return Long.hashCode(key * 0x9E3779B97F4A7C15L);
   }
 
   @Override
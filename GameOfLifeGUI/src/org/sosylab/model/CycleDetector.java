@@ -0,0 +1,186 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * Detects that the generations of a {@link Model} repeat, i.e. that the board has settled into
+ * still lifes and oscillators.
+ *
+ * <p>The detector observes the model and keeps the {@linkplain Model#getPopulationHash() hashes of
+ * the population} of the latest generations in a ring of bounded size. When the hash of a new
+ * generation equals the hash of one of these, the board repeats with the distance of the two as
+ * its period, and the detector fires a {@link #CYCLE_DETECTED} event once. Cycles whose period
+ * exceeds the size of the history are not detected. As different populations may have the same
+ * hash, a cycle is detected wrongly with a chance of about one in 2<sup>64</sup>.
+ *
+ * <p>Any change other than the computation of the next generation, such as setting a cell or
+ * changing the rule, starts a new history.
+ */
+public class CycleDetector implements PropertyChangeListener {
+
+  /**
+   * The name of the event that is fired when a cycle has been detected. Its new value is the
+   * period.
+   */
+  public static final String CYCLE_DETECTED = "Cycle detected";
+
+  /**
+   * The number of generations that are remembered by default.
+   */
+  public static final int DEFAULT_HISTORY = 64;
+
+  private final Model model;
+  private final PropertyChangeSupport support;
+
+  // The hashes of the latest generations, the hash of generation g is kept at g % hashes.length
+  private final long[] hashes;
+  private int length;
+  private long lastGeneration;
+
+  private int period;
+  private long cycleStart;
+
+  /**
+   * Constructs a new detector with the {@link #DEFAULT_HISTORY default history} and starts
+   * observing the model.
+   *
+   * @param model the model whose generations are observed.
+   */
+  public CycleDetector(Model model) {
+    this(model, DEFAULT_HISTORY);
+  }
+
+  /**
+   * Constructs a new detector and starts observing the model.
+   *
+   * @param model   the model whose generations are observed.
+   * @param history the number of generations that are remembered, i.e. the longest period that is
+   *                detected.
+   * @throws IllegalArgumentException if the history is not positive
+   */
+  public CycleDetector(Model model, int history) {
+    if (history <= 0) {
+      throw new IllegalArgumentException("The history must be positive");
+    }
+    this.model = requireNonNull(model);
+    this.support = new PropertyChangeSupport(this);
+    this.hashes = new long[history];
+    synchronized (model) {
+      restart(model.getGenerations(), model.getPopulationHash());
+      model.addPropertyChangeListener(this);
+    }
+  }
+
+  /**
+   * Stops observing the model.
+   */
+  public void dispose() {
+    model.removePropertyChangeListener(this);
+  }
+
+  /**
+   * Gets the period of the detected cycle.
+   *
+   * @return the number of generations after which the board repeats, or <code>0</code> if no cycle
+   *         has been detected since the last change.
+   */
+  public synchronized int getPeriod() {
+    return period;
+  }
+
+  /**
+   * Gets the generation from which on the board repeats.
+   *
+   * @return the first generation of the detected cycle, or <code>-1</code> if no cycle has been
+   *         detected since the last change.
+   */
+  public synchronized long getCycleStart() {
+    return period == 0 ? -1 : cycleStart;
+  }
+
+  @Override
+  public void propertyChange(PropertyChangeEvent event) {
+    if (!event.getPropertyName().equals(Model.STATE_CHANGED)) {
+      return;
+    }
+    long generation;
+    long hash;
+    synchronized (model) {
+      generation = model.getGenerations();
+      hash = model.getPopulationHash();
+    }
+    int detected = record(generation, hash);
+    if (detected != 0) {
+      support.firePropertyChange(CYCLE_DETECTED, 0, detected);
+    }
+  }
+
+  /**
+   * Remembers the hash of a generation and compares it with the remembered ones.
+   *
+   * @param generation the generation of the model.
+   * @param hash       the hash of its population.
+   * @return the period of a newly detected cycle, or <code>0</code> if none has been detected
+   */
+  private synchronized int record(long generation, long hash) {
+    if (generation != lastGeneration + 1) {
+      // Not the next generation, but a change of the board or a jump over several generations
+      restart(generation, hash);
+      return 0;
+    }
+    int detected = 0;
+    if (period == 0) {
+      for (int distance = 1; distance <= length; distance++) {
+        if (hashes[(int) ((generation - distance) % hashes.length)] == hash) {
+          detected = distance;
+          period = distance;
+          cycleStart = generation - distance;
+          break;
+        }
+      }
+    }
+    hashes[(int) (generation % hashes.length)] = hash;
+    length = Math.min(length + 1, hashes.length);
+    lastGeneration = generation;
+    return detected;
+  }
+
+  /**
+   * Forgets the history and the detected cycle, starting with the given generation.
+   *
+   * @param generation the generation of the model.
+   * @param hash       the hash of its population.
+   */
+  private synchronized void restart(long generation, long hash) {
+    hashes[(int) (generation % hashes.length)] = hash;
+    length = 1;
+    lastGeneration = generation;
+    period = 0;
+  }
+
+  /**
+   * Add a {@link PropertyChangeListener} that gets notified when a cycle has been detected. The
+   * listener is called on the thread that computed the generation, which may hold the lock of the
+   * model.
+   *
+   * @param pcl the listener.
+   */
+  public void addPropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.addPropertyChangeListener(pcl);
+  }
+
+  /**
+   * Remove a listener from the detector.
+   *
+   * @param pcl the listener.
+   */
+  public void removePropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.removePropertyChangeListener(pcl);
+  }
+}
@@ -0,0 +1,76 @@
+package org.sosylab.model;
+
+/**
+ * The available implementations of the Game of Life {@link Model}.
+ */
+public class Engines {
+
+  /**
+   * Name of the engine that is used if none is selected.
+   */
+  public static final String DEFAULT_ENGINE = "game";
+
+  private static final String[] ENGINES =
+      {"game", "bitgrid", "parallel", "vector", "hashlife", "sparse"};
+
+  /**
+   * Creates a model of the default size with the engine of the given name.
+   *
+   * @param name the name of the engine
+   * @return a new model consisting solely of dead cells
+   * @throws IllegalArgumentException if the name of the engine is not recognized
+   */
+  public static Model createByName(String name) {
+    return switch (name) {
+      case "game" -> new Game();
+      case "bitgrid" -> new BitGridGame();
+      case "parallel" -> {
+        BitGridGame game = new BitGridGame();
+        game.setParallelism(Runtime.getRuntime().availableProcessors());
+        yield game;
+      }
+      case "vector" -> {
+        BitGridGame game = new BitGridGame();
+        game.setVectorized(true);
+        yield game;
+      }
+      case "hashlife" -> new HashlifeGame();
+      case "sparse" -> new SparseGame();
+      default -> throw new IllegalArgumentException("The engine is not recognized");
+    };
+  }
+
+  /**
+   * Creates a model with the engine of the given name.
+   *
+   * @param name    the name of the engine
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   * @return a new model consisting solely of dead cells
+   * @throws IllegalArgumentException if the name of the engine is not recognized
+   */
+  public static Model createByName(String name, int columns, int rows) {
+    return switch (name) {
+      case "game" -> new Game(columns, rows);
+      case "bitgrid" -> new BitGridGame(columns, rows);
+      case "parallel" -> new BitGridGame(columns, rows, Runtime.getRuntime().availableProcessors());
+      case "vector" -> {
+        BitGridGame game = new BitGridGame(columns, rows);
+        game.setVectorized(true);
+        yield game;
+      }
+      case "hashlife" -> new HashlifeGame(columns, rows);
+      case "sparse" -> new SparseGame(columns, rows);
+      default -> throw new IllegalArgumentException("The engine is not recognized");
+    };
+  }
+
+  /**
+   * Get an array of names of available engines.
+   *
+   * @return array of names of available engines
+   */
+  public static String[] getAvailableEngines() {
+    return ENGINES.clone();
+  }
+}
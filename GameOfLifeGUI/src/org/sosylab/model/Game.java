@@ -4,13 +4,13 @@ import static java.util.Objects.requireNonNull;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Contains the grid, the current shape and the Game Of Life algorithm that changes it.
@@ -32,6 +32,24 @@ import java.util.Set;
  * - no more, no fewer - is born (added) for the next generation.</li>
  * </ol>
  *
+ * <p>These are the rules of Conway's Game of Life, <code>B3/S23</code>. Any other Life-like
+ * {@link Rule} can be set with {@link #setRule(Rule)}; it is evaluated through a lookup table,
+ * so that all rules are computed equally fast.
+ *
+ * <p>How the edges of the grid are joined is chosen with {@link #setTopology(Topology)}. The
+ * neighbors outside of the grid are looked up in a halo of cell pairs that is computed once for
+ * each size and topology, so that counting the neighbors within the grid needs no wrapping.
+ *
+ * <p>The grid is divided into tiles of 32 by 32 cells, which remember the cells that have flipped
+ * in the last two generations. A tile that flipped the same cells twice, such as one of still
+ * lifes, blinkers or empty space, flips them again if the tiles around it did the same, so a
+ * generation only evaluates the other tiles and the tiles around them. When most tiles have to be
+ * evaluated, e.g. in a young random soup, the neighbors of all living cells are counted instead.
+ *
+ * <p>The buffers are allocated with room for growing, so that resizing the grid within their
+ * capacity only removes the cells outside of the new bounds. When the grid outgrows them, they are
+ * reallocated with half of their size to spare.
+ *
  * <p>The initial pattern constitutes the 'seed' of the system. The first
  * generation is created by applying the above rules simultaneously to every
  * cell in the seed in which births and deaths happen simultaneously, and the
@@ -51,29 +69,116 @@ public class Game implements Model {
    */
   private static final int INITIAL_ROWS = 30;
 
+  // Bits of the neighbor counts during the computation of a generation
+  private static final int TOUCHED = 0x10;
 
-  // Staying alive in this range
-  private static final int STAY_ALIVE_MIN_NEIGHBORS = 2;
-  private static final int STAY_ALIVE_MAX_NEIGHBORS = 3;
+  // Edge length of the square tiles whose flips are tracked
+  private static final int TILE_SIZE = 32;
 
-  // Condition for getting newly born
-  private static final int NEWBORN_NEIGHBORS = 3;
+  // Number of rows of a tile per word of a bitmap of the cells of a tile, and its number of words
+  private static final int TILE_ROWS_PER_WORD = Long.SIZE / TILE_SIZE;
+  private static final int TILE_WORDS = TILE_SIZE / TILE_ROWS_PER_WORD;
+
+  // Number of generations for which a tile is evaluated after a change outside of next()
+  private static final byte DIRTY_GENERATIONS = 2;
+
+  /*
+   * Cost of counting the neighbors of a living cell by pushing its count to its eight neighbors,
+   * relative to pulling the count of one cell of an evaluated tile, which decides between the two.
+   */
+  private static final int PUSH_COST = 8;
 
   private final PropertyChangeSupport support;
 
-  private int generation = 0;
+  private long generation = 0;
+
+  private Rule rule = Rule.CONWAY;
+
+  /*
+   * The next state of a touched cell, indexed by its neighbor count including the bit TOUCHED,
+   * which is exactly the index of Rule#createLookupTable().
+   */
+  private byte[] ruleTable = rule.createLookupTable();
+
+  private Topology topology = Topology.DEAD_EDGE;
+
+  private int columns;
+  private int rows;
+
+  /*
+   * The capacity of the buffers below, which is at least the size of the grid. All cells outside
+   * of the grid are dead.
+   */
+  private int stride;
+  private int capacityRows;
+
+  /*
+   * The state of the game, indexed by row * stride + col. The living cells are kept both in
+   * alive and in the list liveCells, whose entries are located by livePositions, so that a cell can
+   * be added and removed in constant time.
+   */
+  private byte[] alive;
+  private int[] liveCells;
+  private int[] livePositions;
+  private int liveCount;
+
+  // Hash of the living cells, maintained by addLiveCell and removeLiveCell once it is requested
+  private boolean hashing;
+  private long populationHash;
+
+  /*
+   * Buffers of next(), which are reused for every generation: the neighbor counts of the cells and
+   * the list of cells whose count has been touched. The low bits of a count hold the number of
+   * living neighbors, the bit TOUCHED marks the living cells, so that cells without any living
+   * neighbor are evaluated as well.
+   */
+  private byte[] neighborCounts;
+  private int[] touchedCells;
+
+  // Index offsets of the eight neighbors of a cell that does not lie on the border
+  private int[] neighborOffsets;
 
   /*
-   * Every cell on the grid is a Cell object. The first dimension are the rows, the second the
-   * columns.
+   * The grid is divided into tiles of TILE_SIZE x TILE_SIZE cells, indexed by
+   * tileRow * tileColumns + tileCol. The cells that have flipped their state in the last and in the
+   * previous generation are kept as bitmaps of TILE_WORDS words per tile, nextFlips collects those
+   * of the generation being computed.
    *
-   * <p>This object provides a convenient way of accessing cells in a quick manner. Note that it
-   * does not store the state of a cell, i.e. whether it is dead or alive (this is done in the
-   * population-collection).
+   * A tile is stable if its flips of the last generation equal those of the previous one, e.g. if
+   * it holds nothing but still lifes and blinkers. Tiles around which all tiles are stable repeat
+   * their last flips, all other tiles are collected in evaluatedTiles. Tiles that have been changed
+   * outside of next() are not stable for the following DIRTY_GENERATIONS generations.
+   */
+  private int tileColumns;
+  private int tileRows;
+  private long[] lastFlips;
+  private long[] previousFlips;
+  private long[] nextFlips;
+  private byte[] dirtyTiles;
+  private boolean[] unstableTiles;
+  private boolean[] evaluatedTiles;
+  private int[] evaluatedTileList;
+
+  /*
+   * The halo around the grid as pairs of cells: a living haloSources[i] counts as a neighbor of the
+   * border cell haloTargets[i], because it stands for a cell just outside of the grid under the
+   * topology. Empty for dead edges.
+   */
+  private int[] haloTargets;
+  private int[] haloSources;
+
+  // The tiles that are neighbors through the halo, as pairs of the source and the target tile
+  private int[] haloSourceTiles;
+  private int[] haloTargetTiles;
+
+  /*
+   * The living cells packed in the layout of GenerationSnapshot, which is kept up to date with
+   * every flip, and the snapshot that has been copied from it after the latest change.
    */
-  private Cell[][] field;
-  private final Map<Integer, List<Cell>> allNeighbors;
-  private final Set<Cell> population;
+  private long[] packedCells;
+  private int packedWordsPerRow;
+  private volatile GenerationSnapshot snapshot;
+  private long snapshotVersion;
 
   /**
    * Constructs a new game with a default size of {@link Game#INITIAL_COLUMNS} and  of
@@ -95,131 +200,414 @@ public class Game implements Model {
     }
 
     support = new PropertyChangeSupport(this);
-
-    this.field = new Cell[rows][columns];
-    this.allNeighbors = new HashMap<>();
-    this.population = new HashSet<>();
-    initializeFields();
+    initializeFields(columns, rows);
+    publishSnapshot();
   }
 
   /**
-   * Fills the empty instance-fields with a default values.
+   * Allocates the buffers for a grid of the given size consisting solely of dead cells.
+   *
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
    */
-  private synchronized void initializeFields() {
-    for (int row = 0; row < field.length; row++) {
-      for (int col = 0; col < field[0].length; col++) {
-        field[row][col] = new Cell(col, row);  // each cell has unique coordinates
-        allNeighbors.put(field[row][col].hashCode(), getNeighbors(field[row][col]));
-      }
-    }
+  private synchronized void initializeFields(int columns, int rows) {
+    allocate(columns, rows);
+    this.columns = columns;
+    this.rows = rows;
+    packCells();
+    initializeHalo();
   }
 
   /**
-   * Get the cells that may change in the next generation.
+   * Allocates the buffers for the given capacity. All cells are dead afterwards.
    *
-   * @return cells to recalculate
+   * @param capacityColumns Number of columns the buffers can hold.
+   * @param capacityRows    Number of rows the buffers can hold.
+   */
+  private void allocate(int capacityColumns, int capacityRows) {
+    this.stride = capacityColumns;
+    this.capacityRows = capacityRows;
+    int size = capacityColumns * capacityRows;
+    alive = new byte[size];
+    liveCells = new int[size];
+    livePositions = new int[size];
+    liveCount = 0;
+    populationHash = 0;
+    neighborCounts = new byte[size];
+    touchedCells = new int[size];
+    neighborOffsets = new int[] {-stride - 1, -stride, -stride + 1, -1, 1, stride - 1, stride,
+        stride + 1};
+    tileColumns = (capacityColumns + TILE_SIZE - 1) / TILE_SIZE;
+    tileRows = (capacityRows + TILE_SIZE - 1) / TILE_SIZE;
+    int tiles = tileColumns * tileRows;
+    lastFlips = new long[tiles * TILE_WORDS];
+    previousFlips = new long[tiles * TILE_WORDS];
+    nextFlips = new long[tiles * TILE_WORDS];
+    dirtyTiles = new byte[tiles];
+    Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
+    unstableTiles = new boolean[tiles];
+    evaluatedTiles = new boolean[tiles];
+    evaluatedTileList = new int[tiles];
+  }
+
+  /**
+   * Collects the pairs of the halo for the current size and topology. Every border cell is paired
+   * with the cell of the grid that each of its neighbors outside of the grid stands for.
    */
-  private Set<Cell> getCellsToRecalculate() {
-    Set<Cell> cellsToRecalculate = new HashSet<>();
-    for (Cell cell : population) {
-      cellsToRecalculate.addAll(getNeighbors(cell));
+  private void initializeHalo() {
+    int borderCells = rows <= 2 || columns <= 2 ? columns * rows : 2 * (columns + rows) - 4;
+    int[] targets = new int[8 * borderCells];
+    int[] sources = new int[8 * borderCells];
+    int count = 0;
+    for (int row = 0; row < rows; row++) {
+      boolean borderRow = row == 0 || row == rows - 1;
+      for (int col = 0; col < columns; col += borderRow ? 1 : Math.max(columns - 1, 1)) {
+        for (int neighborRow = row - 1; neighborRow <= row + 1; neighborRow++) {
+          for (int neighborCol = col - 1; neighborCol <= col + 1; neighborCol++) {
+            if (neighborCol >= 0 && neighborRow >= 0 && neighborCol < columns
+                && neighborRow < rows) {
+              continue; // the neighbor lies within the grid, or is the cell itself
+            }
+            int source = mapOutside(neighborCol, neighborRow);
+            if (source >= 0) {
+              targets[count] = row * stride + col;
+              sources[count++] = source;
+            }
+          }
+        }
+      }
+    }
+    haloTargets = Arrays.copyOf(targets, count);
+    haloSources = Arrays.copyOf(sources, count);
+
+    long[] tileLinks = new long[count];
+    for (int i = 0; i < count; i++) {
+      tileLinks[i] = (long) tileOf(sources[i]) << 32 | tileOf(targets[i]);
+    }
+    tileLinks = Arrays.stream(tileLinks).sorted().distinct().toArray();
+    haloSourceTiles = new int[tileLinks.length];
+    haloTargetTiles = new int[tileLinks.length];
+    for (int i = 0; i < tileLinks.length; i++) {
+      haloSourceTiles[i] = (int) (tileLinks[i] >>> 32);
+      haloTargetTiles[i] = (int) tileLinks[i];
     }
-    cellsToRecalculate.addAll(population);
-    return cellsToRecalculate;
   }
 
   /**
-   * Calculates game state for the next generation.
+   * Collects the tiles that need to be evaluated in the next generation: the tiles that are not
+   * stable, the tiles around them and the tiles that are their neighbors through the halo.
    *
-   * @param cellsToRecalculate cells that may change in the next generation
-   */
-  private void recalculateNext(Set<Cell> cellsToRecalculate) {
-    Map<Integer, Integer> allAliveNeighbors = new HashMap<>();
-    for (Cell cell : cellsToRecalculate) {
-      int aliveNeighbors = countAliveNeighbors(cell);
-      allAliveNeighbors.put(cell.hashCode(), aliveNeighbors);
-    }
-    for (Cell cell : cellsToRecalculate) {
-      int aliveNeighbors = allAliveNeighbors.get(cell.hashCode());
-      if (isCellAlive(cell.getColumn(), cell.getRow()) && (aliveNeighbors < STAY_ALIVE_MIN_NEIGHBORS
-          || aliveNeighbors > STAY_ALIVE_MAX_NEIGHBORS)) {
-        setCellDead(cell.getColumn(), cell.getRow());
+   * @return the number of tiles in {@link #evaluatedTileList}
+   */
+  private int collectEvaluatedTiles() {
+    for (int tile = 0; tile < unstableTiles.length; tile++) {
+      unstableTiles[tile] = dirtyTiles[tile] != 0 || !Arrays.equals(lastFlips, tile * TILE_WORDS,
+          (tile + 1) * TILE_WORDS, previousFlips, tile * TILE_WORDS, (tile + 1) * TILE_WORDS);
+    }
+    Arrays.fill(evaluatedTiles, false);
+    for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+      for (int tileCol = 0; tileCol < tileColumns; tileCol++) {
+        if (!unstableTiles[tileRow * tileColumns + tileCol]) {
+          continue;
+        }
+        for (int row = Math.max(tileRow - 1, 0); row <= Math.min(tileRow + 1, tileRows - 1);
+            row++) {
+          for (int col = Math.max(tileCol - 1, 0); col <= Math.min(tileCol + 1, tileColumns - 1);
+              col++) {
+            evaluatedTiles[row * tileColumns + col] = true;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < haloSourceTiles.length; i++) {
+      if (unstableTiles[haloSourceTiles[i]]) {
+        evaluatedTiles[haloTargetTiles[i]] = true;
       }
-      if (!isCellAlive(cell.getColumn(), cell.getRow()) && aliveNeighbors == NEWBORN_NEIGHBORS) {
-        setCellAlive(cell.getColumn(), cell.getRow());
+    }
+
+    int count = 0;
+    for (int tile = 0; tile < evaluatedTiles.length; tile++) {
+      if (evaluatedTiles[tile]) {
+        evaluatedTileList[count++] = tile;
       }
     }
+    return count;
   }
 
   /**
-   * Count alive neighbors of the specified cell.
+   * Calculates game state for the next generation tile by tile. The cells of the evaluated tiles
+   * are evaluated with directly counted neighbors. All other tiles and their neighbors have
+   * flipped the same cells in the last two generations, so that their neighborhood is the same as
+   * two generations ago, and they flip the same cells again.
    *
-   * @param cell the cell whose neighbors need to be counted
-   * @throws IllegalArgumentException if number of columns and rows is negative or greater than the
-   *                                  field size
+   * @param evaluatedTileCount number of tiles in {@link #evaluatedTileList}
+   * @param births             receives the cells that are born, or <code>null</code> if not
+   *                           needed
+   * @param deaths             receives the cells that die, or <code>null</code> if not needed
    */
-  private int countAliveNeighbors(Cell cell) throws IllegalArgumentException {
-    if (cell.getColumn() >= this.getColumns() || cell.getRow() >= this.getRows()) {
-      throw new IllegalArgumentException(
-          "Parameters for column and row may not exceed the maximum number of columns and rows");
+  private void recalculateTiles(int evaluatedTileCount, List<Cell> births, List<Cell> deaths) {
+    // The cells flip after all tiles have been evaluated, they are collected in the touched buffer
+    int flipCount = 0;
+    for (int i = 0; i < evaluatedTileCount; i++) {
+      int tile = evaluatedTileList[i];
+      int fromCol = tile % tileColumns * TILE_SIZE;
+      int toCol = Math.min(fromCol + TILE_SIZE, columns);
+      int fromRow = tile / tileColumns * TILE_SIZE;
+      int toRow = Math.min(fromRow + TILE_SIZE, rows);
+      for (int row = fromRow; row < toRow; row++) {
+        boolean innerRow = row > 0 && row < rows - 1;
+        for (int col = fromCol; col < toCol; col++) {
+          int index = row * stride + col;
+          int neighbors;
+          if (innerRow && col > 0 && col < columns - 1) {
+            neighbors = alive[index - stride - 1] + alive[index - stride]
+                + alive[index - stride + 1] + alive[index - 1] + alive[index + 1]
+                + alive[index + stride - 1] + alive[index + stride] + alive[index + stride + 1];
+          } else {
+            neighbors = countBorderCellNeighbors(col, row);
+          }
+          if (ruleTable[neighbors | alive[index] * TOUCHED] != alive[index]) {
+            touchedCells[flipCount++] = index;
+          }
+        }
+      }
     }
-    if (cell.getColumn() < 0 || cell.getRow() < 0) {
-      throw new IllegalArgumentException("Number of column and row may not be negative");
+    for (int tile = 0; tile < evaluatedTiles.length; tile++) {
+      if (evaluatedTiles[tile]) {
+        continue;
+      }
+      int fromCol = tile % tileColumns * TILE_SIZE;
+      int fromRow = tile / tileColumns * TILE_SIZE;
+      for (int w = 0; w < TILE_WORDS; w++) {
+        long word = lastFlips[tile * TILE_WORDS + w];
+        while (word != 0) {
+          int bit = Long.numberOfTrailingZeros(word);
+          int row = fromRow + w * TILE_ROWS_PER_WORD + bit / TILE_SIZE;
+          touchedCells[flipCount++] = row * stride + fromCol + bit % TILE_SIZE;
+          word &= word - 1;
+        }
+      }
     }
-    List<Cell> neighbors = allNeighbors.get(cell.hashCode());
-    int aliveNeighborsCounter = 0;
-    if (neighbors == null) {
-      return aliveNeighborsCounter;
+
+    for (int i = 0; i < flipCount; i++) {
+      int index = touchedCells[i];
+      recordFlip(index);
+      if (alive[index] != 0) {
+        removeLiveCell(index);
+        if (deaths != null) {
+          deaths.add(cellAt(index));
+        }
+      } else {
+        addLiveCell(index);
+        if (births != null) {
+          births.add(cellAt(index));
+        }
+      }
     }
-    for (Cell neighbor : neighbors) {
-      if (isCellAlive(neighbor.getColumn(), neighbor.getRow())) {
-        aliveNeighborsCounter++;
+  }
+
+  /**
+   * Records a cell that flips its state in the generation being computed in {@link #nextFlips}.
+   *
+   * @param index the index of the cell
+   */
+  private void recordFlip(int index) {
+    int col = index % stride;
+    int row = index / stride;
+    int tile = row / TILE_SIZE * tileColumns + col / TILE_SIZE;
+    int word = tile * TILE_WORDS + row % TILE_SIZE / TILE_ROWS_PER_WORD;
+    nextFlips[word] |= 1L << (row % TILE_ROWS_PER_WORD * TILE_SIZE + col % TILE_SIZE);
+  }
+
+  /**
+   * Makes the flips of the generation that has just been computed the last ones and lets the
+   * changes outside of next() age by a generation.
+   */
+  private void completeFlips() {
+    long[] oldest = previousFlips;
+    previousFlips = lastFlips;
+    lastFlips = nextFlips;
+    nextFlips = oldest;
+    Arrays.fill(nextFlips, 0L);
+    for (int tile = 0; tile < dirtyTiles.length; tile++) {
+      if (dirtyTiles[tile] != 0) {
+        dirtyTiles[tile]--;
       }
     }
-    return aliveNeighborsCounter;
   }
 
   /**
-   * Get neighbors of the specified cell.
+   * Marks the tile of a cell that has been changed outside of next(), so that it is evaluated in
+   * the following generations.
    *
-   * @param cell the cell whose neighbors need to be determined
-   * @return neighbors of the specified cell
-   * @throws IllegalArgumentException if number of columns and rows greater than the field size
-   */
-  private ArrayList<Cell> getNeighbors(Cell cell) throws IllegalArgumentException {
-    int row = cell.getRow();
-    int column = cell.getColumn();
-    if (column >= this.getColumns() || row >= this.getRows()) {
-      throw new IllegalArgumentException(
-          "Parameters for column and row may not exceed the maximum number of columns and rows");
+   * @param index the index of the cell
+   */
+  private void markDirty(int index) {
+    dirtyTiles[tileOf(index)] = DIRTY_GENERATIONS;
+  }
+
+  /**
+   * Counts the living neighbors of a cell on the border of the grid, including those outside of
+   * the grid under the topology.
+   *
+   * @param col The column of the cell
+   * @param row The row of the cell
+   * @return the number of living neighbors
+   */
+  private int countBorderCellNeighbors(int col, int row) {
+    int neighbors = 0;
+    for (int neighborRow = row - 1; neighborRow <= row + 1; neighborRow++) {
+      for (int neighborCol = col - 1; neighborCol <= col + 1; neighborCol++) {
+        if (neighborCol == col && neighborRow == row) {
+          continue;
+        }
+        int neighbor = mapOutside(neighborCol, neighborRow);
+        if (neighbor >= 0) {
+          neighbors += alive[neighbor];
+        }
+      }
     }
-    ArrayList<Cell> neighbors = new ArrayList<>();
-    if (column != 0) {
-      neighbors.add(new Cell(column - 1, row));
-      if (row != 0) {
-        neighbors.add(new Cell(column - 1, row - 1));
-        //neighbors.add(new Cell(column, row - 1));
+    return neighbors;
+  }
+
+  /**
+   * Calculates game state for the next generation. The neighbors of all living cells within the
+   * grid are counted first, then those in the halo around it, then the rules are applied to every
+   * touched cell.
+   *
+   * @param births receives the cells that are born, or <code>null</code> if not needed
+   * @param deaths receives the cells that die, or <code>null</code> if not needed
+   */
+  private void recalculateNext(List<Cell> births, List<Cell> deaths) {
+    int touchedCount = 0;
+    for (int i = 0; i < liveCount; i++) {
+      int index = liveCells[i];
+      if (neighborCounts[index] == 0) {
+        touchedCells[touchedCount++] = index;
+      }
+      neighborCounts[index] |= TOUCHED;
+      int col = index % stride;
+      int row = index / stride;
+      if (col > 0 && row > 0 && col < columns - 1 && row < rows - 1) {
+        for (int offset : neighborOffsets) {
+          int neighbor = index + offset;
+          if (neighborCounts[neighbor] == 0) {
+            touchedCells[touchedCount++] = neighbor;
+          }
+          neighborCounts[neighbor]++;
+        }
+      } else {
+        touchedCount = countBorderNeighbors(col, row, touchedCount);
       }
-      if (row != this.getRows() - 1) {
-        neighbors.add(new Cell(column - 1, row + 1));
+    }
+    for (int i = 0; i < haloTargets.length; i++) {
+      if (alive[haloSources[i]] != 0) {
+        int target = haloTargets[i];
+        if (neighborCounts[target] == 0) {
+          touchedCells[touchedCount++] = target;
+        }
+        neighborCounts[target]++;
       }
     }
-    if (column != this.getColumns() - 1) {
-      neighbors.add(new Cell(column + 1, row));
-      if (row != 0) {
-        neighbors.add(new Cell(column + 1, row - 1));
+
+    for (int i = 0; i < touchedCount; i++) {
+      int index = touchedCells[i];
+      byte next = ruleTable[neighborCounts[index]];
+      neighborCounts[index] = 0;
+      if (next == alive[index]) {
+        continue;
       }
-      if (row != this.getRows() - 1) {
-        neighbors.add(new Cell(column + 1, row + 1));
+      recordFlip(index);
+      if (next == 0) {
+        removeLiveCell(index);
+        if (deaths != null) {
+          deaths.add(cellAt(index));
+        }
+      } else {
+        addLiveCell(index);
+        if (births != null) {
+          births.add(cellAt(index));
+        }
       }
     }
-    if (row != 0) {
-      neighbors.add(new Cell(column, row - 1));
+  }
+
+  /**
+   * Counts a living cell on the border of the grid as neighbor of the cells around it that lie
+   * within the grid.
+   *
+   * @param col          The column of the living cell
+   * @param row          The row of the living cell
+   * @param touchedCount number of touched cells so far
+   * @return number of touched cells afterwards
+   */
+  private int countBorderNeighbors(int col, int row, int touchedCount) {
+    for (int neighborRow = Math.max(row - 1, 0); neighborRow <= Math.min(row + 1, rows - 1);
+        neighborRow++) {
+      for (int neighborCol = Math.max(col - 1, 0); neighborCol <= Math.min(col + 1, columns - 1);
+          neighborCol++) {
+        if (neighborCol == col && neighborRow == row) {
+          continue;
+        }
+        int neighbor = neighborRow * stride + neighborCol;
+        if (neighborCounts[neighbor] == 0) {
+          touchedCells[touchedCount++] = neighbor;
+        }
+        neighborCounts[neighbor]++;
+      }
     }
-    if (row != this.getRows() - 1) {
-      neighbors.add(new Cell(column, row + 1));
+    return touchedCount;
+  }
+
+  private void addLiveCell(int index) {
+    if (hashing) {
+      populationHash ^= cellKey(index);
     }
-    return neighbors;
+    alive[index] = 1;
+    int row = index / stride;
+    int col = index - row * stride;
+    packedCells[row * packedWordsPerRow + (col >>> 6)] |= 1L << col;
+    livePositions[index] = liveCount;
+    liveCells[liveCount++] = index;
+  }
+
+  private void removeLiveCell(int index) {
+    if (hashing) {
+      populationHash ^= cellKey(index);
+    }
+    alive[index] = 0;
+    int row = index / stride;
+    int col = index - row * stride;
+    packedCells[row * packedWordsPerRow + (col >>> 6)] &= ~(1L << col);
+    int position = livePositions[index];
+    int last = liveCells[--liveCount];
+    liveCells[position] = last;
+    livePositions[last] = position;
+  }
+
+  private int tileOf(int index) {
+    return index / stride / TILE_SIZE * tileColumns + index % stride / TILE_SIZE;
+  }
+
+  private long cellKey(int index) {
+    return PopulationHash.cellKey(index % stride, index / stride);
+  }
+
+  private Cell cellAt(int index) {
+    return new Cell(index % stride, index / stride);
+  }
+
+  /**
+   * Gets the cell of the grid that a cell just outside of it stands for under the topology. Cells
+   * within the grid are returned as they are.
+   *
+   * @param col The column of the cell, which may be <code>-1</code> or the number of columns
+   * @param row The row of the cell, which may be <code>-1</code> or the number of rows
+   * @return the index of the cell, or <code>-1</code> if it is always dead
+   */
+  private int mapOutside(int col, int row) {
+    int mapped = topology.map(col, row, columns, rows);
+    return mapped < 0 ? -1 : mapped / columns * stride + mapped % columns;
   }
 
   @Override
@@ -231,19 +619,31 @@ public class Game implements Model {
     if (col < 0 || row < 0) {
       throw new IllegalArgumentException("Number of column and row may not be negative");
     }
-    return population.contains(field[row][col]);
+    return alive[row * stride + col] != 0;
   }
 
   @Override
   public void setCellAlive(int col, int row) throws IllegalArgumentException {
-    setCellWithoutNotification(col, row, true);
-    notifyListeners();
+    List<Cell> births = new ArrayList<>(1);
+    synchronized (this) {
+      if (setCellWithoutNotification(col, row, true)) {
+        births.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(births, Collections.emptyList());
   }
 
   @Override
   public void setCellDead(int col, int row) throws IllegalArgumentException {
-    setCellWithoutNotification(col, row, false);
-    notifyListeners();
+    List<Cell> deaths = new ArrayList<>(1);
+    synchronized (this) {
+      if (setCellWithoutNotification(col, row, false)) {
+        deaths.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(Collections.emptyList(), deaths);
   }
 
   /**
@@ -257,108 +657,412 @@ public class Game implements Model {
    * @param row   The row of the cell
    * @param alive if <code>true</code>, the cell is set alive; otherwise it is put into its dead
    *              state
+   * @return <code>true</code> if the state of the cell has changed, <code>false</code> otherwise
+   */
+  private synchronized boolean setCellWithoutNotification(int col, int row, boolean alive) {
+    checkBounds(col, row);
+    int index = row * stride + col;
+    if (alive == (this.alive[index] != 0)) {
+      return false;
+    }
+    markDirty(index);
+    if (alive) {
+      addLiveCell(index);
+    } else {
+      removeLiveCell(index);
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether the given coordinates lie within the grid.
+   *
+   * @param col The column of the cell
+   * @param row The row of the cell
+   * @throws IllegalArgumentException if the coordinates are outside of the grid
    */
-  private synchronized void setCellWithoutNotification(int col, int row, boolean alive) {
+  private void checkBounds(int col, int row) {
     if (col < 0 || row < 0) {
       throw new IllegalArgumentException("Number of column and row may not be negative");
     } else if (col >= this.getColumns() || row >= this.getRows()) {
       throw new IllegalArgumentException("Parameters for column and row may not exceed "
           + "the maximum number of columns and rows");
     }
-    Cell cell = new Cell(col, row);
-    if (alive) {
-      population.add(cell); // no addition if already present
-    } else {
-      population.remove(cell); // no removal if cell not present
+  }
+
+  @Override
+  public void applyChanges(Collection<Cell> born, Collection<Cell> died) {
+    List<Cell> births = new ArrayList<>();
+    List<Cell> deaths = new ArrayList<>();
+    synchronized (this) {
+      for (Cell cell : died) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : born) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : died) {
+        if (setCellWithoutNotification(cell.getColumn(), cell.getRow(), false)) {
+          deaths.add(cell);
+        }
+      }
+      for (Cell cell : born) {
+        if (setCellWithoutNotification(cell.getColumn(), cell.getRow(), true)) {
+          births.add(cell);
+        }
+      }
+      publishSnapshot();
     }
+    notifyListeners(births, deaths);
   }
 
   @Override
-  public synchronized void resize(int newCols, int newRows) {
-    int oldCols = getColumns();
-    int oldRows = getRows();
+  public void stamp(Shape shape, int col, int row, Transform transform) {
+    Shape placed = shape.transform(transform);
+    List<Cell> births;
+    synchronized (this) {
+      // Whether to collect the births is decided in the section that collects them
+      births = support.hasListeners(STATE_CHANGED) ? new ArrayList<>() : null;
+      placed.forEachCell((shapeCol, shapeRow) -> {
+        long x = (long) col + shapeCol;
+        long y = (long) row + shapeRow;
+        if (x >= 0 && y >= 0 && x < columns && y < rows) {
+          int index = (int) y * stride + (int) x;
+          if (alive[index] == 0) {
+            addLiveCell(index);
+            markDirty(index);
+            if (births != null) {
+              births.add(new Cell((int) x, (int) y));
+            }
+          }
+        }
+      });
+      publishSnapshot();
+    }
+    if (births != null) {
+      notifyListeners(births, Collections.emptyList());
+    }
+  }
 
-    if (oldCols == newCols && oldRows == newRows) {
+  @Override
+  public synchronized void resize(int newCols, int newRows) {
+    if (columns == newCols && rows == newRows) {
       return; // nothing to do
     }
 
-    allNeighbors.clear();
-    if (newRows < oldRows) {
-      for (int row = newRows; row < oldRows; row++) {
-        for (int col = 0; col < oldCols; col++) {
-          population.remove(field[row][col]);
+    if (newCols > stride || newRows > capacityRows
+        || (long) newCols * newRows < (long) stride * capacityRows / 4) {
+      reallocate(newCols, newRows);
+    } else {
+      removeCellsOutside(newCols, newRows);
+      columns = newCols;
+      rows = newRows;
+      packCells();
+      initializeHalo();
+      Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
+    }
+    publishSnapshot();
+    notifyListeners();
+  }
+
+  /**
+   * Moves the living cells within the new bounds into new buffers. When the grid grows, the
+   * buffers leave room for growing by half in each direction that has outgrown them, when it
+   * shrinks to less than a quarter of their capacity, they are allocated for the new size.
+   *
+   * @param newCols New number of columns.
+   * @param newRows New number of rows.
+   */
+  private void reallocate(int newCols, int newRows) {
+    int capacityColumns = newCols > stride ? Math.max(newCols, stride + stride / 2) : stride;
+    int newCapacityRows = newRows > capacityRows
+        ? Math.max(newRows, capacityRows + capacityRows / 2) : capacityRows;
+    if (newCols <= stride && newRows <= capacityRows
+        || (long) capacityColumns * newCapacityRows > Integer.MAX_VALUE - 8) {
+      capacityColumns = newCols;
+      newCapacityRows = newRows;
+    }
+
+    int oldStride = stride;
+    int[] oldLiveCells = Arrays.copyOf(liveCells, liveCount);
+    allocate(capacityColumns, newCapacityRows);
+    columns = newCols;
+    rows = newRows;
+    packCells();
+    initializeHalo();
+    for (int index : oldLiveCells) {
+      int col = index % oldStride;
+      int row = index / oldStride;
+      if (col < newCols && row < newRows) {
+        addLiveCell(row * stride + col);
+      }
+    }
+  }
+
+  /**
+   * Kills the living cells outside of the new bounds, which lie within the capacity of the
+   * buffers. Either the cells of the strips that are cut off or the living cells are visited,
+   * whichever are fewer.
+   *
+   * @param newCols New number of columns.
+   * @param newRows New number of rows.
+   */
+  private void removeCellsOutside(int newCols, int newRows) {
+    long cutOff = (long) columns * rows
+        - (long) Math.min(columns, newCols) * Math.min(rows, newRows);
+    if (cutOff > liveCount) {
+      // Removing a cell moves the last one into its place, which has been visited already
+      for (int i = liveCount - 1; i >= 0; i--) {
+        int index = liveCells[i];
+        if (index % stride >= newCols || index / stride >= newRows) {
+          removeLiveCell(index);
         }
       }
+      return;
     }
-    if (newCols < oldCols) {
-      for (int row = 0; row < oldRows; row++) {
-        for (int col = newCols; col < oldCols; col++) {
-          population.remove(field[row][col]);
+    for (int row = 0; row < rows; row++) {
+      for (int col = row < newRows ? newCols : 0; col < columns; col++) {
+        if (alive[row * stride + col] != 0) {
+          removeLiveCell(row * stride + col);
         }
       }
     }
+  }
 
-    field = new Cell[newRows][newCols];
-    for (int row = 0; row < newRows; row++) {
-      for (int col = 0; col < newCols; col++) {
-        field[row][col] = new Cell(col, row);
-        allNeighbors.put(field[row][col].hashCode(), getNeighbors(field[row][col]));
+  /**
+   * Replaces the size, the population and the generation of the game with those of a snapshot,
+   * e.g. of a checkpoint that has been read from a file. The listeners are notified as if the
+   * whole grid had changed.
+   *
+   * @param snapshot the state to restore
+   */
+  public synchronized void restore(GenerationSnapshot snapshot) {
+    if (snapshot.getColumns() != columns || snapshot.getRows() != rows) {
+      initializeFields(snapshot.getColumns(), snapshot.getRows());
+    } else {
+      for (int i = 0; i < liveCount; i++) {
+        alive[liveCells[i]] = 0;
       }
+      liveCount = 0;
+      populationHash = 0;
+      Arrays.fill(packedCells, 0);
+      Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
     }
+    LongBuffer words = snapshot.getWords();
+    int wordsPerRow = GenerationSnapshot.wordsPerRow(columns);
+    for (int row = 0; row < rows; row++) {
+      for (int w = 0; w < wordsPerRow; w++) {
+        long word = words.get(row * wordsPerRow + w);
+        while (word != 0) {
+          addLiveCell(row * stride + w * Long.SIZE + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+    generation = snapshot.getGeneration();
+    publishSnapshot();
     notifyListeners();
   }
 
   @Override
   public synchronized int getRows() {
-    return field.length;
+    return rows;
   }
 
   @Override
   public synchronized int getColumns() {
-    return field[0].length;
+    return columns;
+  }
+
+  @Override
+  public Collection<Cell> getPopulation() {
+    return snapshot.getPopulation();
+  }
+
+  @Override
+  public void forEachLiveCell(IntBiConsumer action) {
+    requireNonNull(action);
+    snapshot.forEachLiveCell(action);
+  }
+
+  @Override
+  public synchronized long[] getPackedLiveCells() {
+    long[] packed = new long[liveCount];
+    for (int i = 0; i < liveCount; i++) {
+      int index = liveCells[i];
+      packed[i] = (long) (index / stride) << 32 | index % stride;
+    }
+    return packed;
+  }
+
+  @Override
+  public synchronized int[] getLiveCellCoordinates() {
+    int[] coordinates = new int[2 * liveCount];
+    for (int i = 0; i < liveCount; i++) {
+      int index = liveCells[i];
+      coordinates[2 * i] = index % stride;
+      coordinates[2 * i + 1] = index / stride;
+    }
+    return coordinates;
   }
 
   @Override
-  public synchronized Collection<Cell> getPopulation() {
-    return new HashSet<>(population);
+  public synchronized BitSet getLiveCellBits() {
+    BitSet bits = new BitSet(columns * rows);
+    for (int i = 0; i < liveCount; i++) {
+      int index = liveCells[i];
+      bits.set(index / stride * columns + index % stride);
+    }
+    return bits;
   }
 
   @Override
   public synchronized void clear() {
     this.generation = 0;
-    population.clear();
+    for (int i = 0; i < liveCount; i++) {
+      alive[liveCells[i]] = 0;
+    }
+    liveCount = 0;
+    populationHash = 0;
+    Arrays.fill(packedCells, 0);
+    Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
+    publishSnapshot();
 
     notifyListeners();
   }
 
   @Override
   public synchronized void next() {
-    Set<Cell> cellsToRecalculate = getCellsToRecalculate();
-    recalculateNext(cellsToRecalculate);
+    // Without listeners nobody needs the changed cells, so that a generation allocates nothing
+    boolean collectChanges = support.hasListeners(STATE_CHANGED);
+    List<Cell> births = collectChanges ? new ArrayList<>() : null;
+    List<Cell> deaths = collectChanges ? new ArrayList<>() : null;
+    computeNext(births, deaths);
+    publishSnapshot();
+    if (collectChanges) {
+      notifyListeners(births, deaths);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The generations are computed under a single lock without collecting the changed cells, and
+   * the snapshot is published only once.
+   */
+  @Override
+  public void advance(long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    synchronized (this) {
+      for (long i = 0; i < generations; i++) {
+        computeNext(null, null);
+      }
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Computes the next generation. It must be called with the lock held.
+   *
+   * @param births the list the born cells are added to, or <code>null</code>
+   * @param deaths the list the dead cells are added to, or <code>null</code>
+   */
+  private void computeNext(List<Cell> births, List<Cell> deaths) {
+    // Evaluate the unstable tiles unless pushing the counts of all living cells is cheaper
+    int evaluatedTileCount = collectEvaluatedTiles();
+    if ((long) evaluatedTileCount * TILE_SIZE * TILE_SIZE < (long) liveCount * PUSH_COST) {
+      recalculateTiles(evaluatedTileCount, births, deaths);
+    } else {
+      recalculateNext(births, deaths);
+    }
+    completeFlips();
     generation++;
+  }
+
+  @Override
+  public synchronized Rule getRule() {
+    return rule;
+  }
+
+  @Override
+  public synchronized void setRule(Rule rule) {
+    this.rule = requireNonNull(rule);
+    ruleTable = rule.createLookupTable();
+    Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized Topology getTopology() {
+    return topology;
+  }
+
+  @Override
+  public synchronized void setTopology(Topology topology) {
+    this.topology = requireNonNull(topology);
+    initializeHalo();
+    Arrays.fill(dirtyTiles, DIRTY_GENERATIONS);
     notifyListeners();
   }
 
   @Override
-  public synchronized int getGenerations() {
+  public synchronized long getPopulationHash() {
+    if (!hashing) {
+      hashing = true;
+      populationHash = 0;
+      for (int i = 0; i < liveCount; i++) {
+        populationHash ^= cellKey(liveCells[i]);
+      }
+    }
+    return populationHash;
+  }
+
+  @Override
+  public synchronized long getGenerations() {
     return generation;
   }
 
   @Override
   public String toString() {
-    StringBuilder stringBuilder = new StringBuilder();
-    for (int row = 0; row < getRows(); row++) {
-      for (int col = 0; col < getColumns(); col++) {
-        if (isCellAlive(col, row)) {
-          stringBuilder.append("X");
-        } else {
-          stringBuilder.append(".");
-        }
-      }
-      stringBuilder.append("\n");
+    return snapshot.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The snapshot is published after every change, so that it is read without the lock and never
+   * waits for a generation that is being computed. The packed cells are kept up to date whenever a
+   * cell flips, so publishing a snapshot copies one array instead of visiting every living cell.
+   */
+  @Override
+  public GenerationSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Publishes a copy of the packed cells as the latest snapshot. It must be called with the lock
+   * held after every change, before the listeners get notified.
+   */
+  private void publishSnapshot() {
+    snapshot = new GenerationSnapshot(columns, rows, generation, ++snapshotVersion,
+        packedCells.clone());
+  }
+
+  /**
+   * Allocates the packed cells for the current size and sets the living cells in them.
+   */
+  private void packCells() {
+    packedWordsPerRow = GenerationSnapshot.wordsPerRow(columns);
+    packedCells = new long[packedWordsPerRow * rows];
+    for (int i = 0; i < liveCount; i++) {
+      int index = liveCells[i];
+      int row = index / stride;
+      int col = index - row * stride;
+      packedCells[row * packedWordsPerRow + (col >>> 6)] |= 1L << col;
     }
-    stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-    return stringBuilder.toString();
   }
 
   @Override
@@ -380,5 +1084,16 @@ public class Game implements Model {
   private void notifyListeners() {
     support.firePropertyChange(STATE_CHANGED, null, this);
   }
+
+  /**
+   * Invokes the model to fire a new {@link GenerationEvent}, such that any attached observer gets
+   * notified about the cells that have changed in this model.
+   *
+   * @param births the cells that have been set alive
+   * @param deaths the cells that have been put into a dead state
+   */
+  private void notifyListeners(List<Cell> births, List<Cell> deaths) {
+    support.firePropertyChange(new GenerationEvent(this, getGenerations(), births, deaths));
+  }
 }
 
@@ -0,0 +1,69 @@
+package org.sosylab.model;
+
+import java.beans.PropertyChangeEvent;
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A {@link Model#STATE_CHANGED} event that carries the cells that have changed their state.
+ *
+ * <p>The model fires this event whenever it knows exactly which cells have been born and which
+ * have died, e.g. after computing the next generation or after a cell has been set by the user.
+ * Observers can use it to update only the changed parts of their presentation. Events that change
+ * the grid as a whole, such as resizing or clearing it, are fired as plain
+ * {@link PropertyChangeEvent}s instead.
+ */
+public class GenerationEvent extends PropertyChangeEvent {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  private final long generation;
+  private final transient Collection<Cell> births;
+  private final transient Collection<Cell> deaths;
+
+  /**
+   * Constructs a new event. The collections are not copied, so they must not be modified
+   * afterwards.
+   *
+   * @param source     the model that fires the event.
+   * @param generation the generation of the model after the change.
+   * @param births     the cells that have been set alive.
+   * @param deaths     the cells that have been put into a dead state.
+   */
+  public GenerationEvent(Model source, long generation, Collection<Cell> births,
+      Collection<Cell> deaths) {
+    super(source, Model.STATE_CHANGED, null, source);
+    this.generation = generation;
+    this.births = Collections.unmodifiableCollection(births);
+    this.deaths = Collections.unmodifiableCollection(deaths);
+  }
+
+  /**
+   * Gets the generation of the model after the change.
+   *
+   * @return the current generation
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Gets the cells that have been set alive.
+   *
+   * @return the born cells
+   */
+  public Collection<Cell> getBirths() {
+    return births;
+  }
+
+  /**
+   * Gets the cells that have been put into a dead state.
+   *
+   * @return the died cells
+   */
+  public Collection<Cell> getDeaths() {
+    return deaths;
+  }
+}
@@ -0,0 +1,246 @@
+package org.sosylab.model;
+
+import java.nio.LongBuffer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable copy of the grid of a {@link Model} at one point in time.
+ *
+ * <p>The models publish a new snapshot after every change, so that observers such as the view can
+ * read a consistent frame without taking the lock of the simulation, even while the next
+ * generation is being computed. Snapshots of the same model are ordered by their
+ * {@linkplain #getVersion() version}.
+ *
+ * <p>The cells are packed into <code>long</code> words: each row of the grid is a sequence of
+ * words, in which bit <code>i</code> of word <code>w</code> holds the cell in column
+ * <code>64 * w + i</code>.
+ */
+public final class GenerationSnapshot {
+
+  private final int columns;
+  private final int rows;
+  private final int words;
+  private final long generation;
+  private final long version;
+  private final long[] bits;
+
+  /**
+   * Constructs a new snapshot of packed cells. The array is not copied, so it must not be modified
+   * afterwards.
+   *
+   * @param columns    Number of columns.
+   * @param rows       Number of rows.
+   * @param generation the generation of the model.
+   * @param version    the version of the snapshot.
+   * @param bits       the packed cells, see {@link #wordsPerRow(int)}.
+   */
+  GenerationSnapshot(int columns, int rows, long generation, long version, long[] bits) {
+    this.columns = columns;
+    this.rows = rows;
+    this.words = wordsPerRow(columns);
+    this.generation = generation;
+    this.version = version;
+    this.bits = bits;
+  }
+
+  /**
+   * Constructs a new snapshot from packed cells, e.g. from a file. The words are copied from the
+   * current position of the buffer on.
+   *
+   * @param columns    Number of columns.
+   * @param rows       Number of rows.
+   * @param generation the generation of the model.
+   * @param words      the packed cells, see {@link #wordsPerRow(int)}.
+   * @return the snapshot, whose version is zero
+   * @throws IllegalArgumentException if the dimensions are not positive, the buffer holds too few
+   *                                  words or a row has living cells beyond the last column
+   */
+  public static GenerationSnapshot fromWords(int columns, int rows, long generation,
+      LongBuffer words) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    }
+    long length = (long) rows * wordsPerRow(columns);
+    if (length > Integer.MAX_VALUE || words.remaining() < length) {
+      throw new IllegalArgumentException("The number of words does not match the dimensions");
+    }
+    long[] bits = new long[(int) length];
+    words.get(bits);
+    // The bits past the last column would become cells outside of the grid of a restored game
+    int wordsPerRow = wordsPerRow(columns);
+    long padding = columns % Long.SIZE == 0 ? 0 : -1L << columns;
+    for (int last = wordsPerRow - 1; last < bits.length; last += wordsPerRow) {
+      if ((bits[last] & padding) != 0) {
+        throw new IllegalArgumentException("The words hold cells beyond the last column");
+      }
+    }
+    return new GenerationSnapshot(columns, rows, generation, 0, bits);
+  }
+
+  /**
+   * Gets the number of words that hold a row of the given number of columns.
+   *
+   * @param columns Number of columns.
+   * @return the words per row
+   */
+  public static int wordsPerRow(int columns) {
+    return (columns + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  /**
+   * Gets the number of columns of the grid.
+   *
+   * @return Number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets the number of rows of the grid.
+   *
+   * @return Number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Gets the generation of the model at the time of the snapshot.
+   *
+   * @return The generation.
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Gets the version of the snapshot. Every snapshot that a model publishes has a greater version
+   * than the ones before.
+   *
+   * @return The version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the status of a cell (alive or dead).
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @return <code>true</code> if the cell is alive, <code>false</code> otherwise.
+   * @throws IllegalArgumentException if the coordinates are outside of the grid
+   */
+  public boolean isCellAlive(int col, int row) {
+    if (col < 0 || row < 0) {
+      throw new IllegalArgumentException("Number of column and row may not be negative");
+    } else if (col >= columns || row >= rows) {
+      throw new IllegalArgumentException(
+          "Parameters for column and row may not exceed the maximum number of columns and rows");
+    }
+    return (bits[row * words + (col >>> 6)] & (1L << col)) != 0;
+  }
+
+  /**
+   * Gets all living cells.
+   *
+   * @return Set of all cells which are alive.
+   */
+  public Collection<Cell> getPopulation() {
+    Set<Cell> population = new HashSet<>();
+    forEachLiveCell((col, row) -> population.add(new Cell(col, row)));
+    return population;
+  }
+
+  /**
+   * Passes the coordinates of every living cell to an action, row by row, without creating a
+   * {@link Cell} for each of them.
+   *
+   * @param action the action that receives the column and the row of each living cell.
+   */
+  public void forEachLiveCell(IntBiConsumer action) {
+    for (int row = 0; row < rows; row++) {
+      for (int w = 0; w < words; w++) {
+        long word = bits[row * words + w];
+        while (word != 0) {
+          action.accept(w * Long.SIZE + Long.numberOfTrailingZeros(word), row);
+          word &= word - 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the packed cells, row by row, without copying them.
+   *
+   * @return a read-only buffer of the {@link #wordsPerRow(int)} words of every row
+   */
+  public LongBuffer getWords() {
+    return LongBuffer.wrap(bits).asReadOnlyBuffer();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < columns; col++) {
+        if (isCellAlive(col, row)) {
+          stringBuilder.append("X");
+        } else {
+          stringBuilder.append(".");
+        }
+      }
+      stringBuilder.append("\n");
+    }
+    stringBuilder.deleteCharAt(stringBuilder.length() - 1);
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Collects the living cells of a grid into a new snapshot.
+   */
+  static final class Builder {
+
+    private final int columns;
+    private final int rows;
+    private final int words;
+    private final long[] bits;
+
+    /**
+     * Constructs a new builder of a grid consisting solely of dead cells.
+     *
+     * @param columns Number of columns.
+     * @param rows    Number of rows.
+     */
+    Builder(int columns, int rows) {
+      this.columns = columns;
+      this.rows = rows;
+      this.words = wordsPerRow(columns);
+      this.bits = new long[rows * words];
+    }
+
+    /**
+     * Sets a cell alive.
+     *
+     * @param col x-position.
+     * @param row y-position.
+     */
+    void setAlive(int col, int row) {
+      bits[row * words + (col >>> 6)] |= 1L << col;
+    }
+
+    /**
+     * Creates the snapshot. The builder must not be used afterwards.
+     *
+     * @param generation the generation of the model.
+     * @param version    the version of the snapshot.
+     * @return the snapshot
+     */
+    GenerationSnapshot build(long generation, long version) {
+      return new GenerationSnapshot(columns, rows, generation, version, bits);
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package org.sosylab.model;
 
+import static java.util.Objects.requireNonNull;
+
+import java.util.BitSet;
 import java.util.Collection;
 
 /**
@@ -62,6 +65,62 @@ public interface Grid {
    */
   Collection<Cell> getPopulation();
 
+  /**
+   * Passes the coordinates of every living cell to an action, without creating a {@link Cell} for
+   * each of them. The order of the cells is unspecified. The action may be called while the grid
+   * is locked, so it must not change the grid.
+   *
+   * @param action the action that receives the column and the row of each living cell.
+   */
+  default void forEachLiveCell(IntBiConsumer action) {
+    requireNonNull(action);
+    for (Cell cell : getPopulation()) {
+      action.accept(cell.getColumn(), cell.getRow());
+    }
+  }
+
+  /**
+   * Gets the living cells packed into one <code>long</code> each: the row in the upper and the
+   * column in the lower 32 bits, i.e. <code>(long) row &lt;&lt; 32 | col</code>. The order of the
+   * cells is unspecified.
+   *
+   * @return a new array with an entry for every living cell.
+   */
+  default long[] getPackedLiveCells() {
+    LiveCellCollector collector = new LiveCellCollector();
+    forEachLiveCell(collector);
+    return collector.toArray();
+  }
+
+  /**
+   * Gets the coordinates of the living cells as pairs of column and row, i.e. the column of the
+   * i-th cell at index <code>2 * i</code> and its row at index <code>2 * i + 1</code>. The order of
+   * the cells is unspecified.
+   *
+   * @return a new array with two entries for every living cell.
+   */
+  default int[] getLiveCellCoordinates() {
+    long[] packed = getPackedLiveCells();
+    int[] coordinates = new int[2 * packed.length];
+    for (int i = 0; i < packed.length; i++) {
+      coordinates[2 * i] = (int) packed[i];
+      coordinates[2 * i + 1] = (int) (packed[i] >>> 32);
+    }
+    return coordinates;
+  }
+
+  /**
+   * Gets the living cells as a set of bits in row-major order, i.e. the bit
+   * <code>row * getColumns() + col</code> is set for every living cell.
+   *
+   * @return a new set of bits.
+   */
+  default BitSet getLiveCellBits() {
+    BitSet bits = new BitSet(getColumns() * getRows());
+    forEachLiveCell((col, row) -> bits.set(row * getColumns() + col));
+    return bits;
+  }
+
   /**
    * Clears the grid.
    */
@@ -77,7 +136,47 @@ public interface Grid {
    *
    * @return The current generation.
    */
-  int getGenerations();
+  long getGenerations();
+
+  /**
+   * Checks whether the grid is a window onto an infinite universe that can be moved with
+   * {@link #moveViewport(long, long)}.
+   *
+   * @return <code>true</code> if the universe is unbounded, <code>false</code> otherwise.
+   */
+  default boolean isUnbounded() {
+    return false;
+  }
+
+  /**
+   * Gets the column of the universe that is shown in the first column of the grid.
+   *
+   * @return x-position of the viewport.
+   */
+  default long getViewportColumn() {
+    return 0;
+  }
+
+  /**
+   * Gets the row of the universe that is shown in the first row of the grid.
+   *
+   * @return y-position of the viewport.
+   */
+  default long getViewportRow() {
+    return 0;
+  }
+
+  /**
+   * Moves the window of the grid over the universe. The cells of the universe keep their state,
+   * only the cells addressed by the columns and rows of the grid change.
+   *
+   * @param columns Number of columns to move to the right, negative to move to the left.
+   * @param rows    Number of rows to move down, negative to move up.
+   * @throws UnsupportedOperationException if the universe is bounded
+   */
+  default void moveViewport(long columns, long rows) {
+    throw new UnsupportedOperationException("The grid is bounded");
+  }
 
   /**
    * Gets the string representation of the current game state.
@@ -0,0 +1,394 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A Game of Life implementation that is backed by an unbounded {@link HashlifeUniverse}. It is
+ * meant for long-running patterns, as {@link #advance(long)} can jump over millions of
+ * generations at once.
+ *
+ * <p>Unlike {@link Game}, the universe of this game is infinite. The grid is only a window onto it
+ * whose top left corner starts at the origin of the universe: cells that leave the window keep on
+ * living and may come back, resizing the window does not remove any cells, and the window can be
+ * moved with {@link #moveViewport(long, long)}.
+ */
+public class HashlifeGame implements Model {
+
+  /**
+   * Initial number of columns when the game is shown.
+   */
+  private static final int INITIAL_COLUMNS = 50;
+
+  /**
+   * Initial number of rows when the game is shown.
+   */
+  private static final int INITIAL_ROWS = 30;
+
+  /**
+   * Default number of cached nodes above which unused nodes are evicted. A node takes roughly 70
+   * bytes, so the default keeps the cache at about 70 megabytes.
+   */
+  public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+  private final PropertyChangeSupport support;
+
+  private long generation = 0;
+
+  private int columns;
+  private int rows;
+
+  // Position of the top left cell of the window in the universe
+  private long viewportColumn;
+  private long viewportRow;
+
+  private final HashlifeUniverse universe;
+
+  // Latest published snapshot, null until getSnapshot() is called for the first time
+  private volatile GenerationSnapshot snapshot;
+  private long snapshotVersion;
+
+  /**
+   * Constructs a new game with a default size of {@link HashlifeGame#INITIAL_COLUMNS} and of
+   * {@link HashlifeGame#INITIAL_ROWS} consisting solely of dead cells.
+   */
+  public HashlifeGame() {
+    this(INITIAL_COLUMNS, INITIAL_ROWS);
+  }
+
+  /**
+   * Constructs a new game consisting solely of dead cells.
+   *
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   */
+  public HashlifeGame(int columns, int rows) {
+    this(columns, rows, DEFAULT_MAX_NODES);
+  }
+
+  /**
+   * Constructs a new game consisting solely of dead cells with a node cache of the given size.
+   *
+   * @param columns  Number of columns.
+   * @param rows     Number of rows.
+   * @param maxNodes Number of cached nodes above which unused nodes are evicted.
+   */
+  public HashlifeGame(int columns, int rows, int maxNodes) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    }
+
+    support = new PropertyChangeSupport(this);
+    this.columns = columns;
+    this.rows = rows;
+    this.universe = new HashlifeUniverse(maxNodes);
+  }
+
+  /**
+   * Checks whether the given coordinates lie within the grid.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @throws IllegalArgumentException if the coordinates are outside of the grid
+   */
+  private void checkBounds(int col, int row) {
+    if (col < 0 || row < 0) {
+      throw new IllegalArgumentException("Number of column and row may not be negative");
+    } else if (col >= columns || row >= rows) {
+      throw new IllegalArgumentException(
+          "Parameters for column and row may not exceed the maximum number of columns and rows");
+    }
+  }
+
+  @Override
+  public synchronized boolean isCellAlive(int col, int row) {
+    checkBounds(col, row);
+    return universe.isAlive(viewportColumn + col, viewportRow + row);
+  }
+
+  @Override
+  public void setCellAlive(int col, int row) {
+    List<Cell> births = new ArrayList<>(1);
+    synchronized (this) {
+      checkBounds(col, row);
+      if (universe.setAlive(viewportColumn + col, viewportRow + row, true)) {
+        births.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(births, Collections.emptyList());
+  }
+
+  @Override
+  public void setCellDead(int col, int row) {
+    List<Cell> deaths = new ArrayList<>(1);
+    synchronized (this) {
+      checkBounds(col, row);
+      if (universe.setAlive(viewportColumn + col, viewportRow + row, false)) {
+        deaths.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(Collections.emptyList(), deaths);
+  }
+
+  @Override
+  public void applyChanges(Collection<Cell> born, Collection<Cell> died) {
+    List<Cell> births = new ArrayList<>();
+    List<Cell> deaths = new ArrayList<>();
+    synchronized (this) {
+      for (Cell cell : died) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : born) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : died) {
+        if (setAlive(cell, false)) {
+          deaths.add(cell);
+        }
+      }
+      for (Cell cell : born) {
+        if (setAlive(cell, true)) {
+          births.add(cell);
+        }
+      }
+      publishSnapshot();
+    }
+    notifyListeners(births, deaths);
+  }
+
+  @Override
+  public void resize(int cols, int rows) {
+    synchronized (this) {
+      if (cols == columns && rows == this.rows) {
+        return; // nothing to do
+      }
+      this.columns = cols;
+      this.rows = rows;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public synchronized int getRows() {
+    return rows;
+  }
+
+  private boolean setAlive(Cell cell, boolean alive) {
+    return universe.setAlive(viewportColumn + cell.getColumn(), viewportRow + cell.getRow(), alive);
+  }
+
+  @Override
+  public boolean isUnbounded() {
+    return true;
+  }
+
+  @Override
+  public synchronized long getViewportColumn() {
+    return viewportColumn;
+  }
+
+  @Override
+  public synchronized long getViewportRow() {
+    return viewportRow;
+  }
+
+  @Override
+  public void moveViewport(long columns, long rows) {
+    synchronized (this) {
+      viewportColumn += columns;
+      viewportRow += rows;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public Collection<Cell> getPopulation() {
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      return current.getPopulation();
+    }
+    synchronized (this) {
+      Set<Cell> population = new HashSet<>();
+      universe.forEachAlive(viewportColumn, viewportRow, columns, rows,
+          (x, y) -> population.add(new Cell((int) (x - viewportColumn), (int) (y - viewportRow))));
+      return population;
+    }
+  }
+
+  @Override
+  public void forEachLiveCell(IntBiConsumer action) {
+    requireNonNull(action);
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      current.forEachLiveCell(action);
+      return;
+    }
+    synchronized (this) {
+      universe.forEachAlive(viewportColumn, viewportRow, columns, rows,
+          (x, y) -> action.accept((int) (x - viewportColumn), (int) (y - viewportRow)));
+    }
+  }
+
+  /**
+   * Gets the number of living cells in the whole universe, including those outside of the grid.
+   *
+   * @return the population of the universe
+   */
+  public synchronized long getUniversePopulation() {
+    return universe.getPopulation();
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      generation = 0;
+      universe.clear();
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public void next() {
+    advance(1);
+  }
+
+  @Override
+  public void advance(long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    synchronized (this) {
+      universe.advance(generations);
+      generation += generations;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized Rule getRule() {
+    return universe.getRule();
+  }
+
+  @Override
+  public void setRule(Rule rule) {
+    requireNonNull(rule);
+    synchronized (this) {
+      universe.setRule(rule);
+    }
+    notifyListeners();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The hash covers the whole universe, so that a pattern that leaves the grid still changes it.
+   * It is memoized with every node of the universe instead of being updated per cell, and it is not
+   * the exclusive or of the keys of the cells that the other engines use.
+   */
+  @Override
+  public synchronized long getPopulationHash() {
+    return universe.getPopulationHash();
+  }
+
+  @Override
+  public synchronized long getGenerations() {
+    return generation;
+  }
+
+  @Override
+  public String toString() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = createSnapshot();
+      }
+    }
+    return current.toString();
+  }
+
+  @Override
+  public GenerationSnapshot getSnapshot() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          snapshot = createSnapshot();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Publishes a snapshot of the current state once snapshots have been requested. It must be called
+   * with the lock held after every change, before the listeners get notified.
+   */
+  private void publishSnapshot() {
+    if (snapshot != null) {
+      snapshot = createSnapshot();
+    }
+  }
+
+  /**
+   * Copies the current state into a new snapshot.
+   *
+   * @return the snapshot
+   */
+  private GenerationSnapshot createSnapshot() {
+    GenerationSnapshot.Builder builder = new GenerationSnapshot.Builder(columns, rows);
+    universe.forEachAlive(viewportColumn, viewportRow, columns, rows,
+        (x, y) -> builder.setAlive((int) (x - viewportColumn), (int) (y - viewportRow)));
+    return builder.build(generation, ++snapshotVersion);
+  }
+
+  @Override
+  public void addPropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.addPropertyChangeListener(pcl);
+  }
+
+  @Override
+  public void removePropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.removePropertyChangeListener(pcl);
+  }
+
+  /**
+   * Invokes the model to fire a new event, such that any attached observer (i.e.,
+   * {@link PropertyChangeListener}) gets notified about a change in this model.
+   */
+  private void notifyListeners() {
+    support.firePropertyChange(STATE_CHANGED, null, this);
+  }
+
+  /**
+   * Invokes the model to fire a new {@link GenerationEvent}, such that any attached observer gets
+   * notified about the cells that have changed in this model.
+   *
+   * @param births the cells that have been set alive
+   * @param deaths the cells that have been put into a dead state
+   */
+  private void notifyListeners(List<Cell> births, List<Cell> deaths) {
+    support.firePropertyChange(new GenerationEvent(this, getGenerations(), births, deaths));
+  }
+}
@@ -0,0 +1,599 @@
+package org.sosylab.model;
+
+/**
+ * An unbounded Game of Life universe computed with Gosper's Hashlife algorithm.
+ *
+ * <p>The universe is a quadtree of canonical nodes: a node of level <code>k</code> covers a square
+ * of <code>2^k</code> by <code>2^k</code> cells and consists of four nodes of level
+ * <code>k - 1</code>. Every combination of four children exists only once, so that identical parts
+ * of the universe share the same node, and the future of a node is memoized in the node itself.
+ * This allows to compute <code>2^j</code> generations of a large, regular pattern in time that is
+ * roughly proportional to the number of distinct nodes instead of cells and generations.
+ *
+ * <p>The root of the tree is centered on the origin, i.e. a root of level <code>k</code> covers
+ * the coordinates from <code>-2^(k-1)</code> inclusive to <code>2^(k-1)</code> exclusive in both
+ * directions. It grows on demand when cells are set further away or the pattern expands.
+ *
+ * <p>Every node also memoizes a hash of its living cells, the sum of <code>a^x * b^y</code> over
+ * the cells at <code>(x, y)</code> relative to its top left corner, modulo <code>2^64</code>. The
+ * hash of a node follows from the hashes of its children shifted by their offsets, so that the
+ * hash of the whole universe is known for every root without visiting its cells.
+ *
+ * <p>The table of canonical nodes is bounded: once it holds more than the configured number of
+ * nodes, all nodes that are not part of the current pattern are evicted together with all memoized
+ * results. This is checked whenever a node is created, so that even a single large step cannot
+ * outgrow the table. Nodes of a step in progress that are evicted stay valid, they are merely
+ * created again when they are needed once more.
+ */
+class HashlifeUniverse {
+
+  // The root may not grow beyond this level, so that coordinates fit into a long
+  private static final int MAX_LEVEL = 62;
+
+  // Initial level of the root
+  private static final int MIN_ROOT_LEVEL = 3;
+
+  private static final int INITIAL_TABLE_SIZE = 1 << 10;
+
+  // The odd bases of the cell hashes, which are invertible modulo 2^64
+  private static final long BASE_X = 0x9E3779B97F4A7C15L;
+  private static final long BASE_Y = 0xBF58476D1CE4E5B9L;
+
+  // Index i holds the base or its inverse to the power of 2^i, i.e. the shift by a node of level i
+  private static final long[] SHIFT_X = powersOfTwo(BASE_X);
+  private static final long[] SHIFT_Y = powersOfTwo(BASE_Y);
+  private static final long[] UNSHIFT_X = powersOfTwo(inverse(BASE_X));
+  private static final long[] UNSHIFT_Y = powersOfTwo(inverse(BASE_Y));
+
+  private final Node dead;
+  private final Node alive;
+
+  private final int maxNodes;
+  private int evictionThreshold;
+
+  private Node[] table;
+  private int size;
+
+  // Cache of the empty node of each level
+  private Node[] emptyNodes;
+
+  private Node root;
+
+  private Rule rule = Rule.CONWAY;
+
+  /**
+   * Constructs a new empty universe.
+   *
+   * @param maxNodes the number of canonical nodes above which unused nodes are evicted
+   */
+  HashlifeUniverse(int maxNodes) {
+    if (maxNodes <= 0) {
+      throw new IllegalArgumentException("Maximum number of nodes must be positive");
+    }
+    this.maxNodes = maxNodes;
+    this.evictionThreshold = maxNodes;
+    dead = new Node(0, 0, 0);
+    alive = new Node(1, 1, 1);
+    clear();
+  }
+
+  /**
+   * Removes all living cells and all cached nodes.
+   */
+  void clear() {
+    table = new Node[INITIAL_TABLE_SIZE];
+    size = 0;
+    emptyNodes = new Node[MAX_LEVEL + 1];
+    evictionThreshold = maxNodes;
+    root = empty(MIN_ROOT_LEVEL);
+  }
+
+  /**
+   * Gets the rule by which the generations are computed.
+   *
+   * @return the rule
+   */
+  Rule getRule() {
+    return rule;
+  }
+
+  /**
+   * Sets the rule by which the generations are computed. The memoized results of the old rule are
+   * forgotten, the pattern is kept.
+   *
+   * @param rule the new rule
+   */
+  void setRule(Rule rule) {
+    if (!rule.equals(this.rule)) {
+      this.rule = rule;
+      evict();
+    }
+  }
+
+  /**
+   * Gets the number of living cells in the universe.
+   *
+   * @return the population
+   */
+  long getPopulation() {
+    return root.population;
+  }
+
+  /**
+   * Gets a hash of all living cells of the universe, including those outside of any window. Equal
+   * populations at the same positions have equal hashes, however the tree has grown.
+   *
+   * @return the hash of the population
+   */
+  long getPopulationHash() {
+    // The top left corner of the root lies at -2^(level - 1) in both directions
+    int level = root.level - 1;
+    return root.cellHash * UNSHIFT_X[level] * UNSHIFT_Y[level];
+  }
+
+  /**
+   * Gets the number of canonical nodes currently cached.
+   *
+   * @return the number of nodes
+   */
+  int getNodeCount() {
+    return size;
+  }
+
+  /**
+   * Gets the state of a cell.
+   *
+   * @param x x-coordinate of the cell
+   * @param y y-coordinate of the cell
+   * @return <code>true</code> if the cell is alive
+   */
+  boolean isAlive(long x, long y) {
+    if (!contains(root, x, y)) {
+      return false;
+    }
+    long half = 1L << (root.level - 1);
+    Node node = root;
+    long localX = x + half;
+    long localY = y + half;
+    while (node.level > 0) {
+      if (node.population == 0) {
+        return false;
+      }
+      long quarter = 1L << (node.level - 1);
+      boolean east = localX >= quarter;
+      boolean south = localY >= quarter;
+      node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+      localX -= east ? quarter : 0;
+      localY -= south ? quarter : 0;
+    }
+    return node == alive;
+  }
+
+  /**
+   * Sets the state of a cell.
+   *
+   * @param x     x-coordinate of the cell
+   * @param y     y-coordinate of the cell
+   * @param state <code>true</code> to set the cell alive, <code>false</code> to kill it
+   * @return <code>true</code> if the state of the cell has changed
+   */
+  boolean setAlive(long x, long y, boolean state) {
+    if (isAlive(x, y) == state) {
+      return false;
+    }
+    while (!contains(root, x, y)) {
+      root = expand(root);
+    }
+    long half = 1L << (root.level - 1);
+    root = set(root, x + half, y + half, state ? alive : dead);
+    return true;
+  }
+
+  /**
+   * Checks whether a node centered on the origin covers the given coordinates.
+   */
+  private static boolean contains(Node node, long x, long y) {
+    long half = 1L << (node.level - 1);
+    return x >= -half && x < half && y >= -half && y < half;
+  }
+
+  /**
+   * Replaces a single leaf of a node.
+   *
+   * @param node the node to change
+   * @param x    x-coordinate relative to the top left corner of the node
+   * @param y    y-coordinate relative to the top left corner of the node
+   * @param leaf the new leaf
+   * @return the changed node
+   */
+  private Node set(Node node, long x, long y, Node leaf) {
+    if (node.level == 0) {
+      return leaf;
+    }
+    long quarter = 1L << (node.level - 1);
+    boolean east = x >= quarter;
+    boolean south = y >= quarter;
+    long childX = east ? x - quarter : x;
+    long childY = south ? y - quarter : y;
+    if (south) {
+      if (east) {
+        return join(node.nw, node.ne, node.sw, set(node.se, childX, childY, leaf));
+      }
+      return join(node.nw, node.ne, set(node.sw, childX, childY, leaf), node.se);
+    }
+    if (east) {
+      return join(node.nw, set(node.ne, childX, childY, leaf), node.sw, node.se);
+    }
+    return join(set(node.nw, childX, childY, leaf), node.ne, node.sw, node.se);
+  }
+
+  /**
+   * Reports every living cell within a rectangle.
+   *
+   * @param x        x-coordinate of the top left corner of the rectangle
+   * @param y        y-coordinate of the top left corner of the rectangle
+   * @param width    width of the rectangle
+   * @param height   height of the rectangle
+   * @param consumer receives the coordinates of the living cells
+   */
+  void forEachAlive(long x, long y, long width, long height, LongBiConsumer consumer) {
+    long half = 1L << (root.level - 1);
+    collect(root, -half, -half, x, y, x + width, y + height, consumer);
+  }
+
+  private void collect(Node node, long left, long top, long minX, long minY, long maxX, long maxY,
+      LongBiConsumer consumer) {
+    long side = 1L << node.level;
+    if (node.population == 0 || left >= maxX || top >= maxY || left + side <= minX
+        || top + side <= minY) {
+      return;
+    }
+    if (node.level == 0) {
+      consumer.accept(left, top);
+      return;
+    }
+    long quarter = side >> 1;
+    collect(node.nw, left, top, minX, minY, maxX, maxY, consumer);
+    collect(node.ne, left + quarter, top, minX, minY, maxX, maxY, consumer);
+    collect(node.sw, left, top + quarter, minX, minY, maxX, maxY, consumer);
+    collect(node.se, left + quarter, top + quarter, minX, minY, maxX, maxY, consumer);
+  }
+
+  /**
+   * Computes the given number of generations. It is split into steps of powers of two, each of
+   * which is computed by a single memoized recursion.
+   *
+   * @param generations the number of generations
+   */
+  void advance(long generations) {
+    for (int j = 0; j < Long.SIZE - 1 && generations >> j != 0; j++) {
+      if ((generations >> j & 1) != 0) {
+        step(j);
+      }
+    }
+  }
+
+  /**
+   * Computes <code>2^j</code> generations.
+   *
+   * @param j the binary logarithm of the number of generations
+   */
+  private void step(int j) {
+    // The pattern must lie within the central quarter of a root that is large enough, so that
+    // it cannot leave the central half, i.e. the result, within 2^j generations.
+    while (root.level < j + 2 || centre(centre(root)).population != root.population) {
+      root = expand(root);
+    }
+    if (root.level >= MAX_LEVEL) {
+      throw new IllegalStateException("The pattern exceeds the size of the universe");
+    }
+    root = successor(expand(root), j);
+  }
+
+  /**
+   * Computes the central half of a node <code>2^j</code> generations ahead.
+   *
+   * @param node a node of level 2 or more
+   * @param j    the binary logarithm of the number of generations, at most the level minus 2
+   * @return a node of one level less, centered on the given node
+   */
+  private Node successor(Node node, int j) {
+    if (node.population == 0) {
+      return empty(node.level - 1);
+    }
+    if (node.results != null && node.results[j] != null) {
+      return node.results[j];
+    }
+
+    Node result;
+    if (node.level == 2) {
+      result = baseCase(node);
+    } else {
+      // The nine overlapping sub-nodes of half the size
+      Node n00 = node.nw;
+      Node n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+      Node n02 = node.ne;
+      Node n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+      Node n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+      Node n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+      Node n20 = node.sw;
+      Node n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+      Node n22 = node.se;
+
+      int childJ = Math.min(j, node.level - 3);
+      Node r00 = successor(n00, childJ);
+      Node r01 = successor(n01, childJ);
+      Node r02 = successor(n02, childJ);
+      Node r10 = successor(n10, childJ);
+      Node r11 = successor(n11, childJ);
+      Node r12 = successor(n12, childJ);
+      Node r20 = successor(n20, childJ);
+      Node r21 = successor(n21, childJ);
+      Node r22 = successor(n22, childJ);
+
+      if (j == node.level - 2) {
+        // The first half of the generations is done, compute the second half
+        result = join(successor(join(r00, r01, r10, r11), childJ),
+            successor(join(r01, r02, r11, r12), childJ),
+            successor(join(r10, r11, r20, r21), childJ),
+            successor(join(r11, r12, r21, r22), childJ));
+      } else {
+        // All generations are done, only the centre is needed
+        result = join(join(r00.se, r01.sw, r10.ne, r11.nw), join(r01.se, r02.sw, r11.ne, r12.nw),
+            join(r10.se, r11.sw, r20.ne, r21.nw), join(r11.se, r12.sw, r21.ne, r22.nw));
+      }
+    }
+
+    if (node.results == null) {
+      node.results = new Node[node.level - 1];
+    }
+    node.results[j] = result;
+    return result;
+  }
+
+  /**
+   * Computes the next generation of the central two by two cells of a four by four node.
+   *
+   * @param node a node of level 2
+   * @return the node of level 1 in its centre one generation ahead
+   */
+  private Node baseCase(Node node) {
+    int bits = 0;
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 4; x++) {
+        Node quadrant = y < 2 ? (x < 2 ? node.nw : node.ne) : (x < 2 ? node.sw : node.se);
+        Node leaf = (y & 1) == 0 ? ((x & 1) == 0 ? quadrant.nw : quadrant.ne)
+            : ((x & 1) == 0 ? quadrant.sw : quadrant.se);
+        if (leaf == alive) {
+          bits |= 1 << (y * 4 + x);
+        }
+      }
+    }
+    return join(nextState(bits, 1, 1), nextState(bits, 2, 1), nextState(bits, 1, 2),
+        nextState(bits, 2, 2));
+  }
+
+  /**
+   * Applies the rules of the game to one cell of a four by four block.
+   *
+   * @param bits the block, bit <code>y * 4 + x</code> holds the cell at <code>(x, y)</code>
+   * @param x    x-coordinate of the cell, between 1 and 2
+   * @param y    y-coordinate of the cell, between 1 and 2
+   * @return the leaf of the cell in the next generation
+   */
+  private Node nextState(int bits, int x, int y) {
+    int neighbors = 0;
+    for (int dy = -1; dy <= 1; dy++) {
+      for (int dx = -1; dx <= 1; dx++) {
+        if ((dx != 0 || dy != 0) && (bits >> ((y + dy) * 4 + x + dx) & 1) != 0) {
+          neighbors++;
+        }
+      }
+    }
+    boolean isAlive = (bits >> (y * 4 + x) & 1) != 0;
+    return rule.nextState(isAlive, neighbors) ? alive : dead;
+  }
+
+  /**
+   * Gets the centered node of one level less.
+   */
+  private Node centre(Node node) {
+    return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+  }
+
+  /**
+   * Surrounds a node with empty space, so that it becomes the centre of a node of one level more.
+   */
+  private Node expand(Node node) {
+    Node border = empty(node.level - 1);
+    return join(join(border, border, border, node.nw), join(border, border, node.ne, border),
+        join(border, node.sw, border, border), join(node.se, border, border, border));
+  }
+
+  /**
+   * Gets the canonical empty node of a level.
+   */
+  private Node empty(int level) {
+    if (level == 0) {
+      return dead;
+    }
+    Node node = emptyNodes[level];
+    if (node == null) {
+      Node child = empty(level - 1);
+      node = join(child, child, child, child);
+      emptyNodes[level] = node;
+    }
+    return node;
+  }
+
+  /**
+   * Gets the canonical node with the given children, creating it if necessary.
+   */
+  private Node join(Node nw, Node ne, Node sw, Node se) {
+    int hash = hash(nw, ne, sw, se);
+    int index = hash & (table.length - 1);
+    for (Node node = table[index]; node != null; node = node.next) {
+      if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+        return node;
+      }
+    }
+    int childLevel = nw.level;
+    long cellHash = nw.cellHash + ne.cellHash * SHIFT_X[childLevel]
+        + (sw.cellHash + se.cellHash * SHIFT_X[childLevel]) * SHIFT_Y[childLevel];
+    Node node = new Node(nw, ne, sw, se, hash, cellHash);
+    node.next = table[index];
+    table[index] = node;
+    size++;
+    if (size > evictionThreshold) {
+      evict();
+    } else if (size > table.length * 3 / 4) {
+      rehash(table.length * 2);
+    }
+    return node;
+  }
+
+  private static int hash(Node nw, Node ne, Node sw, Node se) {
+    int hash = ((nw.hash * 31 + ne.hash) * 31 + sw.hash) * 31 + se.hash;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Gets the powers of a base to the powers of two up to the maximum level.
+   */
+  private static long[] powersOfTwo(long base) {
+    long[] powers = new long[MAX_LEVEL + 1];
+    powers[0] = base;
+    for (int i = 1; i < powers.length; i++) {
+      powers[i] = powers[i - 1] * powers[i - 1];
+    }
+    return powers;
+  }
+
+  /**
+   * Gets the multiplicative inverse of an odd number modulo <code>2^64</code> by Newton's
+   * iteration, which doubles the number of correct low bits with every step.
+   */
+  private static long inverse(long odd) {
+    long inverse = odd;
+    for (int i = 0; i < 5; i++) {
+      inverse *= 2 - odd * inverse;
+    }
+    return inverse;
+  }
+
+  private void rehash(int capacity) {
+    Node[] oldTable = table;
+    table = new Node[capacity];
+    for (Node head : oldTable) {
+      Node node = head;
+      while (node != null) {
+        Node next = node.next;
+        int index = node.hash & (capacity - 1);
+        node.next = table[index];
+        table[index] = node;
+        node = next;
+      }
+    }
+  }
+
+  /**
+   * Evicts all nodes that are not part of the current pattern and forgets all memoized results.
+   */
+  private void evict() {
+    table = new Node[INITIAL_TABLE_SIZE];
+    size = 0;
+    emptyNodes = new Node[MAX_LEVEL + 1];
+    reinsert(root);
+    // Do not evict again right away if the pattern alone nearly fills the table
+    evictionThreshold = Math.max(maxNodes, size * 2);
+  }
+
+  private void reinsert(Node node) {
+    if (node.level == 0) {
+      return;
+    }
+    int index = node.hash & (table.length - 1);
+    for (Node other = table[index]; other != null; other = other.next) {
+      if (other == node) {
+        return;
+      }
+    }
+    node.results = null;
+    node.next = table[index];
+    table[index] = node;
+    size++;
+    if (size > table.length * 3 / 4) {
+      rehash(table.length * 2);
+    }
+    reinsert(node.nw);
+    reinsert(node.ne);
+    reinsert(node.sw);
+    reinsert(node.se);
+  }
+
+  /**
+   * Receives the coordinates of a cell.
+   */
+  @FunctionalInterface
+  interface LongBiConsumer {
+
+    /**
+     * Receives the coordinates of a cell.
+     *
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     */
+    void accept(long x, long y);
+  }
+
+  /**
+   * A canonical square of cells.
+   */
+  private static final class Node {
+
+    final Node nw;
+    final Node ne;
+    final Node sw;
+    final Node se;
+    final int level;
+    final long population;
+    final int hash;
+
+    // Sum of a^x * b^y over the living cells relative to the top left corner
+    final long cellHash;
+
+    // Next node in the same bucket of the table
+    Node next;
+
+    // Memoized successors, index j holds the centre 2^j generations ahead
+    Node[] results;
+
+    /**
+     * Creates a leaf.
+     */
+    Node(int population, int hash, long cellHash) {
+      this.nw = null;
+      this.ne = null;
+      this.sw = null;
+      this.se = null;
+      this.level = 0;
+      this.population = population;
+      this.hash = hash;
+      this.cellHash = cellHash;
+    }
+
+    /**
+     * Creates an inner node.
+     */
+    Node(Node nw, Node ne, Node sw, Node se, int hash, long cellHash) {
+      this.nw = nw;
+      this.ne = ne;
+      this.sw = sw;
+      this.se = se;
+      this.level = nw.level + 1;
+      this.population = nw.population + ne.population + sw.population + se.population;
+      this.hash = hash;
+      this.cellHash = cellHash;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package org.sosylab.model;
+
+/**
+ * Receives the coordinates of cells as primitive values, so that large numbers of cells can be
+ * passed on without creating a {@link Cell} for each of them.
+ */
+@FunctionalInterface
+public interface IntBiConsumer {
+
+  /**
+   * Receives the coordinates of a cell.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   */
+  void accept(int col, int row);
+}
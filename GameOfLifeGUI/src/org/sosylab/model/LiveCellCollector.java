@@ -0,0 +1,30 @@
+package org.sosylab.model;
+
+import java.util.Arrays;
+
+/**
+ * Collects the coordinates of living cells into a growing array of packed cells, as described in
+ * {@link Grid#getPackedLiveCells()}.
+ */
+final class LiveCellCollector implements IntBiConsumer {
+
+  private long[] cells = new long[16];
+  private int count;
+
+  @Override
+  public void accept(int col, int row) {
+    if (count == cells.length) {
+      cells = Arrays.copyOf(cells, 2 * count);
+    }
+    cells[count++] = (long) row << 32 | col;
+  }
+
+  /**
+   * Gets the collected cells.
+   *
+   * @return a new array of the collected cells.
+   */
+  long[] toArray() {
+    return Arrays.copyOf(cells, count);
+  }
+}
@@ -0,0 +1,151 @@
+package org.sosylab.model;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive <code>long</code> keys to <code>byte</code> counters, implemented as an
+ * open-addressing hash table with linear probing. It only supports incrementing, lookups and
+ * clearing, which is all that counting neighbors needs, and keeps its capacity when cleared.
+ *
+ * <p>The entries can be iterated by slot: every slot between 0 and {@link #capacity()} for which
+ * {@link #isUsed(int)} holds contains a key and its counter.
+ */
+final class LongByteMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private byte[] values;
+  private boolean[] used;
+  private int mask;
+  private int size;
+
+  /**
+   * Creates an empty map.
+   */
+  LongByteMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new byte[capacity];
+    used = new boolean[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Gets the number of keys in the map.
+   *
+   * @return the size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Increments the counter of a key, adding the key with a counter of one if it is missing.
+   *
+   * @param key the key
+   */
+  void increment(long key) {
+    int index = LongHashSet.mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        values[index]++;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    used[index] = true;
+    keys[index] = key;
+    values[index] = 1;
+    if (++size > keys.length * 3 / 4) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  /**
+   * Checks whether the map contains a key.
+   *
+   * @param key the key
+   * @return <code>true</code> if the key has a counter, <code>false</code> otherwise
+   */
+  boolean containsKey(long key) {
+    int index = LongHashSet.mix(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Removes all keys, keeping the capacity of the map.
+   */
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(used, false);
+      size = 0;
+    }
+  }
+
+  /**
+   * Gets the number of slots of the map.
+   *
+   * @return the capacity
+   */
+  int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * Checks whether a slot holds an entry.
+   *
+   * @param slot the slot
+   * @return <code>true</code> if the slot is used
+   */
+  boolean isUsed(int slot) {
+    return used[slot];
+  }
+
+  /**
+   * Gets the key of a used slot.
+   *
+   * @param slot the slot
+   * @return the key
+   */
+  long keyAt(int slot) {
+    return keys[slot];
+  }
+
+  /**
+   * Gets the counter of a used slot.
+   *
+   * @param slot the slot
+   * @return the counter
+   */
+  byte valueAt(int slot) {
+    return values[slot];
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    byte[] oldValues = values;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      if (oldUsed[slot]) {
+        int index = LongHashSet.mix(oldKeys[slot]) & mask;
+        while (used[index]) {
+          index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = oldKeys[slot];
+        values[index] = oldValues[slot];
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package org.sosylab.model;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive <code>long</code> values, implemented as an open-addressing hash table with
+ * linear probing. Unlike a <code>HashSet&lt;Long&gt;</code> it neither boxes its values nor
+ * allocates entries, and clearing it keeps its capacity for reuse.
+ */
+final class LongHashSet {
+
+  private static final int MIN_CAPACITY = 16;
+
+  // Marks an empty slot, the value itself is tracked by a separate flag
+  private static final long FREE = 0;
+
+  private long[] keys;
+  private int mask;
+  private int size;
+  private boolean containsFree;
+
+  /**
+   * Creates an empty set.
+   */
+  LongHashSet() {
+    keys = new long[MIN_CAPACITY];
+    mask = MIN_CAPACITY - 1;
+  }
+
+  /**
+   * Gets the number of values in the set.
+   *
+   * @return the size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether the set contains a value.
+   *
+   * @param key the value
+   * @return <code>true</code> if the value is contained
+   */
+  boolean contains(long key) {
+    if (key == FREE) {
+      return containsFree;
+    }
+    for (int index = slot(key); ; index = (index + 1) & mask) {
+      long current = keys[index];
+      if (current == key) {
+        return true;
+      } else if (current == FREE) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Adds a value to the set.
+   *
+   * @param key the value
+   * @return <code>true</code> if the value was not contained before
+   */
+  boolean add(long key) {
+    if (key == FREE) {
+      if (containsFree) {
+        return false;
+      }
+      containsFree = true;
+      size++;
+      return true;
+    }
+    int index = slot(key);
+    for (long current = keys[index]; current != FREE; current = keys[index]) {
+      if (current == key) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    if (++size > keys.length * 3 / 4) {
+      rehash(keys.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Removes a value from the set.
+   *
+   * @param key the value
+   * @return <code>true</code> if the value was contained before
+   */
+  boolean remove(long key) {
+    if (key == FREE) {
+      if (!containsFree) {
+        return false;
+      }
+      containsFree = false;
+      size--;
+      return true;
+    }
+    for (int index = slot(key); ; index = (index + 1) & mask) {
+      long current = keys[index];
+      if (current == FREE) {
+        return false;
+      } else if (current == key) {
+        shiftBack(index);
+        size--;
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Removes all values, keeping the capacity of the set.
+   */
+  void clear() {
+    Arrays.fill(keys, FREE);
+    containsFree = false;
+    size = 0;
+  }
+
+  /**
+   * Passes every value of the set to the consumer.
+   *
+   * @param consumer receives the values
+   */
+  void forEach(LongConsumer consumer) {
+    if (containsFree) {
+      consumer.accept(FREE);
+    }
+    for (long key : keys) {
+      if (key != FREE) {
+        consumer.accept(key);
+      }
+    }
+  }
+
+  /**
+   * Closes the gap left by a removed value, so that no probe sequence gets interrupted.
+   */
+  private void shiftBack(int gap) {
+    int index = gap;
+    while (true) {
+      index = (index + 1) & mask;
+      long current = keys[index];
+      if (current == FREE) {
+        keys[gap] = FREE;
+        return;
+      }
+      int home = slot(current);
+      // Move the value into the gap unless its home slot lies cyclically between gap and index
+      if (((index - home) & mask) >= ((index - gap) & mask)) {
+        keys[gap] = current;
+        gap = index;
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    keys = new long[capacity];
+    mask = capacity - 1;
+    for (long key : oldKeys) {
+      if (key != FREE) {
+        int index = slot(key);
+        while (keys[index] != FREE) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = key;
+      }
+    }
+  }
+
+  private int slot(long key) {
+    return mix(key) & mask;
+  }
+
+  /**
+   * Spreads the bits of a value, so that packed coordinates of neighboring cells end up in
+   * different slots.
+   */
+  static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -1,7 +1,13 @@
 package org.sosylab.model;
 
+import static java.util.Objects.requireNonNull;
+
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * The main interface of Game of Life model for the graphical user-interface. It provides all
@@ -31,4 +37,148 @@ public interface Model extends Grid {
    */
   void removePropertyChangeListener(PropertyChangeListener pcl);
 
+  /**
+   * Changes the state of several cells at once. Unlike calling {@link #setCellAlive(int, int)} and
+   * {@link #setCellDead(int, int)} for each cell, the listeners get notified only once after all
+   * changes have been made.
+   *
+   * <p>The dead cells are applied first, so a cell contained in both collections is alive
+   * afterwards. If any of the cells lies outside of the grid, no cell is changed at all.
+   *
+   * @param born the cells to set alive.
+   * @param died the cells to put into a dead state.
+   * @throws IllegalArgumentException if a cell lies outside of the grid
+   */
+  void applyChanges(Collection<Cell> born, Collection<Cell> died);
+
+  /**
+   * Gets the rule by which the generations are computed.
+   *
+   * @return the rule, {@link Rule#CONWAY} unless another one has been set.
+   */
+  Rule getRule();
+
+  /**
+   * Sets the rule by which the following generations are computed. The listeners get notified as
+   * if the whole grid had changed.
+   *
+   * @param rule the new rule.
+   */
+  void setRule(Rule rule);
+
+  /**
+   * Gets the way in which the edges of the grid are joined.
+   *
+   * <p>The default implementation is meant for unbounded universes, which have no edges; they
+   * report {@link Topology#DEAD_EDGE}.
+   *
+   * @return the topology, {@link Topology#DEAD_EDGE} unless another one has been set.
+   */
+  default Topology getTopology() {
+    return Topology.DEAD_EDGE;
+  }
+
+  /**
+   * Sets the way in which the edges of the grid are joined for the following generations. The
+   * listeners get notified as if the whole grid had changed.
+   *
+   * <p>The default implementation is meant for unbounded universes and accepts only the topology
+   * they report.
+   *
+   * @param topology the new topology.
+   * @throws UnsupportedOperationException if the universe has no edges that could be joined
+   */
+  default void setTopology(Topology topology) {
+    if (requireNonNull(topology) != getTopology()) {
+      throw new UnsupportedOperationException("The universe has no edges");
+    }
+  }
+
+  /**
+   * Sets the living cells of a shape alive at once, with its top left corner at the given
+   * position. The other cells keep their state, and cells of the shape that fall outside of the
+   * grid are left out. All cells are written under a single lock, and the listeners get notified
+   * only once.
+   *
+   * <p>The default implementation collects the cells within the grid under the lock and passes
+   * them to {@link #applyChanges(Collection, Collection)} after releasing it, so that the
+   * listeners do not run with the lock held. Should the grid shrink in between, the cells are
+   * rejected as a whole. Engines with packed cells override it.
+   *
+   * @param shape     the shape to stamp.
+   * @param col       x-position of the top left corner of the transformed shape, may be negative.
+   * @param row       y-position of the top left corner of the transformed shape, may be negative.
+   * @param transform the rotation or reflection of the shape.
+   */
+  default void stamp(Shape shape, int col, int row, Transform transform) {
+    Shape placed = shape.transform(transform);
+    List<Cell> cells = new ArrayList<>();
+    synchronized (this) {
+      int columns = getColumns();
+      int rows = getRows();
+      placed.forEachCell((shapeCol, shapeRow) -> {
+        long x = (long) col + shapeCol;
+        long y = (long) row + shapeRow;
+        if (x >= 0 && y >= 0 && x < columns && y < rows) {
+          cells.add(new Cell((int) x, (int) y));
+        }
+      });
+    }
+    applyChanges(cells, Collections.emptyList());
+  }
+
+  /**
+   * Computes the given number of generations at once. The engines notify the listeners only once
+   * afterwards with a plain {@link #STATE_CHANGED} event, as the changed cells are not collected.
+   *
+   * <p>The default implementation calls {@link #next()} for every generation and so notifies the
+   * listeners after every generation; the engines override it, and those that can skip
+   * generations, such as {@link HashlifeGame}, compute them without visiting each one.
+   *
+   * @param generations the number of generations to compute.
+   * @throws IllegalArgumentException if the number of generations is negative
+   */
+  default void advance(long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    for (long i = 0; i < generations; i++) {
+      next();
+    }
+  }
+
+  /**
+   * Gets a 64-bit hash of the living cells, which is the exclusive or of a pseudo-random key of
+   * every living cell unless the engine says otherwise. Equal populations of the same model have
+   * equal hashes, so that a hash that reappears reveals a still life or an oscillator, see
+   * {@link CycleDetector}.
+   *
+   * <p>The engines update the hash with every birth and death once this method has been called
+   * for the first time. The default implementation computes it from the
+   * {@linkplain #getSnapshot() snapshot} instead, so it only covers the cells of the grid.
+   *
+   * @return the hash of the population.
+   */
+  default long getPopulationHash() {
+    return PopulationHash.of(getSnapshot());
+  }
+
+  /**
+   * Gets an immutable snapshot of the current state of the grid.
+   *
+   * <p>The engines publish a new snapshot after every change once this method has been called for
+   * the first time, so that later calls return without waiting for the computation of a
+   * generation. The default implementation copies the population under the lock of the model
+   * instead.
+   *
+   * @return the current snapshot.
+   */
+  default GenerationSnapshot getSnapshot() {
+    synchronized (this) {
+      GenerationSnapshot.Builder builder = new GenerationSnapshot.Builder(getColumns(), getRows());
+      forEachLiveCell(builder::setAlive);
+      return builder.build(getGenerations(), getGenerations());
+    }
+  }
+
 }
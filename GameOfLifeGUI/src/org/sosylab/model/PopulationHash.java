@@ -0,0 +1,51 @@
+package org.sosylab.model;
+
+import java.nio.LongBuffer;
+
+/**
+ * The Zobrist-style hash of a population: the exclusive or of a pseudo-random key of every living
+ * cell. As the key of a cell only depends on its position, the hash is updated by a single
+ * exclusive or for every birth and every death, without looking at the other cells.
+ */
+final class PopulationHash {
+
+  private PopulationHash() {
+  }
+
+  /**
+   * Gets the pseudo-random key of a cell.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @return the key, which is the same for every call with the same position
+   */
+  static long cellKey(long col, long row) {
+    // The finalizer of SplitMix64, a bijection that spreads every input bit over the whole key
+    long key = col * 0x9E3779B97F4A7C15L + row;
+    key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+    key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+    return key ^ (key >>> 31);
+  }
+
+  /**
+   * Computes the hash of the living cells of a snapshot from scratch.
+   *
+   * @param snapshot the snapshot.
+   * @return the hash
+   */
+  static long of(GenerationSnapshot snapshot) {
+    LongBuffer words = snapshot.getWords();
+    int wordsPerRow = GenerationSnapshot.wordsPerRow(snapshot.getColumns());
+    long hash = 0;
+    for (int row = 0; row < snapshot.getRows(); row++) {
+      for (int w = 0; w < wordsPerRow; w++) {
+        long word = words.get(row * wordsPerRow + w);
+        while (word != 0) {
+          hash ^= cellKey(w * Long.SIZE + Long.numberOfTrailingZeros(word), row);
+          word &= word - 1;
+        }
+      }
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,173 @@
+package org.sosylab.model;
+
+import java.util.Locale;
+
+/**
+ * An outer-totalistic rule of a Life-like cellular automaton, i.e. the numbers of living neighbors
+ * for which a dead cell is born and a living cell survives.
+ *
+ * <p>Rules are written in the B/S notation, e.g. <code>B3/S23</code> for Conway's Game of Life,
+ * <code>B36/S23</code> for HighLife or <code>B3678/S34678</code> for Day &amp; Night. The older
+ * notation without letters, which lists the survivals first (e.g. <code>23/3</code>), is accepted
+ * as well. Rules in which cells are born without any living neighbor (<code>B0</code>) are not
+ * supported, as they would bring the whole infinite dead universe to life.
+ */
+public final class Rule {
+
+  /**
+   * The rule of Conway's Game of Life, <code>B3/S23</code>.
+   */
+  public static final Rule CONWAY = new Rule(1 << 3, 1 << 2 | 1 << 3);
+
+  // Bit n is set if a cell with n living neighbors is born or survives, respectively
+  private final int births;
+  private final int survivals;
+
+  private Rule(int births, int survivals) {
+    this.births = births;
+    this.survivals = survivals;
+  }
+
+  /**
+   * Parses a rule in the B/S notation.
+   *
+   * @param notation the rule, e.g. <code>B36/S23</code>
+   * @return the rule
+   * @throws IllegalArgumentException if the rule is not recognized or contains <code>B0</code>
+   */
+  public static Rule parse(String notation) {
+    String[] parts = notation.trim().toUpperCase(Locale.ROOT).split("/", -1);
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("The rule is not recognized");
+    }
+    int births;
+    int survivals;
+    if (parts[0].startsWith("B") && parts[1].startsWith("S")) {
+      births = parseCounts(parts[0].substring(1));
+      survivals = parseCounts(parts[1].substring(1));
+    } else if (parts[0].startsWith("S") && parts[1].startsWith("B")) {
+      survivals = parseCounts(parts[0].substring(1));
+      births = parseCounts(parts[1].substring(1));
+    } else {
+      survivals = parseCounts(parts[0]);
+      births = parseCounts(parts[1]);
+    }
+    if ((births & 1) != 0) {
+      throw new IllegalArgumentException("Rules with births without living neighbors are not "
+          + "supported");
+    }
+    return new Rule(births, survivals);
+  }
+
+  private static int parseCounts(String counts) {
+    int mask = 0;
+    for (char c : counts.toCharArray()) {
+      if (c < '0' || c > '8') {
+        throw new IllegalArgumentException("The rule is not recognized");
+      }
+      mask |= 1 << (c - '0');
+    }
+    return mask;
+  }
+
+  /**
+   * Checks whether a dead cell with the given number of living neighbors is born.
+   *
+   * @param neighbors the number of living neighbors, between 0 and 8.
+   * @return <code>true</code> if the cell is born, <code>false</code> otherwise.
+   */
+  public boolean isBorn(int neighbors) {
+    return (births >> neighbors & 1) != 0;
+  }
+
+  /**
+   * Checks whether a living cell with the given number of living neighbors survives.
+   *
+   * @param neighbors the number of living neighbors, between 0 and 8.
+   * @return <code>true</code> if the cell survives, <code>false</code> otherwise.
+   */
+  public boolean survives(int neighbors) {
+    return (survivals >> neighbors & 1) != 0;
+  }
+
+  /**
+   * Gets the state of a cell in the next generation.
+   *
+   * @param alive     the current state of the cell.
+   * @param neighbors the number of living neighbors, between 0 and 8.
+   * @return <code>true</code> if the cell is alive in the next generation, <code>false</code>
+   *         otherwise.
+   */
+  public boolean nextState(boolean alive, int neighbors) {
+    return alive ? survives(neighbors) : isBorn(neighbors);
+  }
+
+  /**
+   * Gets the numbers of living neighbors for which a dead cell is born.
+   *
+   * @return a mask, in which bit <code>n</code> is set if a cell with <code>n</code> neighbors is
+   *         born
+   */
+  int getBirthMask() {
+    return births;
+  }
+
+  /**
+   * Gets the numbers of living neighbors for which a living cell survives.
+   *
+   * @return a mask, in which bit <code>n</code> is set if a cell with <code>n</code> neighbors
+   *         survives
+   */
+  int getSurvivalMask() {
+    return survivals;
+  }
+
+  /**
+   * Creates a lookup table of the next states of the cells. The table is indexed by the number of
+   * living neighbors, to which <code>16</code> is added for living cells.
+   *
+   * @return the table with <code>1</code> for living and <code>0</code> for dead cells
+   */
+  byte[] createLookupTable() {
+    byte[] table = new byte[32];
+    for (int neighbors = 0; neighbors <= 8; neighbors++) {
+      table[neighbors] = (byte) (isBorn(neighbors) ? 1 : 0);
+      table[16 | neighbors] = (byte) (survives(neighbors) ? 1 : 0);
+    }
+    return table;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || getClass() != other.getClass()) {
+      return false;
+    }
+    Rule rule = (Rule) other;
+    return births == rule.births && survivals == rule.survivals;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * births + survivals;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder notation = new StringBuilder("B");
+    appendCounts(notation, births);
+    notation.append("/S");
+    appendCounts(notation, survivals);
+    return notation.toString();
+  }
+
+  private static void appendCounts(StringBuilder notation, int mask) {
+    for (int neighbors = 0; neighbors <= 8; neighbors++) {
+      if ((mask >> neighbors & 1) != 0) {
+        notation.append(neighbors);
+      }
+    }
+  }
+}
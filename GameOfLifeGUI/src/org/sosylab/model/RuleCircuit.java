@@ -0,0 +1,91 @@
+package org.sosylab.model;
+
+/**
+ * A rule other than Conway's, reduced to a fixed circuit of bitwise operations that computes the
+ * next generation of 64 cells at once from their bit-sliced neighbor counts.
+ *
+ * <p>The circuit is a tree of multiplexers over the bits of the count: the counts <code>2j</code>
+ * and <code>2j + 1</code> are told apart by bit 0, the four pairs by bits 1 and 2, and count 8,
+ * whose lower bits are all zero, by bit 3. The leaf of a count is the word
+ * <code>born ^ (alive &amp; flip)</code>, which is the birth of dead cells and the survival of
+ * living ones. The constants of the leaves are computed once when the rule is set, so that a word
+ * takes the same few dozen operations whatever the rule, without a loop over its counts.
+ */
+final class RuleCircuit {
+
+  // For every pair of counts: the leaf of the even count and its difference to the odd count. The
+  // vectorized circuit of VectorRows reads them as well.
+  final long born0;
+  final long flip0;
+  final long bornDiff0;
+  final long flipDiff0;
+  final long born2;
+  final long flip2;
+  final long bornDiff2;
+  final long flipDiff2;
+  final long born4;
+  final long flip4;
+  final long bornDiff4;
+  final long flipDiff4;
+  final long born6;
+  final long flip6;
+  final long bornDiff6;
+  final long flipDiff6;
+  final long born8;
+  final long flip8;
+
+  /**
+   * Reduces a rule to the constants of the circuit.
+   *
+   * @param rule the rule.
+   */
+  RuleCircuit(Rule rule) {
+    born0 = born(rule, 0);
+    flip0 = flip(rule, 0);
+    bornDiff0 = born0 ^ born(rule, 1);
+    flipDiff0 = flip0 ^ flip(rule, 1);
+    born2 = born(rule, 2);
+    flip2 = flip(rule, 2);
+    bornDiff2 = born2 ^ born(rule, 3);
+    flipDiff2 = flip2 ^ flip(rule, 3);
+    born4 = born(rule, 4);
+    flip4 = flip(rule, 4);
+    bornDiff4 = born4 ^ born(rule, 5);
+    flipDiff4 = flip4 ^ flip(rule, 5);
+    born6 = born(rule, 6);
+    flip6 = flip(rule, 6);
+    bornDiff6 = born6 ^ born(rule, 7);
+    flipDiff6 = flip6 ^ flip(rule, 7);
+    born8 = born(rule, 8);
+    flip8 = flip(rule, 8);
+  }
+
+  /**
+   * Applies the rule to 64 cells at once.
+   *
+   * @param alive  the cells
+   * @param count1 bit 0 of the neighbor counts of the cells
+   * @param count2 bit 1 of the neighbor counts of the cells
+   * @param count4 bit 2 of the neighbor counts of the cells
+   * @param count8 bit 3 of the neighbor counts of the cells
+   * @return the cells in the next generation
+   */
+  long apply(long alive, long count1, long count2, long count4, long count8) {
+    long pair0 = born0 ^ (alive & flip0) ^ (count1 & (bornDiff0 ^ (alive & flipDiff0)));
+    long pair2 = born2 ^ (alive & flip2) ^ (count1 & (bornDiff2 ^ (alive & flipDiff2)));
+    long pair4 = born4 ^ (alive & flip4) ^ (count1 & (bornDiff4 ^ (alive & flipDiff4)));
+    long pair6 = born6 ^ (alive & flip6) ^ (count1 & (bornDiff6 ^ (alive & flipDiff6)));
+    long low = pair0 ^ (count2 & (pair0 ^ pair2));
+    long high = pair4 ^ (count2 & (pair4 ^ pair6));
+    long next = low ^ (count4 & (low ^ high));
+    return next ^ (count8 & (next ^ born8 ^ (alive & flip8)));
+  }
+
+  private static long born(Rule rule, int count) {
+    return rule.isBorn(count) ? -1L : 0L;
+  }
+
+  private static long flip(Rule rule, int count) {
+    return rule.isBorn(count) != rule.survives(count) ? -1L : 0L;
+  }
+}
@@ -1,17 +1,27 @@
 package org.sosylab.model;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Contains data of a predefined shape.
+ *
+ * <p>The living cells are stored as a packed bitmap in the layout of {@link GenerationSnapshot},
+ * so that even shapes of imported patterns with millions of cells are compact and can be
+ * {@linkplain Model#stamp(Shape, int, int, Transform) stamped} onto a model quickly. The rotated
+ * and reflected variants of a shape are computed on first use and cached.
  */
 public class Shape {
 
   private final String name;
-  private final Set<Cell> shapePopulation;
   private final int columns;
   private final int rows;
+  private final int words;
+  private final long[] bits;
+
+  // The transformed variants of this shape, computed on first use
+  private final Shape[] transforms = new Shape[Transform.values().length];
 
   /**
    * Create a shape.
@@ -20,28 +30,57 @@ public class Shape {
    * @param shape layout for the shape
    */
   public Shape(String name, int[][] shape) {
-    this.name = name;
-    this.columns = shape[0].length;
-    this.rows = shape.length;
-    this.shapePopulation = createShapePopulation(shape);
+    this(name, shape[0].length, shape.length);
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (shape[row][column] == 1) {
+          setAlive(column, row);
+        }
+      }
+    }
   }
 
   /**
-   * Create a set of all living cells of the shape from the initial layout.
+   * Create a shape from its living cells.
    *
-   * @param shape initial layout of the shape
-   * @return Set of all cells which are alive.
+   * @param name       the name of the shape
+   * @param columns    the number of columns of the shape
+   * @param rows       the number of rows of the shape
+   * @param population the living cells of the shape
+   * @throws IllegalArgumentException if a cell lies outside of the shape
    */
-  private static Set<Cell> createShapePopulation(int[][] shape) {
-    Set<Cell> shapePopulation = new HashSet<>();
-    for (int row = 0; row < shape.length; row++) {
-      for (int column = 0; column < shape[0].length; column++) {
-        if (shape[row][column] == 1) {
-          shapePopulation.add(new Cell(column, row));
-        }
+  public Shape(String name, int columns, int rows, Collection<Cell> population) {
+    this(name, columns, rows);
+    for (Cell cell : population) {
+      if (cell.getColumn() >= columns || cell.getRow() >= rows) {
+        throw new IllegalArgumentException(
+            "Parameters for column and row may not exceed the maximum number of columns and rows");
       }
     }
-    return shapePopulation;
+    for (Cell cell : population) {
+      setAlive(cell.getColumn(), cell.getRow());
+    }
+  }
+
+  /**
+   * Create a shape consisting solely of dead cells, to be filled with {@link #setAlive(int, int)}.
+   */
+  private Shape(String name, int columns, int rows) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    }
+    this.name = name;
+    this.columns = columns;
+    this.rows = rows;
+    this.words = GenerationSnapshot.wordsPerRow(columns);
+    this.bits = new long[rows * words];
+  }
+
+  /**
+   * Sets a cell of the shape alive while it is being created.
+   */
+  private void setAlive(int col, int row) {
+    bits[row * words + (col >>> 6)] |= 1L << col;
   }
 
   /**
@@ -71,12 +110,184 @@ public class Shape {
     return name;
   }
 
+  /**
+   * Gets the number of living cells of the shape.
+   *
+   * @return the number of living cells
+   */
+  public int getCellCount() {
+    int count = 0;
+    for (long word : bits) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the status of a cell of the shape (alive or dead).
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @return <code>true</code> if the cell is alive, <code>false</code> otherwise.
+   * @throws IllegalArgumentException if the coordinates are outside of the shape
+   */
+  public boolean isCellAlive(int col, int row) {
+    if (col < 0 || row < 0) {
+      throw new IllegalArgumentException("Number of column and row may not be negative");
+    } else if (col >= columns || row >= rows) {
+      throw new IllegalArgumentException(
+          "Parameters for column and row may not exceed the maximum number of columns and rows");
+    }
+    return (bits[row * words + (col >>> 6)] & (1L << col)) != 0;
+  }
+
+  /**
+   * Hands every living cell of the shape to a consumer, row by row.
+   *
+   * @param cells receives the living cells
+   */
+  public void forEachCell(IntBiConsumer cells) {
+    for (int row = 0; row < rows; row++) {
+      for (int w = 0; w < words; w++) {
+        long word = bits[row * words + w];
+        while (word != 0) {
+          cells.accept(w * Long.SIZE + Long.numberOfTrailingZeros(word), row);
+          word &= word - 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets a word of the packed bitmap, see {@link GenerationSnapshot}.
+   *
+   * @param row  y-position.
+   * @param word index of the word within the row.
+   * @return the cells of the columns <code>64 * word</code> to <code>64 * word + 63</code>
+   */
+  long getWord(int row, int word) {
+    return bits[row * words + word];
+  }
+
+  /**
+   * Gets the rotated or reflected variant of the shape. The variants are computed on first use
+   * and cached.
+   *
+   * @param transform the rotation or reflection
+   * @return the transformed shape, which has the same name
+   */
+  public Shape transform(Transform transform) {
+    if (transform == Transform.IDENTITY) {
+      return this;
+    }
+    synchronized (transforms) {
+      Shape transformed = transforms[transform.ordinal()];
+      if (transformed == null) {
+        transformed = transform.swapsDimensions() ? new Shape(name, rows, columns)
+            : new Shape(name, columns, rows);
+        Shape target = transformed;
+        forEachCell((col, row) -> target.setAlive(transform.column(col, row, columns, rows),
+            transform.row(col, row, columns, rows)));
+        transforms[transform.ordinal()] = transformed;
+      }
+      return transformed;
+    }
+  }
+
   /**
    * Get the set of all living cells of the shape.
    *
    * @return the alive cells of the shape
    */
   public Set<Cell> getShapePopulation() {
-    return new HashSet<>(shapePopulation);
+    Set<Cell> population = new HashSet<>();
+    forEachCell((col, row) -> population.add(new Cell(col, row)));
+    return population;
+  }
+
+  /**
+   * Builds a shape from a stream of living cells whose extent is not known in advance, e.g. while
+   * a pattern file is being parsed. The cells are set in a packed bitmap that grows as needed, so
+   * that no object is created per cell.
+   */
+  public static final class Builder implements IntBiConsumer {
+
+    private int capacityColumns = Long.SIZE;
+    private int capacityRows = Long.SIZE;
+    private int capacityWords = 1;
+    private long[] bits = new long[capacityRows];
+    private int columns;
+    private int rows;
+
+    /**
+     * Constructs a new builder of a shape consisting solely of dead cells.
+     */
+    public Builder() {
+    }
+
+    /**
+     * Sets a cell of the shape alive.
+     *
+     * @param col x-position.
+     * @param row y-position.
+     * @throws IllegalArgumentException if the coordinates are negative
+     */
+    @Override
+    public void accept(int col, int row) {
+      if (col < 0 || row < 0) {
+        throw new IllegalArgumentException("Number of column and row may not be negative");
+      }
+      if (col >= capacityColumns || row >= capacityRows) {
+        grow(col, row);
+      }
+      bits[row * capacityWords + (col >>> 6)] |= 1L << col;
+      columns = Math.max(columns, col + 1);
+      rows = Math.max(rows, row + 1);
+    }
+
+    /**
+     * Creates the shape, which spans at least all living cells.
+     *
+     * @param name       the name of the shape
+     * @param minColumns the least number of columns, e.g. the width given by a pattern file
+     * @param minRows    the least number of rows
+     * @return the shape, with at least one column and one row
+     */
+    public Shape build(String name, int minColumns, int minRows) {
+      Shape shape = new Shape(name, Math.max(1, Math.max(columns, minColumns)),
+          Math.max(1, Math.max(rows, minRows)));
+      int copiedWords = Math.min(shape.words, capacityWords);
+      for (int row = 0; row < rows; row++) {
+        System.arraycopy(bits, row * capacityWords, shape.bits, row * shape.words, copiedWords);
+      }
+      return shape;
+    }
+
+    /**
+     * Doubles the capacity in every dimension that is too small for the given cell and moves the
+     * rows into the wider layout.
+     */
+    private void grow(int col, int row) {
+      int newColumns = capacityColumns;
+      while (col >= newColumns && newColumns < Integer.MAX_VALUE) {
+        newColumns = (int) Math.min(Integer.MAX_VALUE, 2L * newColumns);
+      }
+      int newRows = capacityRows;
+      while (row >= newRows && newRows < Integer.MAX_VALUE) {
+        newRows = (int) Math.min(Integer.MAX_VALUE, 2L * newRows);
+      }
+      int newWords = GenerationSnapshot.wordsPerRow(newColumns);
+      if ((long) newWords * newRows > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("The shape is too large");
+      }
+      long[] newBits = new long[newWords * newRows];
+      for (int r = 0; r < rows; r++) {
+        System.arraycopy(bits, r * capacityWords, newBits, r * newWords, capacityWords);
+      }
+      capacityColumns = newColumns;
+      capacityRows = newRows;
+      capacityWords = newWords;
+      bits = newBits;
+    }
   }
 }
@@ -0,0 +1,286 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the generations of a {@link Model} on a single thread that owns the simulation.
+ *
+ * <p>While running, the scheduler either computes generations at a fixed rate or as fast as
+ * possible, see {@link Mode}. Generations are never computed concurrently: if a generation takes
+ * longer than the interval of the fixed rate, the missed ticks are dropped instead of piling up,
+ * and several single steps requested while a generation is being computed are coalesced into one.
+ *
+ * <p>The thread is started with the first request and ends with {@link #shutdown()}.
+ */
+public class SimulationScheduler {
+
+  /**
+   * The ways of computing generations while the scheduler is running.
+   */
+  public enum Mode {
+
+    /**
+     * Computes the generations at the {@linkplain #setTargetRate(double) target rate}.
+     */
+    FIXED_RATE,
+
+    /**
+     * Computes the generations one after the other without waiting.
+     */
+    AS_FAST_AS_POSSIBLE
+  }
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Model model;
+
+  private Thread owner;
+  private boolean shutdown;
+  private boolean running;
+  private boolean stepRequested;
+  private Mode mode = Mode.FIXED_RATE;
+  private double targetRate = 1;
+  private long period = ONE_SECOND;
+  private long deadline;
+
+  private long droppedSteps;
+  private long intervalStart = System.nanoTime();
+  private long intervalGenerations;
+  private double achievedRate;
+
+  /**
+   * Constructs a new scheduler that is not running.
+   *
+   * @param model the model to compute the generations of.
+   */
+  public SimulationScheduler(Model model) {
+    this.model = requireNonNull(model);
+  }
+
+  /**
+   * Starts computing generations until {@link #stop()} gets called.
+   *
+   * @throws IllegalStateException if the scheduler has been shut down
+   */
+  public synchronized void start() {
+    ensureOwner();
+    if (!running) {
+      running = true;
+      deadline = System.nanoTime();
+      notifyAll();
+    }
+  }
+
+  /**
+   * Stops computing generations. A generation that is being computed is still completed.
+   */
+  public synchronized void stop() {
+    running = false;
+    notifyAll();
+  }
+
+  /**
+   * Checks whether the scheduler computes generations until it gets stopped.
+   *
+   * @return <code>true</code> if the scheduler is running, <code>false</code> otherwise.
+   */
+  public synchronized boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Requests the computation of a single generation on the thread of the scheduler. Requests made
+   * while the scheduler is running or while another request is pending are coalesced.
+   *
+   * @throws IllegalStateException if the scheduler has been shut down
+   */
+  public synchronized void requestStep() {
+    ensureOwner();
+    stepRequested = true;
+    notifyAll();
+  }
+
+  /**
+   * Sets the way of computing generations while the scheduler is running.
+   *
+   * @param mode the new mode.
+   */
+  public synchronized void setMode(Mode mode) {
+    this.mode = requireNonNull(mode);
+    deadline = System.nanoTime();
+    notifyAll();
+  }
+
+  /**
+   * Gets the way of computing generations while the scheduler is running.
+   *
+   * @return the mode.
+   */
+  public synchronized Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Sets the number of generations per second in the mode {@link Mode#FIXED_RATE}.
+   *
+   * @param generationsPerSecond the new target rate.
+   * @throws IllegalArgumentException if the rate is not positive
+   */
+  public synchronized void setTargetRate(double generationsPerSecond) {
+    if (!(generationsPerSecond > 0) || Double.isInfinite(generationsPerSecond)) {
+      throw new IllegalArgumentException("Rate must be positive");
+    }
+    targetRate = generationsPerSecond;
+    period = Math.max(1, Math.round(ONE_SECOND / generationsPerSecond));
+    deadline = System.nanoTime();
+    notifyAll();
+  }
+
+  /**
+   * Gets the number of generations per second the scheduler aims for. In the mode
+   * {@link Mode#AS_FAST_AS_POSSIBLE} it is infinite.
+   *
+   * @return the target rate.
+   */
+  public synchronized double getTargetRate() {
+    return mode == Mode.FIXED_RATE ? targetRate : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Gets the number of generations that have been computed during the last second.
+   *
+   * @return the achieved rate.
+   */
+  public synchronized double getAchievedRate() {
+    completeInterval();
+    return achievedRate;
+  }
+
+  /**
+   * Gets the number of ticks of the fixed rate that have been dropped because the computation of
+   * a generation took too long.
+   *
+   * @return the number of dropped steps.
+   */
+  public synchronized long getDroppedSteps() {
+    return droppedSteps;
+  }
+
+  /**
+   * Stops the scheduler for good and lets its thread end.
+   */
+  public synchronized void shutdown() {
+    running = false;
+    shutdown = true;
+    notifyAll();
+  }
+
+  @Override
+  public synchronized String toString() {
+    completeInterval();
+    if (mode == Mode.FIXED_RATE) {
+      return String.format("%.1f / %.1f gen/s", achievedRate, targetRate);
+    }
+    return String.format("%.1f gen/s", achievedRate);
+  }
+
+  /**
+   * Starts the thread of the scheduler if it does not exist yet.
+   */
+  private void ensureOwner() {
+    if (shutdown) {
+      throw new IllegalStateException("The scheduler has been shut down");
+    }
+    if (owner == null) {
+      owner = new Thread(this::run, "simulation");
+      owner.setDaemon(true);
+      owner.start();
+    }
+  }
+
+  /**
+   * The loop of the thread of the scheduler, which waits for the next due generation and computes
+   * it outside of the lock of the scheduler.
+   */
+  private void run() {
+    while (awaitNextStep()) {
+      try {
+        model.next();
+      } catch (RuntimeException e) {
+        stop();
+        Thread.currentThread().getUncaughtExceptionHandler()
+            .uncaughtException(Thread.currentThread(), e);
+      }
+      generationComputed();
+    }
+  }
+
+  /**
+   * Waits until a generation is due.
+   *
+   * @return <code>true</code> if a generation is due, <code>false</code> if the scheduler has been
+   *         shut down
+   */
+  private synchronized boolean awaitNextStep() {
+    while (!shutdown) {
+      if (running && mode == Mode.AS_FAST_AS_POSSIBLE) {
+        stepRequested = false;
+        return true;
+      }
+      if (running) {
+        long now = System.nanoTime();
+        if (now >= deadline) {
+          stepRequested = false;
+          deadline += period;
+          if (now >= deadline) {
+            // Drop the ticks that have been missed while the last generation was computed
+            long missed = (now - deadline) / period + 1;
+            droppedSteps += missed;
+            deadline += missed * period;
+          }
+          return true;
+        }
+        timedWait(deadline - now);
+      } else if (stepRequested) {
+        stepRequested = false;
+        return true;
+      } else {
+        timedWait(0);
+      }
+    }
+    return false;
+  }
+
+  private void timedWait(long nanos) {
+    try {
+      if (nanos > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, nanos);
+      } else {
+        wait();
+      }
+    } catch (InterruptedException e) {
+      shutdown = true;
+      running = false;
+    }
+  }
+
+  private synchronized void generationComputed() {
+    intervalGenerations++;
+    completeInterval();
+  }
+
+  /**
+   * Takes over the rate of the current interval once it has lasted a second.
+   */
+  private void completeInterval() {
+    long now = System.nanoTime();
+    if (now - intervalStart < ONE_SECOND) {
+      return;
+    }
+    achievedRate = intervalGenerations * (double) ONE_SECOND / (now - intervalStart);
+    intervalStart = now;
+    intervalGenerations = 0;
+  }
+}
@@ -0,0 +1,557 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * A Game of Life implementation for large, sparsely populated universes. Only the living cells are
+ * stored, each as a packed 64-bit coordinate in a primitive {@link LongHashSet}, and the neighbors
+ * of a generation are counted in a primitive {@link LongByteMap}. Neither the population nor the
+ * computation of a generation creates {@link Cell} objects.
+ *
+ * <p>The universe spans 2<sup>32</sup> columns and rows and wraps around at its edges, which is
+ * unbounded for any practical pattern. The grid is only a window onto it: cells that leave the
+ * window keep on living, resizing the window does not remove any cells, and the window can be
+ * moved with {@link #moveViewport(long, long)}.
+ */
+public class SparseGame implements Model {
+
+  /**
+   * Initial number of columns when the game is shown.
+   */
+  private static final int INITIAL_COLUMNS = 50;
+
+  /**
+   * Initial number of rows when the game is shown.
+   */
+  private static final int INITIAL_ROWS = 30;
+
+  private final PropertyChangeSupport support;
+
+  private long generation = 0;
+
+  private Rule rule = Rule.CONWAY;
+
+  private int columns;
+  private int rows;
+
+  // Position of the top left cell of the window in the universe
+  private int viewportColumn;
+  private int viewportRow;
+
+  // Living cells of the current and of the next generation, swapped after each generation
+  private LongHashSet population;
+  private LongHashSet nextPopulation;
+  private final LongByteMap neighborCounts;
+  private final LongConsumer countNeighbors = this::countNeighbors;
+
+  // Hash of the living cells of the universe, maintained with every change once it is requested
+  private boolean hashing;
+  private long populationHash;
+
+  // Latest published snapshot, null until getSnapshot() is called for the first time
+  private volatile GenerationSnapshot snapshot;
+  private long snapshotVersion;
+
+  /**
+   * Constructs a new game with a default size of {@link SparseGame#INITIAL_COLUMNS} and of
+   * {@link SparseGame#INITIAL_ROWS} consisting solely of dead cells.
+   */
+  public SparseGame() {
+    this(INITIAL_COLUMNS, INITIAL_ROWS);
+  }
+
+  /**
+   * Constructs a new game consisting solely of dead cells.
+   *
+   * @param columns Number of columns.
+   * @param rows    Number of rows.
+   */
+  public SparseGame(int columns, int rows) {
+    if (columns <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Number of columns and rows must be positive");
+    }
+
+    support = new PropertyChangeSupport(this);
+    this.columns = columns;
+    this.rows = rows;
+    this.population = new LongHashSet();
+    this.nextPopulation = new LongHashSet();
+    this.neighborCounts = new LongByteMap();
+  }
+
+  /**
+   * Packs the coordinates of a cell of the universe into a single value.
+   */
+  private static long pack(int x, int y) {
+    return (long) x << 32 | (y & 0xFFFFFFFFL);
+  }
+
+  private static int unpackX(long key) {
+    return (int) (key >>> 32);
+  }
+
+  private static int unpackY(long key) {
+    return (int) key;
+  }
+
+  /**
+   * Packs the coordinates of a cell of the grid, taking the viewport into account.
+   */
+  private long key(int col, int row) {
+    return pack(viewportColumn + col, viewportRow + row);
+  }
+
+  /**
+   * Checks whether the given coordinates lie within the grid.
+   *
+   * @param col x-position.
+   * @param row y-position.
+   * @throws IllegalArgumentException if the coordinates are outside of the grid
+   */
+  private void checkBounds(int col, int row) {
+    if (col < 0 || row < 0) {
+      throw new IllegalArgumentException("Number of column and row may not be negative");
+    } else if (col >= columns || row >= rows) {
+      throw new IllegalArgumentException(
+          "Parameters for column and row may not exceed the maximum number of columns and rows");
+    }
+  }
+
+  @Override
+  public synchronized boolean isCellAlive(int col, int row) {
+    checkBounds(col, row);
+    return population.contains(key(col, row));
+  }
+
+  @Override
+  public void setCellAlive(int col, int row) {
+    List<Cell> births = new ArrayList<>(1);
+    synchronized (this) {
+      checkBounds(col, row);
+      if (population.add(key(col, row))) {
+        updateHash(key(col, row));
+        births.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(births, Collections.emptyList());
+  }
+
+  @Override
+  public void setCellDead(int col, int row) {
+    List<Cell> deaths = new ArrayList<>(1);
+    synchronized (this) {
+      checkBounds(col, row);
+      if (population.remove(key(col, row))) {
+        updateHash(key(col, row));
+        deaths.add(new Cell(col, row));
+        publishSnapshot();
+      }
+    }
+    notifyListeners(Collections.emptyList(), deaths);
+  }
+
+  @Override
+  public void applyChanges(Collection<Cell> born, Collection<Cell> died) {
+    List<Cell> births = new ArrayList<>();
+    List<Cell> deaths = new ArrayList<>();
+    synchronized (this) {
+      for (Cell cell : died) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : born) {
+        checkBounds(cell.getColumn(), cell.getRow());
+      }
+      for (Cell cell : died) {
+        if (population.remove(key(cell.getColumn(), cell.getRow()))) {
+          updateHash(key(cell.getColumn(), cell.getRow()));
+          deaths.add(cell);
+        }
+      }
+      for (Cell cell : born) {
+        if (population.add(key(cell.getColumn(), cell.getRow()))) {
+          updateHash(key(cell.getColumn(), cell.getRow()));
+          births.add(cell);
+        }
+      }
+      publishSnapshot();
+    }
+    notifyListeners(births, deaths);
+  }
+
+  @Override
+  public void resize(int cols, int rows) {
+    synchronized (this) {
+      if (cols == columns && rows == this.rows) {
+        return; // nothing to do
+      }
+      this.columns = cols;
+      this.rows = rows;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public synchronized int getRows() {
+    return rows;
+  }
+
+  @Override
+  public boolean isUnbounded() {
+    return true;
+  }
+
+  @Override
+  public synchronized long getViewportColumn() {
+    return viewportColumn;
+  }
+
+  @Override
+  public synchronized long getViewportRow() {
+    return viewportRow;
+  }
+
+  @Override
+  public void moveViewport(long columns, long rows) {
+    synchronized (this) {
+      // The universe wraps around, so does the viewport
+      viewportColumn += (int) columns;
+      viewportRow += (int) rows;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public Collection<Cell> getPopulation() {
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      return current.getPopulation();
+    }
+    synchronized (this) {
+      Set<Cell> cells = new HashSet<>();
+      population.forEach(key -> {
+        Cell cell = toGridCell(key);
+        if (cell != null) {
+          cells.add(cell);
+        }
+      });
+      return cells;
+    }
+  }
+
+  @Override
+  public void forEachLiveCell(IntBiConsumer action) {
+    requireNonNull(action);
+    GenerationSnapshot current = snapshot;
+    if (current != null) {
+      current.forEachLiveCell(action);
+      return;
+    }
+    synchronized (this) {
+      population.forEach(key -> {
+        int col = unpackX(key) - viewportColumn;
+        int row = unpackY(key) - viewportRow;
+        if (col >= 0 && row >= 0 && col < columns && row < rows) {
+          action.accept(col, row);
+        }
+      });
+    }
+  }
+
+  /**
+   * Gets the number of living cells in the whole universe, including those outside of the grid.
+   *
+   * @return the population of the universe
+   */
+  public synchronized int getUniversePopulation() {
+    return population.size();
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      generation = 0;
+      population.clear();
+      populationHash = 0;
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public void next() {
+    boolean collectChanges = support.hasListeners(STATE_CHANGED);
+    List<Cell> births = collectChanges ? new ArrayList<>() : null;
+    List<Cell> deaths = collectChanges ? new ArrayList<>() : null;
+    synchronized (this) {
+      computeNext(births, deaths);
+      publishSnapshot();
+    }
+    if (collectChanges) {
+      notifyListeners(births, deaths);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The generations are computed under a single lock without collecting the changed cells, and
+   * the snapshot is published only once.
+   */
+  @Override
+  public void advance(long generations) {
+    if (generations < 0) {
+      throw new IllegalArgumentException("Number of generations may not be negative");
+    }
+    synchronized (this) {
+      for (long i = 0; i < generations; i++) {
+        computeNext(null, null);
+      }
+      publishSnapshot();
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Computes the next generation. It must be called with the lock held.
+   *
+   * @param births the list the born cells of the grid are added to, or <code>null</code>
+   * @param deaths the list the dead cells of the grid are added to, or <code>null</code>
+   */
+  private void computeNext(List<Cell> births, List<Cell> deaths) {
+    boolean trackChanges = births != null || hashing;
+    neighborCounts.clear();
+    population.forEach(countNeighbors);
+
+    nextPopulation.clear();
+    int birthMask = rule.getBirthMask();
+    int survivalMask = rule.getSurvivalMask();
+    for (int slot = 0; slot < neighborCounts.capacity(); slot++) {
+      if (!neighborCounts.isUsed(slot)) {
+        continue;
+      }
+      long key = neighborCounts.keyAt(slot);
+      int count = 1 << neighborCounts.valueAt(slot);
+      if ((birthMask & survivalMask & count) != 0) {
+        // The cell lives on whatever its state, e.g. with three neighbors in Conway's rule
+        nextPopulation.add(key);
+        if (trackChanges && !population.contains(key)) {
+          recordChange(births, key);
+        }
+      } else if ((birthMask & count) != 0) {
+        if (!population.contains(key)) {
+          nextPopulation.add(key);
+          recordChange(births, key);
+        }
+      } else if ((survivalMask & count) != 0 && population.contains(key)) {
+        nextPopulation.add(key);
+      }
+    }
+    if ((survivalMask & 1) != 0) {
+      // Living cells without any living neighbor have not been counted
+      population.forEach(key -> {
+        if (!neighborCounts.containsKey(key)) {
+          nextPopulation.add(key);
+        }
+      });
+    }
+    if (trackChanges) {
+      population.forEach(key -> {
+        if (!nextPopulation.contains(key)) {
+          recordChange(deaths, key);
+        }
+      });
+    }
+
+    LongHashSet swap = population;
+    population = nextPopulation;
+    nextPopulation = swap;
+    generation++;
+  }
+
+  /**
+   * Increments the neighbor counts of the eight cells around a living cell.
+   */
+  private void countNeighbors(long key) {
+    int x = unpackX(key);
+    int y = unpackY(key);
+    neighborCounts.increment(pack(x - 1, y - 1));
+    neighborCounts.increment(pack(x, y - 1));
+    neighborCounts.increment(pack(x + 1, y - 1));
+    neighborCounts.increment(pack(x - 1, y));
+    neighborCounts.increment(pack(x + 1, y));
+    neighborCounts.increment(pack(x - 1, y + 1));
+    neighborCounts.increment(pack(x, y + 1));
+    neighborCounts.increment(pack(x + 1, y + 1));
+  }
+
+  /**
+   * Converts a cell of the universe into a cell of the grid.
+   *
+   * @return the cell, or <code>null</code> if it lies outside of the window
+   */
+  private Cell toGridCell(long key) {
+    int col = unpackX(key) - viewportColumn;
+    int row = unpackY(key) - viewportRow;
+    if (col < 0 || row < 0 || col >= columns || row >= rows) {
+      return null;
+    }
+    return new Cell(col, row);
+  }
+
+  /**
+   * Records a cell of the universe that is born or dies in the next generation.
+   *
+   * @param cells receives the cell if it lies within the grid, or <code>null</code> if not needed
+   * @param key   the packed coordinates of the cell
+   */
+  private void recordChange(List<Cell> cells, long key) {
+    updateHash(key);
+    if (cells != null) {
+      Cell cell = toGridCell(key);
+      if (cell != null) {
+        cells.add(cell);
+      }
+    }
+  }
+
+  /**
+   * Updates the hash of the population for a cell that is born or dies.
+   *
+   * @param key the packed coordinates of the cell
+   */
+  private void updateHash(long key) {
+    if (hashing) {
+      populationHash ^= PopulationHash.cellKey(unpackX(key), unpackY(key));
+    }
+  }
+
+  @Override
+  public synchronized long getPopulationHash() {
+    if (!hashing) {
+      hashing = true;
+      populationHash = 0;
+      population.forEach(key -> populationHash ^= PopulationHash.cellKey(unpackX(key),
+          unpackY(key)));
+    }
+    return populationHash;
+  }
+
+  @Override
+  public synchronized Rule getRule() {
+    return rule;
+  }
+
+  @Override
+  public void setRule(Rule rule) {
+    synchronized (this) {
+      this.rule = requireNonNull(rule);
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public synchronized long getGenerations() {
+    return generation;
+  }
+
+  @Override
+  public String toString() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = createSnapshot();
+      }
+    }
+    return current.toString();
+  }
+
+  @Override
+  public GenerationSnapshot getSnapshot() {
+    GenerationSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          snapshot = createSnapshot();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Publishes a snapshot of the current state once snapshots have been requested. It must be called
+   * with the lock held after every change, before the listeners get notified.
+   */
+  private void publishSnapshot() {
+    if (snapshot != null) {
+      snapshot = createSnapshot();
+    }
+  }
+
+  /**
+   * Copies the current state into a new snapshot.
+   *
+   * @return the snapshot
+   */
+  private GenerationSnapshot createSnapshot() {
+    GenerationSnapshot.Builder builder = new GenerationSnapshot.Builder(columns, rows);
+    population.forEach(key -> {
+      int col = unpackX(key) - viewportColumn;
+      int row = unpackY(key) - viewportRow;
+      if (col >= 0 && row >= 0 && col < columns && row < rows) {
+        builder.setAlive(col, row);
+      }
+    });
+    return builder.build(generation, ++snapshotVersion);
+  }
+
+  @Override
+  public void addPropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.addPropertyChangeListener(pcl);
+  }
+
+  @Override
+  public void removePropertyChangeListener(PropertyChangeListener pcl) {
+    requireNonNull(pcl);
+    support.removePropertyChangeListener(pcl);
+  }
+
+  /**
+   * Invokes the model to fire a new event, such that any attached observer (i.e.,
+   * {@link PropertyChangeListener}) gets notified about a change in this model.
+   */
+  private void notifyListeners() {
+    support.firePropertyChange(STATE_CHANGED, null, this);
+  }
+
+  /**
+   * Invokes the model to fire a new {@link GenerationEvent}, such that any attached observer gets
+   * notified about the cells that have changed in this model.
+   *
+   * @param births the cells that have been set alive
+   * @param deaths the cells that have been put into a dead state
+   */
+  private void notifyListeners(List<Cell> births, List<Cell> deaths) {
+    support.firePropertyChange(new GenerationEvent(this, getGenerations(), births, deaths));
+  }
+}
@@ -0,0 +1,68 @@
+package org.sosylab.model;
+
+/**
+ * The ways in which the edges of a bounded grid are joined, i.e. which cell a neighbor just
+ * outside of the grid stands for.
+ */
+public enum Topology {
+
+  /**
+   * All cells outside of the grid are dead.
+   */
+  DEAD_EDGE,
+
+  /**
+   * The left edge is joined to the right edge and the top edge to the bottom edge, so that
+   * patterns leaving the grid on one side come back on the opposite side.
+   */
+  TORUS,
+
+  /**
+   * The left edge is joined to the right edge like on a {@link #TORUS}, the top edge is joined to
+   * the bottom edge with a twist, so that patterns leaving the grid at the top come back at the
+   * bottom mirrored from left to right.
+   */
+  KLEIN_BOTTLE,
+
+  /**
+   * The grid is mirrored at its edges, so that every cell outside of the grid has the state of the
+   * cell on the edge next to it.
+   */
+  MIRRORED;
+
+  /**
+   * Gets the cell of the grid that a cell just outside of the grid stands for.
+   *
+   * @param col     x-position, between <code>-1</code> and <code>columns</code>.
+   * @param row     y-position, between <code>-1</code> and <code>rows</code>.
+   * @param columns Number of columns of the grid.
+   * @param rows    Number of rows of the grid.
+   * @return the index <code>row * columns + col</code> of the cell of the grid, or
+   *         <code>-1</code> if the cell is dead
+   */
+  int map(int col, int row, int columns, int rows) {
+    switch (this) {
+      case TORUS -> {
+        col = Math.floorMod(col, columns);
+        row = Math.floorMod(row, rows);
+      }
+      case KLEIN_BOTTLE -> {
+        if (row < 0 || row >= rows) {
+          col = columns - 1 - col;
+          row = Math.floorMod(row, rows);
+        }
+        col = Math.floorMod(col, columns);
+      }
+      case MIRRORED -> {
+        col = Math.min(Math.max(col, 0), columns - 1);
+        row = Math.min(Math.max(row, 0), rows - 1);
+      }
+      default -> {
+        if (col < 0 || row < 0 || col >= columns || row >= rows) {
+          return -1;
+        }
+      }
+    }
+    return row * columns + col;
+  }
+}
@@ -0,0 +1,97 @@
+package org.sosylab.model;
+
+/**
+ * The eight ways of rotating and reflecting a {@link Shape}, i.e. the symmetries of a square. The
+ * rotations are clockwise.
+ */
+public enum Transform {
+
+  /**
+   * Leaves the shape as it is.
+   */
+  IDENTITY,
+
+  /**
+   * Rotates the shape by a quarter turn.
+   */
+  ROTATE_90,
+
+  /**
+   * Rotates the shape by half a turn.
+   */
+  ROTATE_180,
+
+  /**
+   * Rotates the shape by three quarter turns.
+   */
+  ROTATE_270,
+
+  /**
+   * Mirrors the shape at its vertical axis, swapping left and right.
+   */
+  FLIP_HORIZONTAL,
+
+  /**
+   * Mirrors the shape at its horizontal axis, swapping top and bottom.
+   */
+  FLIP_VERTICAL,
+
+  /**
+   * Mirrors the shape at the diagonal from its top left to its bottom right corner.
+   */
+  TRANSPOSE,
+
+  /**
+   * Mirrors the shape at the diagonal from its top right to its bottom left corner.
+   */
+  ANTI_TRANSPOSE;
+
+  /**
+   * Checks whether the transform turns the columns of a shape into its rows.
+   *
+   * @return <code>true</code> if the dimensions of the shape are swapped, <code>false</code>
+   *         otherwise.
+   */
+  public boolean swapsDimensions() {
+    return switch (this) {
+      case ROTATE_90, ROTATE_270, TRANSPOSE, ANTI_TRANSPOSE -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Gets the column a cell is moved to.
+   *
+   * @param col     x-position of the cell in the original shape.
+   * @param row     y-position of the cell in the original shape.
+   * @param columns Number of columns of the original shape.
+   * @param rows    Number of rows of the original shape.
+   * @return x-position of the cell in the transformed shape.
+   */
+  int column(int col, int row, int columns, int rows) {
+    return switch (this) {
+      case IDENTITY, FLIP_VERTICAL -> col;
+      case ROTATE_180, FLIP_HORIZONTAL -> columns - 1 - col;
+      case ROTATE_90, ANTI_TRANSPOSE -> rows - 1 - row;
+      case ROTATE_270, TRANSPOSE -> row;
+    };
+  }
+
+  /**
+   * Gets the row a cell is moved to.
+   *
+   * @param col     x-position of the cell in the original shape.
+   * @param row     y-position of the cell in the original shape.
+   * @param columns Number of columns of the original shape.
+   * @param rows    Number of rows of the original shape.
+   * @return y-position of the cell in the transformed shape.
+   */
+  int row(int col, int row, int columns, int rows) {
+    return switch (this) {
+      case IDENTITY, FLIP_HORIZONTAL -> row;
+      case ROTATE_180, FLIP_VERTICAL -> rows - 1 - row;
+      case ROTATE_90, TRANSPOSE -> col;
+      case ROTATE_270, ANTI_TRANSPOSE -> columns - 1 - col;
+    };
+  }
+}
@@ -0,0 +1,168 @@
+package org.sosylab.model;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Computes the words of a row of a {@link BitGridGame} with the Vector API, as many words at once
+ * as the preferred vectors of the processor hold, e.g. four with AVX2 and eight with AVX-512.
+ *
+ * <p>The class must only be loaded if the module <code>jdk.incubator.vector</code> has been
+ * added to the JVM, see {@link BitGridGame#isVectorApiAvailable()}.
+ */
+final class VectorRows {
+
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+  private VectorRows() {
+  }
+
+  /**
+   * Gets the number of words that are computed at once.
+   *
+   * @return the number of lanes of the preferred vectors
+   */
+  static int lanes() {
+    return SPECIES.length();
+  }
+
+  /**
+   * Computes the next generation of whole vectors of words of a row, starting with the given word.
+   * The words before and after each vector are read for the neighbors in the western and eastern
+   * column, so the first word must not be the first word of the row, and the words are only
+   * computed up to the last word of the row, exclusive.
+   *
+   * @param cells     the current generation, framed by the halo rows
+   * @param nextCells receives the next generation
+   * @param above     index of the first word of the row above
+   * @param middle    index of the first word of the row
+   * @param below     index of the first word of the row below
+   * @param from      the first word to compute, at least <code>1</code>
+   * @param to        the word of the row up to which vectors are computed, exclusive, at most the
+   *                  last word of the row
+   * @param circuit   the rule reduced to a circuit, or <code>null</code> for Conway's rule
+   * @return the first word that has not been computed
+   */
+  static int computeWords(long[] cells, long[] nextCells, int above, int middle, int below,
+      int from, int to, RuleCircuit circuit) {
+    int w = from;
+    for (; w + SPECIES.length() <= to; w += SPECIES.length()) {
+      LongVector a = LongVector.fromArray(SPECIES, cells, above + w);
+      LongVector b = LongVector.fromArray(SPECIES, cells, middle + w);
+      LongVector c = LongVector.fromArray(SPECIES, cells, below + w);
+
+      // Neighbors in the western and eastern column, including the bits of the adjacent words
+      LongVector aw = west(a, LongVector.fromArray(SPECIES, cells, above + w - 1));
+      LongVector ae = east(a, LongVector.fromArray(SPECIES, cells, above + w + 1));
+      LongVector bw = west(b, LongVector.fromArray(SPECIES, cells, middle + w - 1));
+      LongVector be = east(b, LongVector.fromArray(SPECIES, cells, middle + w + 1));
+      LongVector cw = west(c, LongVector.fromArray(SPECIES, cells, below + w - 1));
+      LongVector ce = east(c, LongVector.fromArray(SPECIES, cells, below + w + 1));
+
+      // Sum of each row of neighbors (full adder above and below, half adder in the middle)
+      LongVector aboveOnes = aw.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.XOR, ae);
+      LongVector aboveTwos = aw.and(a).or(ae.and(aw.lanewise(VectorOperators.XOR, a)));
+      LongVector middleOnes = bw.lanewise(VectorOperators.XOR, be);
+      LongVector middleTwos = bw.and(be);
+      LongVector belowOnes = cw.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.XOR, ce);
+      LongVector belowTwos = cw.and(c).or(ce.and(cw.lanewise(VectorOperators.XOR, c)));
+
+      // Sum of the rows into the four bits of the neighbor count
+      LongVector onesSum = aboveOnes.lanewise(VectorOperators.XOR, middleOnes);
+      LongVector count1 = onesSum.lanewise(VectorOperators.XOR, belowOnes);
+      LongVector onesCarry = aboveOnes.and(middleOnes).or(belowOnes.and(onesSum));
+      LongVector twosSum = aboveTwos.lanewise(VectorOperators.XOR, middleTwos);
+      LongVector twos = twosSum.lanewise(VectorOperators.XOR, belowTwos);
+      LongVector twosCarry = aboveTwos.and(middleTwos).or(belowTwos.and(twosSum));
+      LongVector count2 = twos.lanewise(VectorOperators.XOR, onesCarry);
+      LongVector fours = twos.and(onesCarry);
+      LongVector count4 = twosCarry.lanewise(VectorOperators.XOR, fours);
+      LongVector count8 = twosCarry.and(fours);
+
+      LongVector next;
+      if (circuit == null) {
+        // Alive with two or three neighbors, or dead with exactly three neighbors
+        next = count2.and(count4.or(count8).not()).and(count1.or(b));
+      } else {
+        next = applyRule(b, count1, count2, count4, count8, circuit);
+      }
+      next.intoArray(nextCells, middle + w);
+    }
+    return w;
+  }
+
+  /**
+   * Shifts the cells of a vector of words by one column to the east, so that every bit holds its
+   * western neighbor.
+   *
+   * @param words    the words
+   * @param previous the words before each of them
+   * @return the western neighbors of the cells
+   */
+  private static LongVector west(LongVector words, LongVector previous) {
+    return words.lanewise(VectorOperators.LSHL, 1)
+        .or(previous.lanewise(VectorOperators.LSHR, Long.SIZE - 1));
+  }
+
+  /**
+   * Shifts the cells of a vector of words by one column to the west, so that every bit holds its
+   * eastern neighbor.
+   *
+   * @param words the words
+   * @param next  the words after each of them
+   * @return the eastern neighbors of the cells
+   */
+  private static LongVector east(LongVector words, LongVector next) {
+    return words.lanewise(VectorOperators.LSHR, 1)
+        .or(next.lanewise(VectorOperators.LSHL, Long.SIZE - 1));
+  }
+
+  /**
+   * Applies a rule other than Conway's to a vector of words with the same circuit as the scalar
+   * code, see {@link RuleCircuit}.
+   *
+   * @param alive   the cells
+   * @param count1  bit 0 of the neighbor counts of the cells
+   * @param count2  bit 1 of the neighbor counts of the cells
+   * @param count4  bit 2 of the neighbor counts of the cells
+   * @param count8  bit 3 of the neighbor counts of the cells
+   * @param circuit the rule reduced to a circuit
+   * @return the cells in the next generation
+   */
+  private static LongVector applyRule(LongVector alive, LongVector count1, LongVector count2,
+      LongVector count4, LongVector count8, RuleCircuit circuit) {
+    LongVector pair0 = pair(alive, count1, circuit.born0, circuit.flip0, circuit.bornDiff0,
+        circuit.flipDiff0);
+    LongVector pair2 = pair(alive, count1, circuit.born2, circuit.flip2, circuit.bornDiff2,
+        circuit.flipDiff2);
+    LongVector pair4 = pair(alive, count1, circuit.born4, circuit.flip4, circuit.bornDiff4,
+        circuit.flipDiff4);
+    LongVector pair6 = pair(alive, count1, circuit.born6, circuit.flip6, circuit.bornDiff6,
+        circuit.flipDiff6);
+    LongVector low = select(count2, pair0, pair2);
+    LongVector high = select(count2, pair4, pair6);
+    LongVector next = select(count4, low, high);
+    LongVector eight = alive.and(circuit.flip8).lanewise(VectorOperators.XOR, circuit.born8);
+    return select(count8, next, eight);
+  }
+
+  /**
+   * Computes the leaves of a pair of counts and selects one of them by bit 0 of the count.
+   */
+  private static LongVector pair(LongVector alive, LongVector count1, long born, long flip,
+      long bornDiff, long flipDiff) {
+    LongVector even = alive.and(flip).lanewise(VectorOperators.XOR, born);
+    LongVector diff = alive.and(flipDiff).lanewise(VectorOperators.XOR, bornDiff);
+    return even.lanewise(VectorOperators.XOR, count1.and(diff));
+  }
+
+  /**
+   * Selects the bits of <code>ifSet</code> where the selector is set and those of
+   * <code>ifClear</code> elsewhere.
+   */
+  private static LongVector select(LongVector selector, LongVector ifClear, LongVector ifSet) {
+    return ifClear.lanewise(VectorOperators.XOR,
+        selector.and(ifClear.lanewise(VectorOperators.XOR, ifSet)));
+  }
+}
@@ -0,0 +1,120 @@
+package org.sosylab.remote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import org.sosylab.model.GenerationSnapshot;
+
+/**
+ * Encodes the frames that a {@link ModelServer} streams to its viewers, in the format described
+ * there. A frame carries either the whole grid or only the words of packed cells that have changed
+ * since the frame before, whichever is smaller. The buffer of the frames is reused, so every viewer
+ * needs its own encoder.
+ */
+final class DeltaFrames {
+
+  /**
+   * The type of a frame that holds all words of the grid.
+   */
+  static final byte KEY_FRAME = 0;
+
+  /**
+   * The type of a frame that holds the changed words only.
+   */
+  static final byte DELTA_FRAME = 1;
+
+  /**
+   * The size of the header in bytes, including the length of the frame.
+   */
+  static final int HEADER_SIZE = 25;
+
+  private static final int DELTA_WORD_SIZE = Integer.BYTES + Long.BYTES;
+
+  private ByteBuffer buffer = allocate(1024);
+
+  /**
+   * Writes the frame that brings a viewer from one snapshot to another. It is a delta frame if the
+   * viewer has a grid of the same size and the delta is smaller than the whole grid, and a key
+   * frame otherwise.
+   *
+   * @param output   the stream the frame is written to, which is not flushed
+   * @param previous the snapshot of the frame before, or <code>null</code> for the first frame
+   * @param current  the snapshot to send
+   * @throws IOException if the frame cannot be written
+   */
+  void write(OutputStream output, GenerationSnapshot previous, GenerationSnapshot current)
+      throws IOException {
+    LongBuffer words = current.getWords();
+    int size = words.remaining();
+    if (previous == null || previous.getColumns() != current.getColumns()
+        || previous.getRows() != current.getRows()) {
+      writeKeyFrame(current, words, size);
+    } else {
+      LongBuffer previousWords = previous.getWords();
+      int changed = 0;
+      for (int i = 0; i < size; i++) {
+        if (words.get(i) != previousWords.get(i)) {
+          changed++;
+        }
+      }
+      if ((long) changed * DELTA_WORD_SIZE < (long) size * Long.BYTES) {
+        writeDeltaFrame(current, words, previousWords, size, changed);
+      } else {
+        writeKeyFrame(current, words, size);
+      }
+    }
+    output.write(buffer.array(), 0, buffer.position());
+  }
+
+  private void writeKeyFrame(GenerationSnapshot current, LongBuffer words, int size) {
+    startFrame(KEY_FRAME, current, size, (long) size * Long.BYTES);
+    for (int i = 0; i < size; i++) {
+      buffer.putLong(words.get(i));
+    }
+  }
+
+  private void writeDeltaFrame(GenerationSnapshot current, LongBuffer words,
+      LongBuffer previousWords, int size, int changed) {
+    startFrame(DELTA_FRAME, current, changed, (long) changed * DELTA_WORD_SIZE);
+    for (int i = 0; i < size; i++) {
+      long delta = words.get(i) ^ previousWords.get(i);
+      if (delta != 0) {
+        buffer.putInt(i);
+        buffer.putLong(delta);
+      }
+    }
+  }
+
+  /**
+   * Clears the buffer, grows it if the frame does not fit and writes the header.
+   *
+   * @param type     the type of the frame.
+   * @param current  the snapshot to send.
+   * @param count    the number of words that follow.
+   * @param bodySize the size of these words in bytes.
+   * @throws IllegalArgumentException if the frame is too large
+   */
+  private void startFrame(byte type, GenerationSnapshot current, int count, long bodySize) {
+    long frameSize = HEADER_SIZE + bodySize;
+    if (frameSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The grid is too large to be streamed");
+    }
+    if (frameSize > buffer.capacity()) {
+      buffer = allocate((int) Math.min(Integer.MAX_VALUE, Math.max(frameSize,
+          buffer.capacity() * 3L / 2)));
+    }
+    buffer.clear();
+    buffer.putInt((int) frameSize - Integer.BYTES);
+    buffer.put(type);
+    buffer.putInt(current.getColumns());
+    buffer.putInt(current.getRows());
+    buffer.putLong(current.getGeneration());
+    buffer.putInt(count);
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
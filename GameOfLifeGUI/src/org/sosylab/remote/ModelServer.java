@@ -0,0 +1,551 @@
+package org.sosylab.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.beans.PropertyChangeListener;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serial;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosylab.io.PatternReader;
+import org.sosylab.model.Cell;
+import org.sosylab.model.GenerationSnapshot;
+import org.sosylab.model.Model;
+import org.sosylab.model.Shape;
+import org.sosylab.model.Shapes;
+import org.sosylab.model.Transform;
+
+/**
+ * Serves a {@link Model} over HTTP, so that it can be watched and controlled from another host,
+ * e.g. while the simulation runs on a compute node without a display. The server is built on the
+ * HTTP server of the JDK and needs no further libraries.
+ *
+ * <p>The following requests are answered with the state of the model as a JSON object, or with
+ * status 400 and the reason as plain text if the request is not valid:
+ *
+ * <ul>
+ * <li><code>GET /state</code> only returns the state,</li>
+ * <li><code>POST /step?generations=n</code> computes the given number of generations, one by
+ * default and at most {@link #MAX_STEP_GENERATIONS},</li>
+ * <li><code>POST /resize?columns=c&amp;rows=r</code> resizes the grid,</li>
+ * <li><code>POST /cells?alive=true</code> sets cells alive, or dead with <code>false</code>; the
+ * body holds a column and a row per line,</li>
+ * <li><code>POST /shape?name=glider&amp;col=c&amp;row=r&amp;transform=ROTATE_90</code> stamps a
+ * shape of {@link Shapes}; instead of a name, <code>format=rle</code> or
+ * <code>format=cells</code> stamps the pattern in the body. The position is zero and the
+ * transform is <code>IDENTITY</code> by default.</li>
+ * </ul>
+ *
+ * <p><code>GET /stream</code> answers with an endless stream of binary frames, one after every
+ * change of the model. The server listens to the {@linkplain Model#addPropertyChangeListener(
+ * PropertyChangeListener) change events} of the model and passes its latest
+ * {@linkplain Model#getSnapshot() snapshot} to every viewer without blocking. Each viewer has a
+ * queue of {@link #FRAME_QUEUE_CAPACITY} snapshots and its own thread, which encodes and sends
+ * them; if a viewer cannot keep up, the oldest snapshots are dropped, so that a slow viewer never
+ * holds up the computation of generations or the other viewers.
+ *
+ * <p>All numbers of a frame are stored in little-endian byte order. Every frame starts with a
+ * header:
+ *
+ * <ol>
+ * <li>the length of the rest of the frame in bytes, an <code>int</code>,</li>
+ * <li>the type of the frame, a <code>byte</code>: <code>0</code> for a key frame,
+ * <code>1</code> for a delta frame,</li>
+ * <li>the number of columns and of rows, an <code>int</code> each,</li>
+ * <li>the generation, a <code>long</code>,</li>
+ * <li>the number of words that follow, an <code>int</code>.</li>
+ * </ol>
+ *
+ * <p>A key frame continues with all words of the grid in the layout of
+ * {@link GenerationSnapshot}: every row is a sequence of
+ * {@linkplain GenerationSnapshot#wordsPerRow(int) words}, in which bit <code>i</code> of word
+ * <code>w</code> holds the cell in column <code>64 * w + i</code>. A delta frame continues with
+ * the words that have changed since the frame before, each as its index, an <code>int</code>, and
+ * the exclusive or of its old and its new value, a <code>long</code>. The first frame and the
+ * frame after the grid has been resized are key frames.
+ */
+public class ModelServer implements AutoCloseable {
+
+  /**
+   * The number of snapshots that a viewer can fall behind before the oldest one is dropped.
+   */
+  public static final int FRAME_QUEUE_CAPACITY = 4;
+
+  /**
+   * The number of viewers that can watch at once unless another limit is given.
+   */
+  public static final int DEFAULT_MAX_VIEWERS = 16;
+
+  /**
+   * The most generations that a single request to <code>/step</code> may compute. The request is
+   * answered only after all of them, so larger numbers would occupy a thread of the server for an
+   * unbounded time; a client that needs more sends several requests.
+   */
+  public static final long MAX_STEP_GENERATIONS = 100_000;
+
+  private static final long POLL_MILLIS = 100;
+
+  private final Model model;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final int maxViewers;
+  private final List<Viewer> viewers = new CopyOnWriteArrayList<>();
+  private final LongAdder sentFrames = new LongAdder();
+  private final LongAdder droppedFrames = new LongAdder();
+  private final PropertyChangeListener listener = event -> publish();
+  private volatile boolean stopped;
+
+  /**
+   * Constructs a new server that listens on the loopback interface only, so that other hosts can
+   * reach it through a tunnel, e.g. <code>ssh -L</code>.
+   *
+   * @param model the model to serve.
+   * @param port  the port, or <code>0</code> for any free port, see {@link #getPort()}.
+   * @throws IOException if the port cannot be bound
+   */
+  public ModelServer(Model model, int port) throws IOException {
+    this(model, new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+        DEFAULT_MAX_VIEWERS);
+  }
+
+  /**
+   * Constructs a new server.
+   *
+   * @param model      the model to serve.
+   * @param address    the address to listen on.
+   * @param maxViewers the number of viewers that can watch at once.
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if the number of viewers is not positive
+   */
+  public ModelServer(Model model, InetSocketAddress address, int maxViewers) throws IOException {
+    if (maxViewers <= 0) {
+      throw new IllegalArgumentException("Number of viewers must be positive");
+    }
+    this.model = requireNonNull(model);
+    this.maxViewers = maxViewers;
+    server = HttpServer.create(requireNonNull(address), 0);
+    AtomicInteger count = new AtomicInteger();
+    executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "model-server-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.createContext("/", exchange -> handle(exchange, this::route));
+  }
+
+  /**
+   * Starts answering requests and listening to the model.
+   */
+  public void start() {
+    model.addPropertyChangeListener(listener);
+    server.start();
+  }
+
+  /**
+   * Stops the server and ends the streams of all viewers.
+   */
+  public void stop() {
+    stopped = true;
+    model.removePropertyChangeListener(listener);
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Stops the server, see {@link #stop()}.
+   */
+  @Override
+  public void close() {
+    stop();
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Gets the number of viewers that are watching the stream.
+   *
+   * @return the viewers
+   */
+  public int getViewers() {
+    return viewers.size();
+  }
+
+  /**
+   * Gets the number of frames that have been sent to all viewers together.
+   *
+   * @return the sent frames
+   */
+  public long getSentFrames() {
+    return sentFrames.sum();
+  }
+
+  /**
+   * Gets the number of snapshots that have been dropped because a viewer could not keep up.
+   *
+   * @return the dropped frames
+   */
+  public long getDroppedFrames() {
+    return droppedFrames.sum();
+  }
+
+  /**
+   * Passes the current snapshot to every viewer. It is called on the thread that changed the
+   * model, so it must never block.
+   */
+  private void publish() {
+    if (viewers.isEmpty()) {
+      return;
+    }
+    GenerationSnapshot snapshot = model.getSnapshot();
+    for (Viewer viewer : viewers) {
+      viewer.offer(snapshot);
+    }
+  }
+
+  private void route(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+    switch (path) {
+      case "/state" -> {
+        requireMethod(exchange, "GET");
+      }
+      case "/step" -> {
+        requireMethod(exchange, "POST");
+        long generations = parseLong(parameters, "generations", 1L);
+        if (generations > MAX_STEP_GENERATIONS) {
+          throw new IllegalArgumentException(
+              "The parameter generations may not exceed " + MAX_STEP_GENERATIONS);
+        }
+        model.advance(generations);
+      }
+      case "/resize" -> {
+        requireMethod(exchange, "POST");
+        model.resize(parseInt(parameters, "columns", null), parseInt(parameters, "rows", null));
+      }
+      case "/cells" -> {
+        requireMethod(exchange, "POST");
+        setCells(exchange, parameters);
+      }
+      case "/shape" -> {
+        requireMethod(exchange, "POST");
+        stampShape(exchange, parameters);
+      }
+      case "/stream" -> {
+        requireMethod(exchange, "GET");
+        stream(exchange);
+        return;
+      }
+      default -> {
+        respond(exchange, 404, "The resource does not exist");
+        return;
+      }
+    }
+    respondWithState(exchange);
+  }
+
+  private void setCells(HttpExchange exchange, Map<String, String> parameters)
+      throws IOException {
+    String alive = parameters.getOrDefault("alive", "true");
+    if (!alive.equals("true") && !alive.equals("false")) {
+      throw new IllegalArgumentException("The parameter alive must be true or false");
+    }
+    List<Cell> cells = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.strip();
+        if (!line.isEmpty()) {
+          String[] coordinates = line.split("\\s+");
+          if (coordinates.length != 2) {
+            throw new IllegalArgumentException("Every line must hold a column and a row");
+          }
+          cells.add(new Cell(parseCoordinate(coordinates[0]), parseCoordinate(coordinates[1])));
+        }
+      }
+    }
+    if (alive.equals("true")) {
+      model.applyChanges(cells, Collections.emptyList());
+    } else {
+      model.applyChanges(Collections.emptyList(), cells);
+    }
+  }
+
+  private void stampShape(HttpExchange exchange, Map<String, String> parameters)
+      throws IOException {
+    Shape shape;
+    String name = parameters.get("name");
+    if (name != null) {
+      shape = Shapes.getShapeByName(name.toLowerCase(Locale.ROOT));
+      if (shape == null) {
+        throw new IllegalArgumentException("The shape is not recognized");
+      }
+    } else {
+      String format = parameters.get("format");
+      if (format == null) {
+        throw new IllegalArgumentException("Either the parameter name or format is required");
+      }
+      Shape.Builder builder = new Shape.Builder();
+      try (Reader reader = new InputStreamReader(exchange.getRequestBody(),
+          StandardCharsets.UTF_8)) {
+        PatternReader.read(format, reader, builder);
+      }
+      shape = builder.build(format, 1, 1);
+    }
+    Transform transform;
+    try {
+      transform = Transform.valueOf(
+          parameters.getOrDefault("transform", "IDENTITY").toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("The transform is not recognized");
+    }
+    model.stamp(shape, parseInt(parameters, "col", 0), parseInt(parameters, "row", 0), transform);
+  }
+
+  /**
+   * Sends frames to a viewer until it disconnects or the server is stopped.
+   *
+   * @param exchange the request of the viewer.
+   * @throws IOException if the response cannot be started
+   */
+  private void stream(HttpExchange exchange) throws IOException {
+    Viewer viewer = new Viewer();
+    synchronized (viewers) {
+      if (viewers.size() >= maxViewers) {
+        respond(exchange, 503, "Too many viewers");
+        return;
+      }
+      viewers.add(viewer);
+    }
+    try {
+      viewer.offer(model.getSnapshot());
+      exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+      exchange.getResponseHeaders().set("Cache-Control", "no-store");
+      exchange.sendResponseHeaders(200, 0);
+      try (OutputStream body = exchange.getResponseBody()) {
+        viewer.sendFrames(body);
+      } catch (IOException e) {
+        // The viewer has disconnected
+      } catch (IllegalArgumentException e) {
+        // The grid has grown too large to be streamed; the status has been sent already, so the
+        // response just ends
+      }
+    } finally {
+      viewers.remove(viewer);
+    }
+  }
+
+  private void respondWithState(HttpExchange exchange) throws IOException {
+    GenerationSnapshot snapshot = model.getSnapshot();
+    LongBuffer words = snapshot.getWords();
+    long population = 0;
+    while (words.hasRemaining()) {
+      population += Long.bitCount(words.get());
+    }
+    String state = String.format(Locale.ROOT,
+        "{\"columns\":%d,\"rows\":%d,\"generation\":%d,\"population\":%d,\"rule\":\"%s\","
+            + "\"topology\":\"%s\",\"viewers\":%d}",
+        snapshot.getColumns(), snapshot.getRows(), snapshot.getGeneration(), population,
+        model.getRule(), model.getTopology().name(), viewers.size());
+    respond(exchange, 200, "application/json", state);
+  }
+
+  /**
+   * Runs the action of a request and answers with status 400 if the request is not valid.
+   *
+   * @param exchange the request.
+   * @param action   the action.
+   * @throws IOException if the response cannot be sent
+   */
+  private static void handle(HttpExchange exchange, RequestAction action) throws IOException {
+    try {
+      action.run(exchange);
+    } catch (IllegalArgumentException | UnsupportedOperationException e) {
+      respond(exchange, 400, e.getMessage());
+    } catch (MethodNotAllowedException e) {
+      exchange.getResponseHeaders().set("Allow", e.getMessage());
+      respond(exchange, 405, "The method is not allowed");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void requireMethod(HttpExchange exchange, String method) {
+    if (!exchange.getRequestMethod().equals(method)) {
+      throw new MethodNotAllowedException(method);
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String message)
+      throws IOException {
+    respond(exchange, status, "text/plain; charset=utf-8", message);
+  }
+
+  private static void respond(HttpExchange exchange, int status, String contentType, String body)
+      throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+  private static Map<String, String> parseQuery(String query) {
+    Map<String, String> parameters = new HashMap<>();
+    if (query != null) {
+      for (String pair : query.split("&")) {
+        int separator = pair.indexOf('=');
+        if (separator > 0) {
+          parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+              URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return parameters;
+  }
+
+  /**
+   * Gets a number from the parameters of a request.
+   *
+   * @param parameters   the parameters.
+   * @param name         the name of the parameter.
+   * @param defaultValue the value if the parameter is missing, or <code>null</code> if it is
+   *                     required.
+   * @return the number
+   * @throws IllegalArgumentException if the parameter is required but missing or not a number
+   */
+  private static int parseInt(Map<String, String> parameters, String name, Integer defaultValue) {
+    long value = parseLong(parameters, name,
+        defaultValue == null ? null : defaultValue.longValue());
+    if (value != (int) value) {
+      throw new IllegalArgumentException("The parameter " + name + " is out of range");
+    }
+    return (int) value;
+  }
+
+  private static long parseLong(Map<String, String> parameters, String name, Long defaultValue) {
+    String value = parameters.get(name);
+    if (value == null) {
+      if (defaultValue == null) {
+        throw new IllegalArgumentException("The parameter " + name + " is missing");
+      }
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The parameter " + name + " must be a number");
+    }
+  }
+
+  private static int parseCoordinate(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The coordinates must be numbers");
+    }
+  }
+
+  /**
+   * The handling of a request, which may throw an {@link IOException}.
+   */
+  @FunctionalInterface
+  private interface RequestAction {
+
+    void run(HttpExchange exchange) throws IOException;
+  }
+
+  /**
+   * Thrown if a resource is requested with the wrong method; the message is the allowed method.
+   */
+  private static final class MethodNotAllowedException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private MethodNotAllowedException(String allowedMethod) {
+      super(allowedMethod);
+    }
+  }
+
+  /**
+   * A viewer of the stream and the snapshots that have not been sent to it yet.
+   */
+  private final class Viewer {
+
+    private final BlockingQueue<GenerationSnapshot> snapshots =
+        new ArrayBlockingQueue<>(FRAME_QUEUE_CAPACITY);
+
+    /**
+     * Queues a snapshot, dropping the oldest ones if the queue is full.
+     *
+     * @param snapshot the snapshot.
+     */
+    private void offer(GenerationSnapshot snapshot) {
+      while (!snapshots.offer(snapshot)) {
+        if (snapshots.poll() != null) {
+          droppedFrames.increment();
+        }
+      }
+    }
+
+    /**
+     * Encodes and sends the queued snapshots until the server is stopped. Each frame holds the
+     * changes since the frame sent before, so dropped snapshots are caught up with.
+     *
+     * @param body the stream of the response.
+     * @throws IOException if the viewer has disconnected
+     */
+    private void sendFrames(OutputStream body) throws IOException {
+      DeltaFrames frames = new DeltaFrames();
+      GenerationSnapshot sent = null;
+      try {
+        while (!stopped) {
+          GenerationSnapshot snapshot = snapshots.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          // Concurrent changes of the model may queue their snapshots out of order
+          if (snapshot == null || sent != null && snapshot.getVersion() < sent.getVersion()) {
+            continue;
+          }
+          frames.write(body, sent, snapshot);
+          body.flush();
+          sentFrames.increment();
+          sent = snapshot;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package org.sosylab.view;
 
 import org.sosylab.model.Shape;
+import org.sosylab.model.SimulationScheduler;
+import org.sosylab.model.Topology;
 
 
 /**
@@ -53,6 +55,37 @@ public interface Controller {
    */
   void setStepSpeed(int value);
 
+  /**
+   * Get the scheduler that computes the generations, e.g. to show its achieved rate.
+   *
+   * @return The scheduler of the simulation.
+   */
+  SimulationScheduler getScheduler();
+
+  /**
+   * Let the simulation compute its generations as fast as possible instead of at the step speed.
+   * The view still shows at most one generation per frame of the display.
+   *
+   * @param turbo <code>true</code> to ignore the step speed, <code>false</code> to obey it.
+   */
+  void setTurbo(boolean turbo);
+
+  /**
+   * Change the rule by which the generations are computed. Rules that are not recognized are
+   * reported to the user.
+   *
+   * @param rule The rule in B/S notation, e.g. <code>B36/S23</code>.
+   */
+  void setRule(String rule);
+
+  /**
+   * Change the way in which the edges of the board are joined. Boards of an unbounded universe
+   * have no edges, which is reported to the user.
+   *
+   * @param topology The new topology.
+   */
+  void setTopology(Topology topology);
+
   /**
    * Start the simulation until {@link #stopStepping()} gets called.
    */
@@ -79,6 +112,14 @@ public interface Controller {
    */
   void resize(int width, int height);
 
+  /**
+   * Move the board over an unbounded universe. Boards of a bounded universe ignore the request.
+   *
+   * @param columns Number of columns to move to the right, negative to move to the left.
+   * @param rows    Number of rows to move down, negative to move up.
+   */
+  void moveViewport(int columns, int rows);
+
   /**
    * Dispose of any remaining resources.
    */
@@ -4,17 +4,38 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.Serial;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import org.sosylab.model.Cell;
+import org.sosylab.model.GenerationSnapshot;
 import org.sosylab.model.Model;
 
 /**
  * The draw board displays the grid of cells of the game in current state. The state of cells is
  * indicated by color. The color {@link #dead} means a dead cell. The color {@link #alive} means a
  * living cell.
+ *
+ * <p>The board can be rendered in two modes. In the mode <code>"cells"</code> each visible cell is
+ * painted with its own rectangle. In the mode <code>"image"</code> the board is kept in an
+ * <code>int[]</code>-backed {@link BufferedImage} that is updated with the changed cells only and
+ * copied onto the screen with a single <code>drawImage</code> call.
+ *
+ * <p>Both modes read the cells from the latest {@link GenerationSnapshot} of the model, so that
+ * painting never waits for the computation of a generation.
+ *
+ * <p>If the model is a window onto an unbounded universe, dragging with the right mouse button
+ * moves the window over the universe.
  */
 public class DrawBoard extends JPanel {
 
@@ -25,6 +46,11 @@ public class DrawBoard extends JPanel {
   private static final int MEDIUM_SIZE = 20;
   private static final int SMALL_SIZE = 10;
   static final int BORDER_SIZE = 1;
+
+  /**
+   * The width and height in cells of the tiles whose changed cells are repainted together.
+   */
+  static final int REPAINT_TILE_SIZE = 16;
   private static final Color background = Color.LIGHT_GRAY;
   private static final Color dead = Color.GRAY;
   private static final Color alive = Color.CYAN;
@@ -34,6 +60,19 @@ public class DrawBoard extends JPanel {
   private final Controller controller;
   boolean isToSetAlive;
 
+  // Cell under the mouse while the viewport is dragged, null if no drag is in progress
+  private Point panOrigin;
+
+  private String renderMode;
+  private final RenderStatistics renderStatistics;
+
+  // Back buffer of the image mode and the dimensions it has been rendered for
+  private BufferedImage image;
+  private int[] pixels;
+  private int imageColumns;
+  private int imageRows;
+  private int imageCellSize;
+
   /**
    * Constructs a new draw board on the window.
    */
@@ -41,6 +80,8 @@ public class DrawBoard extends JPanel {
     this.model = model;
     this.controller = controller;
     cellSize = BIG_SIZE;  // default
+    renderMode = "cells";  // default
+    renderStatistics = new RenderStatistics();
     createDrawEventListeners();
     adjustPreferredSize();
   }
@@ -57,15 +98,42 @@ public class DrawBoard extends JPanel {
 
   @Override
   protected void paintComponent(Graphics g) {
+    long start = System.nanoTime();
+    if (renderMode.equals("image")) {
+      paintImage(g);
+    } else {
+      paintCells(g);
+    }
+    renderStatistics.frameRendered(System.nanoTime() - start);
+  }
+
+  /**
+   * Paints the cells that intersect the clip of the graphics context one by one.
+   *
+   * @param g the graphics context to paint on
+   */
+  private void paintCells(Graphics g) {
+    GenerationSnapshot snapshot = model.getSnapshot();
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
     g.setColor(background);
-    g.fillRect(0, 0, getWidth(), getHeight());
+    g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+    // Only the cells that intersect the clip need to be painted
+    int step = cellSize + BORDER_SIZE;
+    int firstCol = Math.max(0, (clip.x - BORDER_SIZE) / step);
+    int firstRow = Math.max(0, (clip.y - BORDER_SIZE) / step);
+    int lastCol = Math.min(snapshot.getColumns() - 1, (clip.x + clip.width - 1) / step);
+    int lastRow = Math.min(snapshot.getRows() - 1, (clip.y + clip.height - 1) / step);
 
     int positionX;
-    int positionY = BORDER_SIZE;
-    for (int row = 0; row < model.getRows(); row++) {
-      positionX = BORDER_SIZE;
-      for (int col = 0; col < model.getColumns(); col++) {
-        if (this.model.isCellAlive(col, row)) {
+    int positionY = BORDER_SIZE + firstRow * step;
+    for (int row = firstRow; row <= lastRow; row++) {
+      positionX = BORDER_SIZE + firstCol * step;
+      for (int col = firstCol; col <= lastCol; col++) {
+        if (snapshot.isCellAlive(col, row)) {
           g.setColor(alive);
         } else {
           g.setColor(dead);
@@ -77,6 +145,110 @@ public class DrawBoard extends JPanel {
     }
   }
 
+  /**
+   * Copies the back buffer onto the graphics context, rendering it from scratch if it does not
+   * match the current dimensions of the board.
+   *
+   * @param g the graphics context to paint on
+   */
+  private void paintImage(Graphics g) {
+    GenerationSnapshot snapshot = model.getSnapshot();
+    if (image == null || imageColumns != snapshot.getColumns()
+        || imageRows != snapshot.getRows() || imageCellSize != cellSize) {
+      renderImage(snapshot);
+    }
+    g.setColor(background);
+    g.fillRect(0, 0, getWidth(), getHeight());
+    g.drawImage(image, 0, 0, null);
+  }
+
+  /**
+   * Renders the whole board into a new back buffer.
+   *
+   * @param snapshot the state of the board to render
+   */
+  private void renderImage(GenerationSnapshot snapshot) {
+    imageColumns = snapshot.getColumns();
+    imageRows = snapshot.getRows();
+    imageCellSize = cellSize;
+    int step = cellSize + BORDER_SIZE;
+    image = new BufferedImage(BORDER_SIZE + step * imageColumns, BORDER_SIZE + step * imageRows,
+        BufferedImage.TYPE_INT_RGB);
+    pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+    Arrays.fill(pixels, background.getRGB());
+    for (int row = 0; row < imageRows; row++) {
+      for (int col = 0; col < imageColumns; col++) {
+        fillImageCell(col, row, dead);
+      }
+    }
+    snapshot.forEachLiveCell((col, row) -> fillImageCell(col, row, alive));
+  }
+
+  /**
+   * Fills the block of a cell in the back buffer.
+   *
+   * @param col   the column of the cell
+   * @param row   the row of the cell
+   * @param color the color of the cell
+   */
+  private void fillImageCell(int col, int row, Color color) {
+    int rgb = color.getRGB();
+    int width = image.getWidth();
+    int step = imageCellSize + BORDER_SIZE;
+    int start = (BORDER_SIZE + row * step) * width + BORDER_SIZE + col * step;
+    for (int y = 0; y < imageCellSize; y++) {
+      Arrays.fill(pixels, start + y * width, start + y * width + imageCellSize, rgb);
+    }
+  }
+
+  /**
+   * Schedules a repaint of the whole board.
+   */
+  void repaintAll() {
+    image = null;
+    repaint();
+  }
+
+  /**
+   * Schedules a repaint of the areas covering the given cells only. The cells are grouped into
+   * tiles of {@link #REPAINT_TILE_SIZE} cells squared, and the bounds of the changed cells of each
+   * tile are repainted, so that distant changes do not repaint the cells between them. Must be
+   * called on the event dispatching thread.
+   *
+   * @param cells the cells that have changed their state
+   * @param state the new state of the cells, <code>true</code> for alive
+   */
+  void repaintCells(Collection<Cell> cells, boolean state) {
+    if (cells.isEmpty()) {
+      return;
+    }
+    if (renderMode.equals("image") && image != null) {
+      for (Cell cell : cells) {
+        if (cell.getColumn() < imageColumns && cell.getRow() < imageRows) {
+          fillImageCell(cell.getColumn(), cell.getRow(), state ? alive : dead);
+        }
+      }
+    }
+    Map<Long, Rectangle> tiles = new HashMap<>();
+    for (Cell cell : cells) {
+      long tile = (long) (cell.getRow() / REPAINT_TILE_SIZE) << 32
+          | cell.getColumn() / REPAINT_TILE_SIZE;
+      Rectangle bounds = tiles.get(tile);
+      if (bounds == null) {
+        tiles.put(tile, new Rectangle(cell.getColumn(), cell.getRow(), 1, 1));
+      } else {
+        bounds.add(cell.getColumn(), cell.getRow());
+        bounds.add(cell.getColumn() + 1, cell.getRow() + 1);
+      }
+    }
+    int step = cellSize + BORDER_SIZE;
+    for (Rectangle bounds : tiles.values()) {
+      repaint(BORDER_SIZE + bounds.x * step, BORDER_SIZE + bounds.y * step, bounds.width * step,
+          bounds.height * step);
+    }
+  }
+
   /**
    * Gets the current size of cells on the draw board.
    *
@@ -102,6 +274,38 @@ public class DrawBoard extends JPanel {
     }
   }
 
+  /**
+   * Gets the current render mode of the draw board.
+   *
+   * @return current render mode
+   */
+  String getRenderMode() {
+    return this.renderMode;
+  }
+
+  /**
+   * Sets the render mode of the draw board.
+   *
+   * @param mode name of the render mode
+   * @throws IllegalArgumentException if the name of the render mode is not recognized
+   */
+  void setRenderMode(String mode) {
+    switch (mode) {
+      case "cells", "image" -> this.renderMode = mode;
+      default -> throw new IllegalArgumentException("The render mode is not recognized");
+    }
+    repaintAll();
+  }
+
+  /**
+   * Gets the frame rate and paint time figures of the draw board.
+   *
+   * @return the render statistics
+   */
+  public RenderStatistics getRenderStatistics() {
+    return renderStatistics;
+  }
+
   /**
    * Creates EventListeners for the draw panel.
    */
@@ -110,15 +314,21 @@ public class DrawBoard extends JPanel {
       @Override
       public void mousePressed(MouseEvent e) {
         Point position = e.getPoint();
+        if (SwingUtilities.isRightMouseButton(e)) {
+          panOrigin = model.isUnbounded()
+              ? new Point(calculateColsByX(position.x), calculateRowsByY(position.y)) : null;
+          return;
+        }
         int col = calculateColsByX(position.x);
         int row = calculateRowsByY(position.y);
-        if (col >= model.getColumns() || row >= model.getRows()) {
+        GenerationSnapshot snapshot = model.getSnapshot();
+        if (col >= snapshot.getColumns() || row >= snapshot.getRows()) {
           return;
         }
         if (col < 0 || row < 0) {
           throw new IllegalArgumentException("Number of column and row may not be negative");
         }
-        isToSetAlive = !model.isCellAlive(col, row);
+        isToSetAlive = !snapshot.isCellAlive(col, row);
         controller.setCellAlive(col, row, isToSetAlive);
       }
     });
@@ -127,9 +337,14 @@ public class DrawBoard extends JPanel {
       @Override
       public void mouseDragged(MouseEvent e) {
         Point position = e.getPoint();
+        if (SwingUtilities.isRightMouseButton(e)) {
+          panViewport(position);
+          return;
+        }
         int col = calculateColsByX(position.x);
         int row = calculateRowsByY(position.y);
-        if (col >= model.getColumns() || row >= model.getRows()) {
+        GenerationSnapshot snapshot = model.getSnapshot();
+        if (col >= snapshot.getColumns() || row >= snapshot.getRows()) {
           return;
         }
         if (col < 0 || row < 0) {
@@ -140,6 +355,24 @@ public class DrawBoard extends JPanel {
     });
   }
 
+  /**
+   * Moves the viewport of an unbounded model, such that the cell where the drag started stays
+   * under the mouse.
+   *
+   * @param position position of the mouse on the screen
+   */
+  private void panViewport(Point position) {
+    if (panOrigin == null) {
+      return;
+    }
+    int col = calculateColsByX(position.x);
+    int row = calculateRowsByY(position.y);
+    if (col != panOrigin.x || row != panOrigin.y) {
+      controller.moveViewport(panOrigin.x - col, panOrigin.y - row);
+      panOrigin = new Point(col, row);
+    }
+  }
+
   /**
    * Calculates the number of the column, which has the specified x-coordinate on the screen.
    *
@@ -2,25 +2,33 @@ package org.sosylab.view;
 
 import static java.util.Objects.requireNonNull;
 
-import javax.swing.SwingWorker;
-import org.sosylab.model.Cell;
+import javax.swing.SwingUtilities;
+import org.sosylab.model.CycleDetector;
 import org.sosylab.model.Model;
+import org.sosylab.model.Rule;
 import org.sosylab.model.Shape;
+import org.sosylab.model.SimulationScheduler;
+import org.sosylab.model.Topology;
+import org.sosylab.model.Transform;
 
 /**
  * Implements the main controller for Game Of Life. It takes the actions from the user and handles
  * them accordingly. For this the controller either invokes the necessary model-methods, or by
  * directly telling the view to change its graphical user-interface.
+ *
+ * <p>The generations are computed by a {@link SimulationScheduler}, so that the model is only ever
+ * stepped by its single thread. While the simulation runs, a {@link CycleDetector} stops it once
+ * the board has settled into still lifes and oscillators.
  */
 
 public class GameOfLifeController implements Controller {
 
   private final Model model;
   private View view;
-  private int currentSpeed;
-  boolean stepping;
+  private final SimulationScheduler scheduler;
+  private CycleDetector cycleDetector;
   public static final int MIN_SPEED = 1;
-  public static final int MAX_SPEED = 30;
+  public static final int MAX_SPEED = 1000;
 
   /**
    * Constructs a new controller of the game.
@@ -29,8 +37,8 @@ public class GameOfLifeController implements Controller {
    */
   public GameOfLifeController(Model gameOfLife) {
     model = requireNonNull(gameOfLife);
-    this.currentSpeed = 1;
-    this.stepping = false;
+    this.scheduler = new SimulationScheduler(model);
+    scheduler.setTargetRate(MIN_SPEED);
   }
 
   @Override
@@ -62,32 +70,19 @@ public class GameOfLifeController implements Controller {
     if (model == null) {
       return false;
     }
-    SwingWorker<Void, Void> worker = new SwingWorker<>() {
-      @Override
-      protected Void doInBackground() {
-        model.next();
-        return null;
-      }
-    };
-    worker.execute();
+    scheduler.requestStep();
     return true;
   }
 
   @Override
   public void stepIndefinitely() {
-    this.stepping = true;
-    SwingWorker<Void, Void> swingWorker = new SwingWorker<>() {
-      @Override
-      protected Void doInBackground() throws Exception {
-        view.startStepping();
-        while (stepping) {
-          Thread.sleep(1000 / currentSpeed);
-          step();
-        }
-        return null;
-      }
-    };
-    swingWorker.execute();
+    view.startStepping();
+    disposeCycleDetector();
+    CycleDetector detector = new CycleDetector(model);
+    detector.addPropertyChangeListener(
+        event -> cycleDetected(detector, (Integer) event.getNewValue()));
+    cycleDetector = detector;
+    scheduler.start();
   }
 
   @Override
@@ -95,13 +90,48 @@ public class GameOfLifeController implements Controller {
     if (value > MAX_SPEED || value < MIN_SPEED) {
       throw new IllegalArgumentException("Incorrect speed.");
     }
-    currentSpeed = value;
+    scheduler.setTargetRate(value);
+  }
+
+  @Override
+  public void setTurbo(boolean turbo) {
+    scheduler.setMode(turbo ? SimulationScheduler.Mode.AS_FAST_AS_POSSIBLE
+        : SimulationScheduler.Mode.FIXED_RATE);
+  }
+
+  @Override
+  public void setRule(String rule) {
+    try {
+      model.setRule(Rule.parse(rule));
+    } catch (IllegalArgumentException e) {
+      view.showErrorMessage(e.getMessage() + ": " + rule);
+    }
+  }
+
+  @Override
+  public void setTopology(Topology topology) {
+    try {
+      model.setTopology(topology);
+    } catch (UnsupportedOperationException e) {
+      view.showErrorMessage(e.getMessage());
+    }
   }
 
   @Override
   public void stopStepping() {
     view.stopStepping();
-    this.stepping = false;
+    scheduler.stop();
+    disposeCycleDetector();
+  }
+
+  /**
+   * Stops the detection of cycles of the previous run of the simulation, if any.
+   */
+  private void disposeCycleDetector() {
+    if (cycleDetector != null) {
+      cycleDetector.dispose();
+      cycleDetector = null;
+    }
   }
 
   @Override
@@ -126,12 +156,46 @@ public class GameOfLifeController implements Controller {
     model.resize(cols, rows);
   }
 
+  @Override
+  public SimulationScheduler getScheduler() {
+    return scheduler;
+  }
+
+  @Override
+  public void moveViewport(int columns, int rows) {
+    if (model.isUnbounded()) {
+      model.moveViewport(columns, rows);
+    }
+  }
+
   @Override
   public void dispose() {
     this.stopStepping();
+    scheduler.shutdown();
     model.removePropertyChangeListener(view);
   }
 
+  /**
+   * Stops the running simulation once the board repeats, as the following generations would show
+   * nothing new, and tells the user why. It is called on the thread of the scheduler.
+   *
+   * @param detector the detector of the running simulation.
+   * @param period   the number of generations after which the board repeats.
+   */
+  private void cycleDetected(CycleDetector detector, int period) {
+    if (!scheduler.isRunning()) {
+      return;
+    }
+    scheduler.stop();
+    long start = detector.getCycleStart();
+    String message = period == 1 ? "The board does not change anymore since generation " + start
+        : "The board repeats every " + period + " generations since generation " + start;
+    SwingUtilities.invokeLater(() -> {
+      stopStepping();
+      view.showErrorMessage(message);
+    });
+  }
+
   /**
    * The selected shape will be placed in the middle of the game field.
    *
@@ -145,8 +209,6 @@ public class GameOfLifeController implements Controller {
     int offsetRows = Math.floorDiv(fieldRows - shapeRows, 2);
     int offsetColumns = Math.floorDiv(fieldColumns - shapeColumns, 2);
 
-    for (Cell cell : shape.getShapePopulation()) {
-      model.setCellAlive(cell.getColumn() + offsetColumns, cell.getRow() + offsetRows);
-    }
+    model.stamp(shape, offsetColumns, offsetRows, Transform.IDENTITY);
   }
 }
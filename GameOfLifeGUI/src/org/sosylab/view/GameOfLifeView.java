@@ -11,16 +11,20 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.beans.PropertyChangeEvent;
 import java.io.Serial;
+import java.util.Locale;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
-import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.sosylab.model.GenerationEvent;
 import org.sosylab.model.Model;
 import org.sosylab.model.Shapes;
+import org.sosylab.model.Topology;
 
 /**
  * Implements the main of the view for Game Of Life. The state it displays is directly taken from
@@ -31,6 +35,13 @@ public class GameOfLifeView extends JFrame implements View {
   @Serial
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Rules that can be chosen without typing them: Conway's Game of Life, HighLife, Day &amp; Night,
+   * Seeds, Life without Death and Replicator.
+   */
+  private static final String[] RULES = {"B3/S23", "B36/S23", "B3678/S34678", "B2/S",
+      "B3/S012345678", "B1357/S1357"};
+
   private final Model model;
   private final Controller controller;
 
@@ -43,8 +54,20 @@ public class GameOfLifeView extends JFrame implements View {
   private final JButton startButton;
   private final JButton clearButton;
   private final JSlider speed;
+  private final JCheckBox turbo;
+  private final JComboBox<String> rule;
+  private final JComboBox<String> edges;
   private final JComboBox<String> size;
+  private final JComboBox<String> renderMode;
   private final JLabel generation;
+  private final JLabel renderStatistics;
+  private final JLabel simulationStatistics;
+
+  // Refreshes the render and simulation statistics once per second
+  private final Timer statisticsTimer;
+
+  // Hands the events of the model to the draw board at most once per frame
+  private final RenderThrottle renderThrottle;
 
   private static Dimension screenSize;
 
@@ -69,8 +92,24 @@ public class GameOfLifeView extends JFrame implements View {
     clearButton = new JButton("Clear");
     speed = new JSlider(JSlider.HORIZONTAL, GameOfLifeController.MIN_SPEED,
         GameOfLifeController.MAX_SPEED, 1);
+    turbo = new JCheckBox("Turbo");
+    rule = new JComboBox<>(RULES);
+    rule.setEditable(true);
+    rule.setSelectedItem(model.getRule().toString());
+    edges = new JComboBox<>(new String[]{"dead edge", "torus", "klein bottle", "mirrored"});
+    edges.setSelectedItem(model.getTopology().name().toLowerCase(Locale.ROOT).replace('_', ' '));
+    edges.setEnabled(!model.isUnbounded());
     size = new JComboBox<>(new String[]{"big", "medium", "small"});
+    renderMode = new JComboBox<>(new String[]{"cells", "image"});
     generation = new JLabel("Generation: " + model.getGenerations());
+    renderStatistics = new JLabel(drawBoard.getRenderStatistics().toString());
+    simulationStatistics = new JLabel(controller.getScheduler().toString());
+    statisticsTimer = new Timer(1000, e -> {
+      renderStatistics.setText(drawBoard.getRenderStatistics().toString());
+      simulationStatistics.setText(controller.getScheduler().toString());
+    });
+    renderThrottle = new RenderThrottle(RenderThrottle.getDisplayRefreshRate(),
+        this::repaintChangedCells, this::repaintWindow, drawBoard.getRenderStatistics());
     this.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
     createContent();
     createControlBoardContent();
@@ -100,9 +139,17 @@ public class GameOfLifeView extends JFrame implements View {
     controlBoard.add(clearButton);
     controlBoard.add(new JLabel("Speed:"));
     controlBoard.add(speed);
-    speed.setPreferredSize(new Dimension(100, 25));
+    speed.setPreferredSize(new Dimension(150, 25));
+    controlBoard.add(turbo);
+    controlBoard.add(new JLabel("Rule:"));
+    controlBoard.add(rule);
+    controlBoard.add(new JLabel("Edges:"));
+    controlBoard.add(edges);
     controlBoard.add(size);
+    controlBoard.add(renderMode);
     controlBoard.add(generation);
+    controlBoard.add(renderStatistics);
+    controlBoard.add(simulationStatistics);
   }
 
   /**
@@ -131,6 +178,24 @@ public class GameOfLifeView extends JFrame implements View {
 
     speed.addChangeListener(e -> controller.setStepSpeed(speed.getValue()));
 
+    turbo.addActionListener(e -> {
+      speed.setEnabled(!turbo.isSelected());
+      controller.setTurbo(turbo.isSelected());
+    });
+
+    rule.addActionListener(e -> {
+      controller.setRule(requireNonNull(rule.getSelectedItem()).toString());
+      // Show the rule in its normal form, or the previous rule if the new one is not recognized
+      String current = model.getRule().toString();
+      if (!current.equals(rule.getSelectedItem())) {
+        rule.setSelectedItem(current);
+      }
+    });
+
+    edges.addActionListener(e -> controller.setTopology(Topology.valueOf(
+        requireNonNull(edges.getSelectedItem()).toString().toUpperCase(Locale.ROOT)
+            .replace(' ', '_'))));
+
     size.addActionListener(e -> {
       String sizeName = requireNonNull(
           size.getSelectedItem()).toString().toLowerCase();
@@ -145,6 +210,9 @@ public class GameOfLifeView extends JFrame implements View {
       repackWindow();
     });
 
+    renderMode.addActionListener(e -> drawBoard.setRenderMode(
+        requireNonNull(renderMode.getSelectedItem()).toString()));
+
     addComponentListener(new ComponentAdapter() {
       @Override
       public void componentResized(ComponentEvent e) {
@@ -185,6 +253,8 @@ public class GameOfLifeView extends JFrame implements View {
   @Override
   public void showGame() {
     this.setVisible(true);
+    statisticsTimer.start();
+    renderThrottle.start();
   }
 
   @Override
@@ -208,33 +278,37 @@ public class GameOfLifeView extends JFrame implements View {
 
   @Override
   public void dispose() {
+    statisticsTimer.stop();
+    renderThrottle.stop();
     controller.dispose();
     super.dispose();
   }
 
   @Override
   public void propertyChange(PropertyChangeEvent event) {
-    SwingUtilities.invokeLater(() -> handleChangeEvent(event));
+    // The throttle repaints the latest state on the event dispatch thread once per frame
+    if (event.getPropertyName().equals(Model.STATE_CHANGED)) {
+      renderThrottle.submit(event);
+    }
   }
 
   /**
-   * The observable (= model) has just published that its state has changed. The GUI needs to be
-   * updated accordingly here.
+   * Updates only the cells of the window that have changed.
    *
-   * @param event The event that was fired by the model.
+   * @param event The event that lists the changed cells.
    */
-  private void handleChangeEvent(PropertyChangeEvent event) {
-    if (event.getPropertyName().equals(Model.STATE_CHANGED)) {
-      repaintWindow();
-    }
+  private void repaintChangedCells(GenerationEvent event) {
+    drawBoard.repaintCells(event.getBirths(), true);
+    drawBoard.repaintCells(event.getDeaths(), false);
+    generation.setText("Generation: " + event.getGeneration());
   }
 
   /**
    * Updates the content of the window.
    */
   private void repaintWindow() {
-    drawBoard.repaint();
-    generation.setText("Generation: " + model.getGenerations());
+    drawBoard.repaintAll();
+    generation.setText("Generation: " + model.getSnapshot().getGeneration());
   }
 
   /**
@@ -0,0 +1,99 @@
+package org.sosylab.view;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how often and how fast the draw board gets painted. The figures are taken over the
+ * frames of the last completed second.
+ */
+public class RenderStatistics {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private long intervalStart = System.nanoTime();
+  private int intervalFrames;
+  private long intervalPaintNanos;
+  private int intervalSkippedFrames;
+
+  private int framesPerSecond;
+  private double averagePaintMillis;
+  private int skippedFramesPerSecond;
+
+  /**
+   * Records one painted frame.
+   *
+   * @param paintNanos the time it took to paint the frame in nanoseconds
+   */
+  synchronized void frameRendered(long paintNanos) {
+    intervalFrames++;
+    intervalPaintNanos += paintNanos;
+    completeInterval();
+  }
+
+  /**
+   * Records frames that have not been painted because the model changed faster than the refresh
+   * rate of the display.
+   *
+   * @param frames the number of skipped frames
+   */
+  synchronized void framesSkipped(int frames) {
+    intervalSkippedFrames += frames;
+    completeInterval();
+  }
+
+  /**
+   * Takes over the figures of the current interval once it has lasted a second.
+   */
+  private void completeInterval() {
+    long now = System.nanoTime();
+    if (now - intervalStart < ONE_SECOND) {
+      return;
+    }
+    framesPerSecond = (int) Math.round(intervalFrames * (double) ONE_SECOND
+        / (now - intervalStart));
+    averagePaintMillis = intervalFrames == 0 ? 0 : intervalPaintNanos / (intervalFrames * 1e6);
+    skippedFramesPerSecond = (int) Math.round(intervalSkippedFrames * (double) ONE_SECOND
+        / (now - intervalStart));
+    intervalStart = now;
+    intervalFrames = 0;
+    intervalPaintNanos = 0;
+    intervalSkippedFrames = 0;
+  }
+
+  /**
+   * Gets the number of frames painted during the last second.
+   *
+   * @return frames per second
+   */
+  public synchronized int getFramesPerSecond() {
+    completeInterval();
+    return framesPerSecond;
+  }
+
+  /**
+   * Gets the average time it took to paint a frame during the last second.
+   *
+   * @return paint time in milliseconds
+   */
+  public synchronized double getAveragePaintMillis() {
+    completeInterval();
+    return averagePaintMillis;
+  }
+
+  /**
+   * Gets the number of frames skipped during the last second.
+   *
+   * @return skipped frames per second
+   */
+  public synchronized int getSkippedFramesPerSecond() {
+    completeInterval();
+    return skippedFramesPerSecond;
+  }
+
+  @Override
+  public synchronized String toString() {
+    completeInterval();
+    return String.format("FPS: %d (%.2f ms), skipped: %d", framesPerSecond, averagePaintMillis,
+        skippedFramesPerSecond);
+  }
+}
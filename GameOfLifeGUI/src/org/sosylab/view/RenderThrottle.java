@@ -0,0 +1,117 @@
+package org.sosylab.view;
+
+import static java.util.Objects.requireNonNull;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.beans.PropertyChangeEvent;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+import org.sosylab.model.GenerationEvent;
+
+/**
+ * Limits the repaints of the view to the refresh rate of the display, however fast the model
+ * computes its generations.
+ *
+ * <p>The events of the model are collected from any thread and handed to the event dispatch
+ * thread once per frame. A frame with a single {@link GenerationEvent} is passed on as it is, so
+ * that only the changed cells get repainted. A frame with several events only shows the latest
+ * state, so it asks for a repaint of the whole board; the events that did not get a frame of
+ * their own are counted as skipped frames.
+ */
+class RenderThrottle {
+
+  /**
+   * Frame rate that is used if the refresh rate of the display is unknown.
+   */
+  static final int DEFAULT_FRAME_RATE = 60;
+
+  private final Consumer<GenerationEvent> repaintChangedCells;
+  private final Runnable repaintAll;
+  private final RenderStatistics renderStatistics;
+  private final Timer timer;
+
+  private PropertyChangeEvent pendingEvent;
+  private int pendingEvents;
+
+  /**
+   * Constructs a new throttle that is not started yet.
+   *
+   * @param framesPerSecond     the maximum number of repaints per second.
+   * @param repaintChangedCells repaints the cells of a single event.
+   * @param repaintAll          repaints the whole board.
+   * @param renderStatistics    receives the number of skipped frames.
+   */
+  RenderThrottle(int framesPerSecond, Consumer<GenerationEvent> repaintChangedCells,
+      Runnable repaintAll, RenderStatistics renderStatistics) {
+    if (framesPerSecond <= 0) {
+      throw new IllegalArgumentException("Frame rate must be positive");
+    }
+    this.repaintChangedCells = requireNonNull(repaintChangedCells);
+    this.repaintAll = requireNonNull(repaintAll);
+    this.renderStatistics = requireNonNull(renderStatistics);
+    timer = new Timer(1000 / framesPerSecond, e -> renderFrame());
+    timer.setCoalesce(true);
+  }
+
+  /**
+   * Gets the refresh rate of the default screen.
+   *
+   * @return the refresh rate in hertz, or {@link #DEFAULT_FRAME_RATE} if it is unknown
+   */
+  static int getDisplayRefreshRate() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return DEFAULT_FRAME_RATE;
+    }
+    int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+        .getDisplayMode().getRefreshRate();
+    return refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_FRAME_RATE : refreshRate;
+  }
+
+  /**
+   * Starts handing the collected events to the view.
+   */
+  void start() {
+    timer.start();
+  }
+
+  /**
+   * Stops handing the collected events to the view.
+   */
+  void stop() {
+    timer.stop();
+  }
+
+  /**
+   * Collects an event of the model until the next frame. It may be called from any thread.
+   *
+   * @param event the event fired by the model.
+   */
+  synchronized void submit(PropertyChangeEvent event) {
+    pendingEvent = event;
+    pendingEvents++;
+  }
+
+  /**
+   * Repaints the events collected since the last frame, if any.
+   */
+  void renderFrame() {
+    PropertyChangeEvent event;
+    int events;
+    synchronized (this) {
+      event = pendingEvent;
+      events = pendingEvents;
+      pendingEvent = null;
+      pendingEvents = 0;
+    }
+    if (events == 0) {
+      return;
+    }
+    if (events == 1 && event instanceof GenerationEvent generationEvent) {
+      repaintChangedCells.accept(generationEvent);
+    } else {
+      repaintAll.run();
+    }
+    renderStatistics.framesSkipped(events - 1);
+  }
+}
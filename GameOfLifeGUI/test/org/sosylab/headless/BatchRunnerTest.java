@@ -0,0 +1,84 @@
+package org.sosylab.headless;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the {@link BatchRunner} and the parsing of its {@link BatchOptions}.
+ */
+public class BatchRunnerTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void run_blinker_writesFinalState() throws IOException {
+    Path output = directory.resolve("final.txt");
+    BatchOptions options = BatchOptions.parse(new String[]{"--size", "5x5", "--shape", "blinker",
+        "--generations", "3", "--output", output.toString()});
+
+    BatchStatistics statistics = BatchRunner.run(options);
+
+    assertEquals(3, statistics.getGenerations());
+    assertEquals(3, statistics.getPeakPopulation());
+    assertEquals(3, statistics.getFinalPopulation());
+    assertEquals(".....\n..X..\n..X..\n..X..\n.....\n", Files.readString(output));
+  }
+
+  @Test
+  public void run_pattern_isCenteredAndUsesRuleOfFile() throws IOException {
+    Path pattern = directory.resolve("domino.rle");
+    Files.writeString(pattern, "x = 2, y = 1, rule = B2/S\n2o!\n");
+    Path output = directory.resolve("final.txt");
+    BatchOptions options = BatchOptions.parse(new String[]{"--size", "6x3", "--pattern",
+        pattern.toString(), "--generations", "1", "--output", output.toString()});
+
+    BatchStatistics statistics = BatchRunner.run(options);
+
+    // Under Conway's rule the domino would die out
+    assertEquals(4, statistics.getFinalPopulation());
+    assertEquals("..XX..\n......\n..XX..\n", Files.readString(output));
+  }
+
+  @Test
+  public void run_soup_isSameOnBoundedEngines() throws IOException {
+    String[] outputs = new String[2];
+    String[] engines = {"game", "bitgrid"};
+    for (int i = 0; i < engines.length; i++) {
+      Path output = directory.resolve(engines[i] + ".txt");
+      BatchRunner.run(BatchOptions.parse(new String[]{"--engine", engines[i], "--size", "40x30",
+          "--density", "0.4", "--seed", "7", "--generations", "20", "--sample", "5",
+          "--output", output.toString()}));
+      outputs[i] = Files.readString(output);
+    }
+    assertEquals(outputs[0], outputs[1]);
+    assertTrue(outputs[0].contains("X"));
+  }
+
+  @Test
+  public void parse_whenOptionIsUnknown_throwsException() {
+    try {
+      BatchOptions.parse(new String[]{"--colour", "red"});
+      fail("An unknown option should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The option --colour is not recognized", e.getMessage());
+    }
+  }
+
+  @Test
+  public void parse_whenEngineIsUnknown_throwsException() {
+    try {
+      BatchOptions.parse(new String[]{"--engine", "abacus"});
+      fail("An unknown engine should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The engine is not recognized", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package org.sosylab.headless;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+
+/**
+ * Tests for the {@link SimulationService}.
+ */
+public class SimulationServiceTest {
+
+  private SimulationService service;
+
+  @AfterEach
+  public void shutDown() {
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  public void step_manyBoards_equalsDirectlySteppedModels() throws Exception {
+    service = new SimulationService(3);
+    List<Long> ids = new ArrayList<>();
+    List<Model> expected = new ArrayList<>();
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int seed = 0; seed < 20; seed++) {
+      String engine = seed % 2 == 0 ? "game" : "bitgrid";
+      long id = service.createBoard(soup(engine, seed));
+      ids.add(id);
+      futures.add(service.step(id, 30));
+      Model model = soup(engine, seed);
+      for (int i = 0; i < 30; i++) {
+        model.next();
+      }
+      expected.add(model);
+    }
+
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(30, futures.get(i).get(10, TimeUnit.SECONDS));
+      assertEquals(30, service.getGenerations(ids.get(i)));
+      assertEquals(expected.get(i).getSnapshot().toString(),
+          service.getSnapshot(ids.get(i)).toString());
+    }
+    assertEquals(600, service.getMetrics().getGenerations());
+    assertEquals(600L * 40 * 30, service.getMetrics().getCellUpdates());
+    assertEquals(0, service.getMetrics().getActiveBoards());
+  }
+
+  @Test
+  public void step_addsUpWithPendingSteps() throws Exception {
+    service = new SimulationService(1);
+    long id = service.createBoard("game", 10, 10);
+
+    CompletableFuture<Long> first = service.step(id, 5);
+    CompletableFuture<Long> second = service.step(id, 5);
+
+    assertEquals(10, second.get(10, TimeUnit.SECONDS));
+    assertTrue(first.get() >= 5);
+    assertEquals(10, service.getGenerations(id));
+    assertEquals(10, service.step(id, 0).get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void step_whileLargeBoardIsRunning_isNotStarved() throws Exception {
+    service = new SimulationService(1);
+    long large = service.createBoard(soup("game", 1000, 1000, 1));
+    long small = service.createBoard("game", 10, 10);
+    service.start(large);
+
+    assertEquals(100, service.step(small, 100).get(10, TimeUnit.SECONDS));
+    assertTrue(service.isRunning(large));
+    assertEquals(2, service.getMetrics().getBoards());
+  }
+
+  @Test
+  public void setRateLimit_boundsGenerations() throws Exception {
+    service = new SimulationService(2);
+    long id = service.createBoard("bitgrid", 20, 20);
+    service.setRateLimit(id, 50);
+
+    service.start(id);
+    Thread.sleep(400);
+    service.stop(id);
+
+    long generations = service.getGenerations(id);
+    assertTrue(generations > 0);
+    assertTrue(generations <= 25, "Too many generations: " + generations);
+    assertEquals(50, service.getRateLimit(id));
+    assertFalse(service.isRunning(id));
+  }
+
+  @Test
+  public void setRateLimit_whileTurnWaitsForTimer_reschedulesIt() throws Exception {
+    service = new SimulationService(1);
+    long id = service.createBoard("game", 10, 10);
+    service.setRateLimit(id, 0.01);
+    CompletableFuture<Long> future = service.step(id, 2);
+    Thread.sleep(50); // the second generation is due in 100 seconds
+
+    service.setRateLimit(id, 1000);
+
+    assertEquals(2, future.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void step_callbacksQueryingEachOthersBoards_doNotDeadlock() throws Exception {
+    service = new SimulationService(2);
+    long first = service.createBoard("game", 200, 200);
+    long second = service.createBoard("game", 200, 200);
+    // Hold the second generations back, so that the callbacks are attached before they complete
+    for (long id : new long[]{first, second}) {
+      service.setRateLimit(id, 0.01);
+      service.step(id, 1).get(5, TimeUnit.SECONDS);
+    }
+    CountDownLatch firstCalled = new CountDownLatch(1);
+    CountDownLatch secondCalled = new CountDownLatch(1);
+    CompletableFuture<Long> firstQuery = service.step(first, 1).thenApply(generation -> {
+      firstCalled.countDown();
+      awaitQuietly(secondCalled);
+      return service.getGenerations(second);
+    });
+    CompletableFuture<Long> secondQuery = service.step(second, 1).thenApply(generation -> {
+      secondCalled.countDown();
+      awaitQuietly(firstCalled);
+      return service.getGenerations(first);
+    });
+
+    service.setRateLimit(first, Double.POSITIVE_INFINITY);
+    service.setRateLimit(second, Double.POSITIVE_INFINITY);
+
+    assertEquals(2, firstQuery.get(10, TimeUnit.SECONDS));
+    assertEquals(2, secondQuery.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void setRateLimit_whenRateIsNotPositive_throwsException() {
+    service = new SimulationService(1);
+    long id = service.createBoard("game", 10, 10);
+    try {
+      service.setRateLimit(id, 0);
+      fail("A rate of zero should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Rate must be positive", e.getMessage());
+    }
+  }
+
+  @Test
+  public void destroyBoard_cancelsPendingSteps() {
+    service = new SimulationService(1);
+    long id = service.createBoard("game", 10, 10);
+    service.setRateLimit(id, 1);
+    CompletableFuture<Long> future = service.step(id, 100);
+
+    service.destroyBoard(id);
+
+    assertTrue(future.isCancelled());
+    assertFalse(service.getBoardIds().contains(id));
+    try {
+      service.getGenerations(id);
+      fail("A destroyed board should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The board does not exist", e.getMessage());
+    }
+  }
+
+  @Test
+  public void step_whenNumberIsNegative_throwsException() {
+    service = new SimulationService(1);
+    long id = service.createBoard("game", 10, 10);
+    try {
+      service.step(id, -1);
+      fail("A negative number of generations should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of generations may not be negative", e.getMessage());
+    }
+  }
+
+  @Test
+  public void createBoard_afterShutdown_throwsException() throws InterruptedException {
+    service = new SimulationService(1);
+    service.shutdown();
+    assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+    try {
+      service.createBoard("game", 10, 10);
+      fail("A service that has been shut down should throw an exception");
+    } catch (IllegalStateException e) {
+      assertEquals("The service has been shut down", e.getMessage());
+    }
+  }
+
+  @Test
+  public void constructor_whenThreadsAreNotPositive_throwsException() {
+    try {
+      new SimulationService(0);
+      fail("Zero threads should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of threads must be positive", e.getMessage());
+    }
+  }
+
+  private static Model soup(String engine, int seed) {
+    return soup(engine, 40, 30, seed);
+  }
+
+  private static Model soup(String engine, int columns, int rows, int seed) {
+    Model model = Engines.createByName(engine, columns, rows);
+    Random random = new Random(seed);
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < columns; col++) {
+        if (random.nextDouble() < 0.3) {
+          model.setCellAlive(col, row);
+        }
+      }
+    }
+    return model;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package org.sosylab.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sosylab.model.Cell;
+import org.sosylab.model.Game;
+import org.sosylab.model.Rule;
+import org.sosylab.model.Shape;
+import org.sosylab.model.Shapes;
+
+/**
+ * Tests for the {@link PatternReader} and the {@link PatternWriter}.
+ */
+public class PatternReaderTest {
+
+  private static final String GLIDER_RLE = String.join("\n",
+      "#N Glider",
+      "#C A comment",
+      "x = 3, y = 3, rule = B3/S23",
+      "bob$2bo$3o!");
+
+  private static final String GLIDER_CELLS = String.join("\n",
+      "!Name: Glider",
+      "!A comment",
+      ".O.",
+      "..O",
+      "OOO");
+
+  private static final Set<Cell> GLIDER = Set.of(new Cell(1, 0), new Cell(2, 1), new Cell(0, 2),
+      new Cell(1, 2), new Cell(2, 2));
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void readRle_glider_streamsCells() throws IOException {
+    Set<Cell> cells = new HashSet<>();
+    PatternInfo info = PatternReader.readRle(new StringReader(GLIDER_RLE),
+        (col, row) -> cells.add(new Cell(col, row)));
+
+    assertEquals(GLIDER, cells);
+    assertEquals("Glider", info.getName());
+    assertEquals(3, info.getColumns());
+    assertEquals(3, info.getRows());
+    assertEquals("B3/S23", info.getRule());
+  }
+
+  @Test
+  public void readCells_glider_streamsCells() throws IOException {
+    Set<Cell> cells = new HashSet<>();
+    PatternInfo info = PatternReader.readCells(new StringReader(GLIDER_CELLS),
+        (col, row) -> cells.add(new Cell(col, row)));
+
+    assertEquals(GLIDER, cells);
+    assertEquals("Glider", info.getName());
+    assertEquals(3, info.getColumns());
+    assertEquals(3, info.getRows());
+  }
+
+  @Test
+  public void readRle_whenCharacterIsUnknown_throwsException() throws IOException {
+    try {
+      PatternReader.readRle(new StringReader("x = 3, y = 1\nboz!"), (col, row) -> { });
+      fail("An unknown character should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The pattern is malformed in line 2: the character 'z' is not recognized",
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void writeRle_pulsar_readsBackTheSame() throws IOException {
+    assertWrittenPatternReadsBack("pulsar.rle");
+  }
+
+  @Test
+  public void writeCells_pulsar_readsBackTheSame() throws IOException {
+    assertWrittenPatternReadsBack("pulsar.cells");
+  }
+
+  @Test
+  public void readShape_rleFile_keepsDimensions() throws IOException {
+    Path path = directory.resolve("glider.rle");
+    Files.writeString(path, GLIDER_RLE);
+
+    Shape shape = PatternReader.readShape(path);
+
+    assertEquals("Glider", shape.getName());
+    assertEquals(3, shape.getColumns());
+    assertEquals(3, shape.getRows());
+    assertEquals(GLIDER, shape.getShapePopulation());
+  }
+
+  @Test
+  public void writeRle_wrapsLongLines() throws IOException {
+    Game game = new Game(200, 1);
+    for (int col = 0; col < 200; col += 2) {
+      game.setCellAlive(col, 0);
+    }
+    StringWriter writer = new StringWriter();
+
+    PatternWriter.writeRle(game.getSnapshot(), null, writer);
+
+    for (String line : writer.toString().split("\n")) {
+      assertTrue(line.length() <= 70, line);
+    }
+  }
+
+  @Test
+  public void write_rle_containsRuleOfModel() throws IOException {
+    Game game = new Game(5, 5);
+    game.setRule(Rule.parse("B36/S23"));
+    Path path = directory.resolve("highlife.rle");
+
+    PatternWriter.write(path, game);
+    PatternInfo info = PatternReader.read(path, (col, row) -> { });
+
+    assertEquals("B36/S23", info.getRule());
+  }
+
+  private void assertWrittenPatternReadsBack(String fileName) throws IOException {
+    Game expected = new Game(20, 20);
+    for (Cell cell : Shapes.getShapeByName("pulsar").getShapePopulation()) {
+      expected.setCellAlive(cell.getColumn() + 3, cell.getRow() + 4);
+    }
+    Path path = directory.resolve(fileName);
+
+    PatternWriter.write(path, expected);
+    Game actual = new Game(20, 20);
+    PatternInfo info = PatternReader.readInto(path, actual, 0, 0);
+
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals("pulsar", info.getName());
+    assertEquals(20, info.getColumns());
+    assertEquals(20, info.getRows());
+  }
+}
@@ -0,0 +1,96 @@
+package org.sosylab.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sosylab.model.Game;
+import org.sosylab.model.GenerationSnapshot;
+
+/**
+ * Tests for the {@link SnapshotFile} and the restoring of a {@link Game} from it.
+ */
+public class SnapshotFileTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void read_writtenSnapshot_restoresPopulationAndGeneration() throws IOException {
+    // 130 columns, so that the rows do not fill their last word
+    Game expected = new Game(130, 40);
+    expected.setCellAlive(0, 0);
+    expected.setCellAlive(63, 5);
+    expected.setCellAlive(64, 5);
+    expected.setCellAlive(129, 39);
+    expected.setCellAlive(70, 20);
+    expected.setCellAlive(71, 20);
+    expected.setCellAlive(72, 20);
+    expected.advance(3);
+    Path path = directory.resolve("board" + SnapshotFile.EXTENSION);
+
+    SnapshotFile.write(path, expected);
+    SnapshotFile file = SnapshotFile.read(path);
+    Game actual = new Game(10, 10);
+    actual.restore(file.getSnapshot());
+
+    assertEquals(PatternReader.CONWAY_RULE, file.getRule());
+    assertEquals(130, actual.getColumns());
+    assertEquals(40, actual.getRows());
+    assertEquals(3, actual.getGenerations());
+    assertEquals(expected.toString(), actual.toString());
+    expected.next();
+    actual.next();
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void restore_sameSize_replacesPopulation() {
+    Game source = new Game(5, 5);
+    source.setCellAlive(1, 1);
+    GenerationSnapshot snapshot = source.getSnapshot();
+    Game game = new Game(5, 5);
+    game.setCellAlive(3, 3);
+
+    game.restore(snapshot);
+
+    assertEquals(snapshot.toString(), game.toString());
+  }
+
+  @Test
+  public void read_whenFileIsNoSnapshot_throwsException() throws IOException {
+    Path path = directory.resolve("text" + SnapshotFile.EXTENSION);
+    Files.writeString(path, "This is not a snapshot of a board");
+    try {
+      SnapshotFile.read(path);
+      fail("A file without the magic number should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The file is not a snapshot", e.getMessage());
+    }
+  }
+
+  @Test
+  public void read_whenPaddingBitIsSet_throwsException() throws IOException {
+    Game game = new Game(130, 40);
+    game.setCellAlive(129, 0);
+    Path path = directory.resolve("corrupt" + SnapshotFile.EXTENSION);
+    SnapshotFile.write(path, game);
+    byte[] bytes = Files.readAllBytes(path);
+    // The body ends the file: 40 rows of three words, the last word of the first row holds the
+    // columns 128 to 191, so bit 2 of its lowest byte is column 130
+    int lastWordOfFirstRow = bytes.length - 40 * 3 * Long.BYTES + 2 * Long.BYTES;
+    bytes[lastWordOfFirstRow] |= 1 << 2;
+    Files.write(path, bytes);
+
+    try {
+      SnapshotFile.read(path);
+      fail("A cell beyond the last column should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The words hold cells beyond the last column", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the {@link GridTest} suite against {@link BitGridGame} and compares it with {@link Game}.
+ */
+public class BitGridGameTest extends GridTest {
+
+  @Override
+  Grid newWorld(int col, int row) {
+    return new BitGridGame(col, row);
+  }
+
+  @Test
+  public void next_randomSoup_equalsGame() {
+    // 130 columns span three words, the last one only partially filled
+    assertSameGenerations(new Game(130, 40), newWorld(130, 40));
+  }
+
+  @Test
+  public void next_withParallelBands_equalsGame() {
+    assertSameGenerations(new Game(300, 200), new BitGridGame(300, 200, 4));
+  }
+
+  @Test
+  public void next_vectorized_equalsGame() {
+    // 1000 columns span sixteen words, more than a vector and a partially filled remainder
+    for (String notation : new String[] {"B3/S23", "B36/S23"}) {
+      for (Topology topology : Topology.values()) {
+        Game game = new Game(1000, 40);
+        BitGridGame vectorGame = new BitGridGame(1000, 40);
+        vectorGame.setVectorized(true);
+        for (Model model : new Model[] {game, vectorGame}) {
+          model.setRule(Rule.parse(notation));
+          model.setTopology(topology);
+        }
+        assertSameGenerations(game, vectorGame);
+      }
+    }
+  }
+
+  @Test
+  public void setVectorized_withoutVectorApi_staysScalar() {
+    BitGridGame game = new BitGridGame(10, 10);
+    game.setVectorized(true);
+    assertEquals(BitGridGame.isVectorApiAvailable(), game.isVectorized());
+    game.setVectorized(false);
+    assertFalse(game.isVectorized());
+  }
+
+  @Test
+  public void resize_whenShrinkingColumns_dropsCellsBeyondLastColumn() {
+    Grid world = newWorld(100, 3);
+    world.setCellAlive(70, 1);
+    world.setCellAlive(99, 1);
+
+    world.resize(80, 3);
+    world.resize(100, 3);
+
+    assertEquals(1, world.getPopulation().size());
+    assertTrue(world.isCellAlive(70, 1));
+  }
+
+  private void assertSameGenerations(Grid expected, Grid actual) {
+    int columns = expected.getColumns();
+    int rows = expected.getRows();
+    Random random = new Random(42);
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < columns; col++) {
+        if (random.nextInt(3) == 0) {
+          expected.setCellAlive(col, row);
+          actual.setCellAlive(col, row);
+        }
+      }
+    }
+
+    for (int i = 0; i < 50; i++) {
+      expected.next();
+      actual.next();
+      assertEquals(expected.toString(), actual.toString(), "Generation " + (i + 1));
+    }
+    assertEquals(expected.getPopulation(), actual.getPopulation());
+  }
+}
@@ -0,0 +1,153 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link CycleDetector} and the population hashes of the engines it relies on.
+ */
+public class CycleDetectorTest {
+
+  @Test
+  public void next_blinker_detectsPeriodTwoOnce() {
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, 10, 10);
+      model.stamp(Shapes.getShapeByName("blinker"), 3, 3, Transform.IDENTITY);
+      CycleDetector detector = new CycleDetector(model);
+      List<Object> periods = new ArrayList<>();
+      detector.addPropertyChangeListener(e -> periods.add(e.getNewValue()));
+
+      model.next();
+      assertEquals(0, detector.getPeriod(), engine);
+      model.next();
+      model.next();
+
+      assertEquals(List.of(2), periods, engine);
+      assertEquals(2, detector.getPeriod(), engine);
+      assertEquals(0, detector.getCycleStart(), engine);
+    }
+  }
+
+  @Test
+  public void next_stillLife_detectsPeriodOne() {
+    Game game = new Game(10, 10);
+    game.stamp(Shapes.getShapeByName("block"), 4, 4, Transform.IDENTITY);
+    CycleDetector detector = new CycleDetector(game);
+
+    game.next();
+
+    assertEquals(1, detector.getPeriod());
+    assertEquals(0, detector.getCycleStart());
+  }
+
+  @Test
+  public void next_gliderOnTorus_detectsPeriodWithinHistoryOnly() {
+    Game game = new Game(8, 8);
+    game.setTopology(Topology.TORUS);
+    game.stamp(Shapes.getShapeByName("glider"), 0, 0, Transform.IDENTITY);
+    CycleDetector detector = new CycleDetector(game);
+    CycleDetector shortDetector = new CycleDetector(game, 16);
+
+    // advance() would notify only once, so that the detector would not see every generation
+    for (int generation = 0; generation < 31; generation++) {
+      game.next();
+    }
+    assertEquals(0, detector.getPeriod());
+    game.next();
+
+    assertEquals(32, detector.getPeriod());
+    assertEquals(0, shortDetector.getPeriod());
+  }
+
+  @Test
+  public void setCellAlive_afterCycle_restartsHistory() {
+    Game game = new Game(10, 10);
+    game.stamp(Shapes.getShapeByName("block"), 4, 4, Transform.IDENTITY);
+    CycleDetector detector = new CycleDetector(game);
+    game.next();
+
+    game.setCellAlive(0, 0);
+
+    assertEquals(0, detector.getPeriod());
+    assertEquals(-1, detector.getCycleStart());
+    detector.dispose();
+    game.setCellDead(0, 0);
+    game.next();
+    assertEquals(0, detector.getPeriod());
+  }
+
+  @Test
+  public void constructor_whenHistoryIsNotPositive_throwsException() {
+    try {
+      new CycleDetector(new Game(5, 5), 0);
+      fail("A detector without history should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The history must be positive", e.getMessage());
+    }
+  }
+
+  @Test
+  public void next_gliderLeavingUnboundedGrid_detectsNoCycle() {
+    HashlifeGame game = new HashlifeGame(10, 10);
+    game.stamp(Shapes.getShapeByName("glider"), 0, 0, Transform.IDENTITY);
+    CycleDetector detector = new CycleDetector(game);
+
+    for (int generation = 0; generation < 100; generation++) {
+      game.next();
+    }
+
+    assertTrue(game.getPopulation().isEmpty());
+    assertEquals(5, game.getUniversePopulation());
+    assertEquals(0, detector.getPeriod());
+  }
+
+  @Test
+  public void getPopulationHash_isMaintainedWithEveryChange() {
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, 100, 100);
+      model.getPopulationHash();
+      // A soup in the middle of the grid, which cannot leave it within twenty generations
+      Random random = new Random(7);
+      for (int row = 30; row < 70; row++) {
+        for (int col = 30; col < 70; col++) {
+          if (random.nextBoolean()) {
+            model.setCellAlive(col, row);
+          }
+        }
+      }
+      model.setCellDead(30, 30);
+      model.stamp(Shapes.getShapeByName("glider"), 10, 10, Transform.IDENTITY);
+
+      for (int generation = 0; generation < 20; generation++) {
+        model.next();
+        assertEquals(expectedHash(engine, model), model.getPopulationHash(), engine);
+      }
+      if (!model.isUnbounded()) {
+        // Unbounded universes keep the cells outside of the grid
+        model.resize(60, 60);
+        assertEquals(PopulationHash.of(model.getSnapshot()), model.getPopulationHash(), engine);
+      }
+      model.clear();
+      assertEquals(0, model.getPopulationHash(), engine);
+    }
+  }
+
+  /**
+   * Gets the hash that the population of a model should have. Unbounded engines hash their own
+   * way, so the cells of the grid are set in a new model of the same engine.
+   */
+  private static long expectedHash(String engine, Model model) {
+    if (!model.isUnbounded()) {
+      return PopulationHash.of(model.getSnapshot());
+    }
+    Model expected = Engines.createByName(engine, model.getColumns(), model.getRows());
+    model.forEachLiveCell(expected::setCellAlive);
+    return expected.getPopulationHash();
+  }
+}
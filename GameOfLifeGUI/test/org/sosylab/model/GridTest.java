@@ -201,6 +201,25 @@ public class GridTest {
     worldIsExactly(world, cells);
   }
 
+  @Test
+  public void resize_whenGrowingBack_keepsCutOffCellsDead() {
+    Set<Cell> cells = new HashSet<>();
+    addCell(cells, 1, 1);
+    addCell(cells, 4, 2);
+    addCell(cells, 2, 4);
+    Grid world = newWorld(cells);
+    if (world instanceof Model model && model.isUnbounded()) {
+      return; // unbounded universes keep the cells outside of the grid
+    }
+
+    world.resize(3, 3);
+    world.resize(WORLD_TOTAL_COLUMNS, WORLD_TOTAL_ROWS);
+
+    removeCell(cells, 4, 2);
+    removeCell(cells, 2, 4);
+    worldIsExactly(world, cells);
+  }
+
   @Test
   public void getColumns_returnsColumns() {
     Grid world = newWorld();
@@ -293,6 +312,47 @@ public class GridTest {
     assertEquals(world.getGenerations(), numberGenerations);
   }
 
+  @Test
+  public void forEachLiveCell_andBulkExports_matchPopulation() {
+    Set<Cell> cells = new HashSet<>();
+    addCell(cells, 0, 0);
+    addCell(cells, 4, 0);
+    addCell(cells, 2, 3);
+    addCell(cells, 4, 4);
+    Grid world = newWorld(cells);
+    if (world instanceof Model model) {
+      model.next();
+      model.setCellAlive(0, 0);
+      model.getSnapshot(); // the exports read the published snapshot from now on
+      model.setCellAlive(4, 0);
+      cells = new HashSet<>(world.getPopulation());
+    }
+
+    Set<Cell> visited = new HashSet<>();
+    world.forEachLiveCell((col, row) -> assertTrue(visited.add(new Cell(col, row))));
+    assertEquals(cells, visited);
+
+    Set<Cell> packed = new HashSet<>();
+    for (long cell : world.getPackedLiveCells()) {
+      packed.add(new Cell((int) cell, (int) (cell >>> 32)));
+    }
+    assertEquals(cells.size(), world.getPackedLiveCells().length);
+    assertEquals(cells, packed);
+
+    int[] coordinates = world.getLiveCellCoordinates();
+    Set<Cell> pairs = new HashSet<>();
+    for (int i = 0; i < coordinates.length; i += 2) {
+      pairs.add(new Cell(coordinates[i], coordinates[i + 1]));
+    }
+    assertEquals(2 * cells.size(), coordinates.length);
+    assertEquals(cells, pairs);
+
+    Set<Cell> bits = new HashSet<>();
+    world.getLiveCellBits().stream()
+        .forEach(bit -> bits.add(new Cell(bit % WORLD_TOTAL_COLUMNS, bit / WORLD_TOTAL_COLUMNS)));
+    assertEquals(cells, bits);
+  }
+
   private void addCell(Set<Cell> cells, int x, int y) {
     cells.add(new Cell(x, y));
   }
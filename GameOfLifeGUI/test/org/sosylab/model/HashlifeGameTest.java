@@ -0,0 +1,92 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the {@link GridTest} suite against {@link HashlifeGame} and compares its generation jumps
+ * with {@link Game}.
+ */
+public class HashlifeGameTest extends GridTest {
+
+  @Override
+  Grid newWorld(int col, int row) {
+    return new HashlifeGame(col, row);
+  }
+
+  @Test
+  public void advance_pulsar_equalsSteppedGame() {
+    assertSameAfterJump(new HashlifeGame(40, 40), Shapes.getShapeByName("pulsar"), 1001);
+  }
+
+  @Test
+  public void advance_glider_equalsSteppedGame() {
+    // The glider moves one cell up and left every four generations and stays within the board
+    assertSameAfterJump(new HashlifeGame(200, 200), Shapes.getShapeByName("glider"), 301);
+  }
+
+  @Test
+  public void advance_withTinyNodeCache_staysCorrect() {
+    assertSameAfterJump(new HashlifeGame(40, 40, 64), Shapes.getShapeByName("pulsar"), 77);
+  }
+
+  @Test
+  public void advance_whenPatternLeavesGrid_keepsItInUniverse() {
+    HashlifeGame world = new HashlifeGame(10, 10);
+    placeInMiddle(world, Shapes.getShapeByName("spaceship"));
+
+    world.advance(1 << 20);
+
+    assertEquals(0, world.getPopulation().size());
+    assertEquals(9, world.getUniversePopulation());
+    assertEquals(1 << 20, world.getGenerations());
+  }
+
+  @Test
+  public void advance_singleLargeStep_keepsNodeTableBounded() {
+    HashlifeUniverse bounded = new HashlifeUniverse(1000);
+    HashlifeUniverse unbounded = new HashlifeUniverse(Integer.MAX_VALUE);
+    for (HashlifeUniverse universe : new HashlifeUniverse[] {bounded, unbounded}) {
+      // The R-pentomino, which keeps on growing for more than a thousand generations
+      universe.setAlive(1, 0, true);
+      universe.setAlive(2, 0, true);
+      universe.setAlive(0, 1, true);
+      universe.setAlive(1, 1, true);
+      universe.setAlive(1, 2, true);
+      universe.advance(1 << 10);
+    }
+
+    assertTrue(bounded.getNodeCount() < unbounded.getNodeCount(),
+        bounded.getNodeCount() + " nodes");
+    assertEquals(unbounded.getPopulation(), bounded.getPopulation());
+    assertEquals(unbounded.getPopulationHash(), bounded.getPopulationHash());
+  }
+
+  private void assertSameAfterJump(Model actual, Shape shape, int generations) {
+    Model expected = new Game(actual.getColumns(), actual.getRows());
+    placeInMiddle(expected, shape);
+    placeInMiddle(actual, shape);
+
+    for (int i = 0; i < generations; i++) {
+      expected.next();
+    }
+    actual.advance(generations);
+
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected.getGenerations(), actual.getGenerations());
+  }
+
+  private void placeInMiddle(Model model, Shape shape) {
+    int offsetColumns = (model.getColumns() - shape.getColumns()) / 2;
+    int offsetRows = (model.getRows() - shape.getRows()) / 2;
+    if (shape.getName().equals("glider")) {
+      offsetColumns = model.getColumns() - shape.getColumns() - 1;
+      offsetRows = model.getRows() - shape.getRows() - 1;
+    }
+    for (Cell cell : shape.getShapePopulation()) {
+      model.setCellAlive(cell.getColumn() + offsetColumns, cell.getRow() + offsetRows);
+    }
+  }
+}
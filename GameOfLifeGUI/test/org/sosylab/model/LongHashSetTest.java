@@ -0,0 +1,35 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link LongHashSet} with a {@link HashSet} of boxed values.
+ */
+public class LongHashSetTest {
+
+  @Test
+  public void addAndRemove_randomValues_behaveLikeHashSet() {
+    LongHashSet actual = new LongHashSet();
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(42);
+
+    // A small range of values forces collisions, removals and re-additions
+    for (int i = 0; i < 100_000; i++) {
+      long value = random.nextInt(2_000) - 1_000;
+      if (random.nextBoolean()) {
+        assertEquals(expected.add(value), actual.add(value));
+      } else {
+        assertEquals(expected.remove(value), actual.remove(value));
+      }
+      assertEquals(expected.size(), actual.size());
+    }
+    for (long value = -1_000; value < 1_000; value++) {
+      assertEquals(expected.contains(value), actual.contains(value));
+    }
+  }
+}
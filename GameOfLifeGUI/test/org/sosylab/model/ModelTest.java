@@ -0,0 +1,430 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the events and snapshots of the implementations of the {@link Model} interface.
+ */
+public class ModelTest {
+
+  private static final int WORLD_TOTAL_ROWS = 5;
+
+  private static final int WORLD_TOTAL_COLUMNS = 5;
+
+  Model newModel(int col, int row) {
+    return new Game(col, row);
+  }
+
+  private Model newModel() {
+    return newModel(WORLD_TOTAL_COLUMNS, WORLD_TOTAL_ROWS);
+  }
+
+  private List<PropertyChangeEvent> listen(Model model) {
+    List<PropertyChangeEvent> events = new ArrayList<>();
+    model.addPropertyChangeListener(events::add);
+    return events;
+  }
+
+  @Test
+  public void next_firesOneGenerationEvent() {
+    Model model = newModel();
+    model.setCellAlive(1, 2);
+    model.setCellAlive(2, 2);
+    model.setCellAlive(3, 2);
+    List<PropertyChangeEvent> events = listen(model);
+
+    model.next();
+
+    assertEquals(1, events.size());
+    assertTrue(events.get(0) instanceof GenerationEvent);
+    GenerationEvent event = (GenerationEvent) events.get(0);
+    assertEquals(1, event.getGeneration());
+    assertEquals(Set.of(new Cell(2, 1), new Cell(2, 3)), new HashSet<>(event.getBirths()));
+    assertEquals(Set.of(new Cell(1, 2), new Cell(3, 2)), new HashSet<>(event.getDeaths()));
+  }
+
+  @Test
+  public void applyChanges_firesOneEventWithActualChanges() {
+    Model model = newModel();
+    model.setCellAlive(0, 0);
+    List<PropertyChangeEvent> events = listen(model);
+
+    model.applyChanges(List.of(new Cell(0, 0), new Cell(1, 1), new Cell(2, 2)),
+        Collections.emptyList());
+
+    assertEquals(1, events.size());
+    GenerationEvent event = (GenerationEvent) events.get(0);
+    assertEquals(Set.of(new Cell(1, 1), new Cell(2, 2)), new HashSet<>(event.getBirths()));
+    assertTrue(event.getDeaths().isEmpty());
+  }
+
+  @Test
+  public void applyChanges_whenCellIsOutOfRange_changesNothing() {
+    Model model = newModel();
+    try {
+      model.applyChanges(List.of(new Cell(1, 1), new Cell(WORLD_TOTAL_COLUMNS, 0)),
+          Collections.emptyList());
+      fail("Parameter for column is out of bounds");
+    } catch (IllegalArgumentException e) {
+      assertTrue(model.getPopulation().isEmpty());
+    }
+  }
+
+  @Test
+  public void getSnapshot_isNotChangedByLaterGenerations() {
+    Model model = newModel();
+    model.setCellAlive(1, 2);
+    model.setCellAlive(2, 2);
+    model.setCellAlive(3, 2);
+    GenerationSnapshot before = model.getSnapshot();
+    String expected = model.toString();
+
+    model.next();
+    GenerationSnapshot after = model.getSnapshot();
+
+    assertEquals(expected, before.toString());
+    assertEquals(0, before.getGeneration());
+    assertEquals(1, after.getGeneration());
+    assertTrue(after.getVersion() > before.getVersion());
+    assertTrue(after.isCellAlive(2, 1));
+    assertFalse(after.isCellAlive(1, 2));
+    assertEquals(model.getPopulation(), after.getPopulation());
+  }
+
+  @Test
+  public void getSnapshot_whileModelIsLocked_doesNotBlock() throws Exception {
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, WORLD_TOTAL_COLUMNS, WORLD_TOTAL_ROWS);
+      model.getSnapshot();
+      model.setCellAlive(1, 1);
+
+      CountDownLatch locked = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+        synchronized (model) {
+          locked.countDown();
+          awaitQuietly(release);
+        }
+      });
+      try {
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+        GenerationSnapshot snapshot = CompletableFuture.supplyAsync(model::getSnapshot)
+            .get(5, TimeUnit.SECONDS);
+        assertTrue(snapshot.isCellAlive(1, 1), engine);
+        assertEquals(Set.of(new Cell(1, 1)), CompletableFuture.supplyAsync(model::getPopulation)
+            .get(5, TimeUnit.SECONDS), engine);
+      } finally {
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+      }
+    }
+  }
+
+  @Test
+  public void advance_firesOneEventAndEqualsSteppedModel() {
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, 20, 20);
+      Model expected = Engines.createByName(engine, 20, 20);
+      for (Model m : new Model[] {model, expected}) {
+        m.stamp(Shapes.getShapeByName("glider"), 2, 2, Transform.IDENTITY);
+        m.stamp(Shapes.getShapeByName("blinker"), 14, 14, Transform.IDENTITY);
+      }
+      List<PropertyChangeEvent> events = listen(model);
+
+      model.advance(13);
+      for (int i = 0; i < 13; i++) {
+        expected.next();
+      }
+
+      assertEquals(1, events.size(), engine);
+      assertEquals(Model.STATE_CHANGED, events.get(0).getPropertyName(), engine);
+      assertEquals(13, model.getGenerations(), engine);
+      assertEquals(expected.getSnapshot().toString(), model.getSnapshot().toString(), engine);
+    }
+  }
+
+  @Test
+  public void stamp_firesOneEventAndClipsCellsOutsideOfGrid() {
+    Shape glider = Shapes.getShapeByName("glider");
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, WORLD_TOTAL_COLUMNS, WORLD_TOTAL_ROWS);
+      model.setCellAlive(4, 3);
+      List<PropertyChangeEvent> events = listen(model);
+
+      // The rotated glider is .XX / X.X / ..X, its top row lies above the grid
+      model.stamp(glider, 2, -1, Transform.ROTATE_90);
+
+      Set<Cell> expected = Set.of(new Cell(2, 0), new Cell(4, 0), new Cell(4, 1), new Cell(4, 3));
+      assertEquals(expected, new HashSet<>(model.getPopulation()), engine);
+      assertEquals(1, events.size(), engine);
+      GenerationEvent event = (GenerationEvent) events.get(0);
+      assertEquals(Set.of(new Cell(2, 0), new Cell(4, 0), new Cell(4, 1)),
+          new HashSet<>(event.getBirths()), engine);
+    }
+  }
+
+  @Test
+  public void stamp_notifiesListenersWithoutLock() {
+    Shape glider = Shapes.getShapeByName("glider");
+    for (String engine : Engines.getAvailableEngines()) {
+      Model model = Engines.createByName(engine, WORLD_TOTAL_COLUMNS, WORLD_TOTAL_ROWS);
+      List<Boolean> locked = new ArrayList<>();
+      model.addPropertyChangeListener(event -> locked.add(Thread.holdsLock(model)));
+
+      model.stamp(glider, 1, 1, Transform.IDENTITY);
+
+      assertEquals(List.of(false), locked, engine);
+    }
+  }
+
+  @Test
+  public void stamp_acrossWordBoundaries_equalsApplyChanges() {
+    Random random = new Random(7);
+    List<Cell> cells = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      cells.add(new Cell(random.nextInt(150), random.nextInt(30)));
+    }
+    Shape shape = new Shape("soup", 150, 30, cells);
+    for (Transform transform : Transform.values()) {
+      for (int offset : new int[] {61, -37}) {
+        Model expected = new Game(200, 200);
+        Model actual = new BitGridGame(200, 200);
+        List<Cell> placed = new ArrayList<>();
+        shape.transform(transform).forEachCell((col, row) -> {
+          if (col + offset >= 0 && col + offset < 200 && row + 3 < 200) {
+            placed.add(new Cell(col + offset, row + 3));
+          }
+        });
+
+        expected.applyChanges(placed, Collections.emptyList());
+        actual.stamp(shape, offset, 3, transform);
+
+        assertEquals(expected.toString(), actual.toString(), transform + " at " + offset);
+      }
+    }
+  }
+
+  @Test
+  public void setRule_allEnginesAgreeWithNaiveEvaluation() {
+    for (String notation : new String[] {"B36/S23", "B3678/S34678", "B3/S012345678", "B2/S"}) {
+      Rule rule = Rule.parse(notation);
+      // A soup in the middle of the grid, which cannot reach the border within ten generations
+      boolean[][] expected = new boolean[100][100];
+      Random random = new Random(notation.hashCode());
+      for (int row = 30; row < 70; row++) {
+        for (int col = 30; col < 70; col++) {
+          expected[row][col] = random.nextBoolean();
+        }
+      }
+      List<Model> models = new ArrayList<>();
+      for (String engine : Engines.getAvailableEngines()) {
+        Model model = Engines.createByName(engine, 100, 100);
+        for (int row = 0; row < 100; row++) {
+          for (int col = 0; col < 100; col++) {
+            if (expected[row][col]) {
+              model.setCellAlive(col, row);
+            }
+          }
+        }
+        model.setRule(rule);
+        models.add(model);
+      }
+
+      for (int generation = 0; generation < 10; generation++) {
+        expected = nextGeneration(expected, rule);
+        for (Model model : models) {
+          model.next();
+          for (int row = 0; row < 100; row++) {
+            for (int col = 0; col < 100; col++) {
+              assertEquals(expected[row][col], model.isCellAlive(col, row),
+                  notation + " " + model.getClass().getSimpleName());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void setTopology_boundedEnginesAgreeWithNaiveEvaluation() {
+    // Sizes with a partial last word, a single word and a last word that is exactly full
+    int[][] sizes = {{70, 37}, {13, 5}, {128, 20}, {1, 4}};
+    for (Topology topology : Topology.values()) {
+      for (int[] size : sizes) {
+        int columns = size[0];
+        int rows = size[1];
+        boolean[][] expected = new boolean[rows][columns];
+        Random random = new Random(31L * topology.ordinal() + columns);
+        for (int row = 0; row < rows; row++) {
+          for (int col = 0; col < columns; col++) {
+            expected[row][col] = random.nextInt(3) == 0;
+          }
+        }
+        List<Model> models = new ArrayList<>();
+        for (String engine : new String[] {"game", "bitgrid", "parallel", "vector"}) {
+          Model model = Engines.createByName(engine, columns, rows);
+          for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+              if (expected[row][col]) {
+                model.setCellAlive(col, row);
+              }
+            }
+          }
+          model.setTopology(topology);
+          models.add(model);
+        }
+
+        for (int generation = 0; generation < 12; generation++) {
+          expected = nextGeneration(expected, Rule.CONWAY, topology);
+          for (Model model : models) {
+            model.next();
+            for (int row = 0; row < rows; row++) {
+              for (int col = 0; col < columns; col++) {
+                assertEquals(expected[row][col], model.isCellAlive(col, row), topology + " "
+                    + columns + "x" + rows + " " + model.getClass().getSimpleName());
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void next_ashWithLocalActivity_equalsBitGridGame() {
+    for (Topology topology : Topology.values()) {
+      // Still lifes and blinkers all over the board, which only change where the R-pentomino
+      // reaches them
+      Model game = new Game(400, 300);
+      Model expected = new BitGridGame(400, 300);
+      for (Model model : List.of(game, expected)) {
+        model.setTopology(topology);
+        for (int row = 0; row < 300; row += 10) {
+          for (int col = 0; col < 400; col += 10) {
+            String shape = (row + col) % 20 == 0 ? "blinker" : "boat";
+            model.stamp(Shapes.getShapeByName(shape), col + 3, row + 3, Transform.IDENTITY);
+          }
+        }
+        model.applyChanges(List.of(new Cell(1, 0), new Cell(2, 0), new Cell(0, 1), new Cell(1, 1),
+            new Cell(1, 2)), Collections.emptyList());
+      }
+
+      for (int generation = 0; generation < 150; generation++) {
+        game.next();
+        expected.next();
+        assertEquals(expected.toString(), game.toString(), topology + " " + generation);
+      }
+    }
+  }
+
+  @Test
+  public void resize_whileRunning_equalsBitGridGame() {
+    // Shrinking, growing within the former size, and growing beyond it
+    int[][] sizes = {{90, 70}, {60, 80}, {100, 50}, {20, 20}, {150, 120}, {149, 121}};
+    for (Topology topology : Topology.values()) {
+      Model game = new Game(100, 80);
+      Model expected = new BitGridGame(100, 80);
+      Random random = new Random(11);
+      for (int row = 0; row < 80; row++) {
+        for (int col = 0; col < 100; col++) {
+          if (random.nextInt(3) == 0) {
+            game.setCellAlive(col, row);
+            expected.setCellAlive(col, row);
+          }
+        }
+      }
+      game.setTopology(topology);
+      expected.setTopology(topology);
+
+      for (int[] size : sizes) {
+        game.resize(size[0], size[1]);
+        expected.resize(size[0], size[1]);
+        assertEquals(expected.toString(), game.toString(), topology + " " + size[0]);
+        for (int generation = 0; generation < 5; generation++) {
+          game.next();
+          expected.next();
+          assertEquals(expected.toString(), game.toString(), topology + " " + size[0]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void setTopology_torus_gliderReturnsAfterCrossingEdges() {
+    for (String engine : new String[] {"game", "bitgrid"}) {
+      Model model = Engines.createByName(engine, 8, 8);
+      model.setTopology(Topology.TORUS);
+      model.stamp(Shapes.getShapeByName("glider"), 0, 0, Transform.IDENTITY);
+      String start = model.toString();
+
+      // The glider moves one cell diagonally every four generations
+      model.advance(32);
+
+      assertEquals(start, model.toString(), engine);
+      assertEquals(5, model.getPopulation().size(), engine);
+    }
+  }
+
+  @Test
+  public void setTopology_unboundedUniverse_throwsException() {
+    for (String engine : new String[] {"sparse", "hashlife"}) {
+      Model model = Engines.createByName(engine, 10, 10);
+      model.setTopology(Topology.DEAD_EDGE);
+      try {
+        model.setTopology(Topology.TORUS);
+        fail("An unbounded universe has no edges to join");
+      } catch (UnsupportedOperationException e) {
+        assertEquals("The universe has no edges", e.getMessage());
+      }
+      assertEquals(Topology.DEAD_EDGE, model.getTopology());
+    }
+  }
+
+  private static boolean[][] nextGeneration(boolean[][] cells, Rule rule) {
+    return nextGeneration(cells, rule, Topology.DEAD_EDGE);
+  }
+
+  private static boolean[][] nextGeneration(boolean[][] cells, Rule rule, Topology topology) {
+    int columns = cells[0].length;
+    int rows = cells.length;
+    boolean[][] next = new boolean[rows][columns];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < columns; col++) {
+        int neighbors = 0;
+        for (int y = row - 1; y <= row + 1; y++) {
+          for (int x = col - 1; x <= col + 1; x++) {
+            int index = topology.map(x, y, columns, rows);
+            if ((x != col || y != row) && index >= 0 && cells[index / columns][index % columns]) {
+              neighbors++;
+            }
+          }
+        }
+        next[row][col] = rule.nextState(cells[row][col], neighbors);
+      }
+    }
+    return next;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the parsing and evaluation of a {@link Rule}.
+ */
+public class RuleTest {
+
+  @Test
+  public void parse_conway_equalsConstant() {
+    assertEquals(Rule.CONWAY, Rule.parse("B3/S23"));
+    assertEquals(Rule.CONWAY, Rule.parse("b3/s32"));
+    assertEquals(Rule.CONWAY, Rule.parse("S23/B3"));
+    assertEquals(Rule.CONWAY, Rule.parse("23/3"));
+  }
+
+  @Test
+  public void parse_highLife_bornWithSixNeighbors() {
+    Rule rule = Rule.parse("B36/S23");
+
+    assertEquals("B36/S23", rule.toString());
+    assertTrue(rule.nextState(false, 6));
+    assertFalse(rule.nextState(true, 6));
+    assertTrue(rule.nextState(true, 2));
+    assertFalse(rule.nextState(false, 2));
+  }
+
+  @Test
+  public void parse_emptySurvivals_noCellSurvives() {
+    Rule seeds = Rule.parse("B2/S");
+
+    assertEquals("B2/S", seeds.toString());
+    for (int neighbors = 0; neighbors <= 8; neighbors++) {
+      assertFalse(seeds.survives(neighbors));
+    }
+  }
+
+  @Test
+  public void parse_whenCountIsNine_throwsException() {
+    try {
+      Rule.parse("B39/S23");
+      fail("Nine neighbors should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The rule is not recognized", e.getMessage());
+    }
+  }
+
+  @Test
+  public void parse_whenBornWithoutNeighbors_throwsException() {
+    try {
+      Rule.parse("B03/S23");
+      fail("Births without neighbors should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Rules with births without living neighbors are not supported",
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void circuit_everyCountAndState_agreesWithNextState() {
+    for (String notation : new String[] {"B3/S23", "B36/S23", "B3678/S34678", "B2/S", "B1/S8",
+        "B12345678/S012345678"}) {
+      Rule rule = Rule.parse(notation);
+      RuleCircuit circuit = new RuleCircuit(rule);
+      // Bit 2 * count + state of the words holds a cell with that count and state.
+      long alive = 0;
+      long[] counts = new long[4];
+      for (int bit = 0; bit < 18; bit++) {
+        alive |= (long) (bit & 1) << bit;
+        for (int slice = 0; slice < counts.length; slice++) {
+          counts[slice] |= (long) ((bit >> 1) >> slice & 1) << bit;
+        }
+      }
+
+      long next = circuit.apply(alive, counts[0], counts[1], counts[2], counts[3]);
+
+      for (int bit = 0; bit < 18; bit++) {
+        assertEquals(rule.nextState((bit & 1) == 1, bit >> 1), (next >> bit & 1) == 1,
+            notation + " with " + (bit >> 1) + " neighbors");
+      }
+    }
+  }
+}
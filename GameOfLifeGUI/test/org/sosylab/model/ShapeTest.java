@@ -0,0 +1,86 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the packed {@link Shape} and its {@link Transform transforms}.
+ */
+public class ShapeTest {
+
+  // .X. / ..X / XXX
+  private static final Shape GLIDER = new Shape("glider",
+      new int[][]{{0, 1, 0}, {0, 0, 1}, {1, 1, 1}});
+
+  // XX. / ... in two rows and three columns
+  private static final Shape DOMINO = new Shape("domino", new int[][]{{1, 1, 0}, {0, 0, 0}});
+
+  @Test
+  public void transform_rotations_turnClockwise() {
+    assertEquals(Set.of(new Cell(1, 0), new Cell(1, 1)),
+        DOMINO.transform(Transform.ROTATE_90).getShapePopulation());
+    assertEquals(Set.of(new Cell(1, 1), new Cell(2, 1)),
+        DOMINO.transform(Transform.ROTATE_180).getShapePopulation());
+    assertEquals(Set.of(new Cell(0, 1), new Cell(0, 2)),
+        DOMINO.transform(Transform.ROTATE_270).getShapePopulation());
+  }
+
+  @Test
+  public void transform_swapsDimensionsOfQuarterTurns() {
+    for (Transform transform : Transform.values()) {
+      Shape transformed = DOMINO.transform(transform);
+      int expectedColumns = transform.swapsDimensions() ? 2 : 3;
+
+      assertEquals(expectedColumns, transformed.getColumns(), transform.name());
+      assertEquals(5 - expectedColumns, transformed.getRows(), transform.name());
+      assertEquals(2, transformed.getCellCount(), transform.name());
+    }
+  }
+
+  @Test
+  public void transform_reflections_equalRotationsOfFlippedShape() {
+    Shape flipped = GLIDER.transform(Transform.FLIP_HORIZONTAL);
+
+    assertEquals(flipped.transform(Transform.ROTATE_90).getShapePopulation(),
+        GLIDER.transform(Transform.ANTI_TRANSPOSE).getShapePopulation());
+    assertEquals(flipped.transform(Transform.ROTATE_270).getShapePopulation(),
+        GLIDER.transform(Transform.TRANSPOSE).getShapePopulation());
+    assertEquals(flipped.transform(Transform.ROTATE_180).getShapePopulation(),
+        GLIDER.transform(Transform.FLIP_VERTICAL).getShapePopulation());
+  }
+
+  @Test
+  public void transform_isCached() {
+    assertSame(GLIDER, GLIDER.transform(Transform.IDENTITY));
+    assertSame(GLIDER.transform(Transform.ROTATE_90), GLIDER.transform(Transform.ROTATE_90));
+  }
+
+  @Test
+  public void builder_cellsBeyondCapacity_keepAllCells() {
+    Shape.Builder builder = new Shape.Builder();
+    builder.accept(1, 0);
+    builder.accept(63, 2);
+    builder.accept(200, 1);
+    builder.accept(5, 130);
+
+    Shape shape = builder.build("sparse", 10, 300);
+
+    assertEquals("sparse", shape.getName());
+    assertEquals(201, shape.getColumns());
+    assertEquals(300, shape.getRows());
+    assertEquals(Set.of(new Cell(1, 0), new Cell(63, 2), new Cell(200, 1), new Cell(5, 130)),
+        shape.getShapePopulation());
+  }
+
+  @Test
+  public void builder_withoutCells_buildsSingleDeadCell() {
+    Shape shape = new Shape.Builder().build("empty", 0, 0);
+
+    assertEquals(1, shape.getColumns());
+    assertEquals(1, shape.getRows());
+    assertEquals(0, shape.getCellCount());
+  }
+}
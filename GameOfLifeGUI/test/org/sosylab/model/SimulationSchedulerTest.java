@@ -0,0 +1,120 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link SimulationScheduler}.
+ */
+public class SimulationSchedulerTest {
+
+  private SimulationScheduler scheduler;
+
+  @AfterEach
+  public void shutDown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  public void requestStep_computesOneGeneration() throws InterruptedException {
+    Game game = new Game(5, 5);
+    CountDownLatch stepped = new CountDownLatch(1);
+    game.addPropertyChangeListener(e -> stepped.countDown());
+    scheduler = new SimulationScheduler(game);
+
+    scheduler.requestStep();
+
+    assertTrue(stepped.await(5, TimeUnit.SECONDS));
+    assertEquals(1, game.getGenerations());
+    assertFalse(scheduler.isRunning());
+  }
+
+  @Test
+  public void start_whenGenerationsAreSlow_dropsTicksInsteadOfOverlapping() throws Exception {
+    SlowGame game = new SlowGame(20);
+    scheduler = new SimulationScheduler(game);
+    scheduler.setTargetRate(200);
+
+    scheduler.start();
+    Thread.sleep(300);
+    scheduler.stop();
+
+    assertEquals(1, game.maxConcurrentSteps.get());
+    assertTrue(game.getGenerations() > 0);
+    assertTrue(scheduler.getDroppedSteps() > 0);
+  }
+
+  @Test
+  public void start_asFastAsPossible_computesManyGenerations() throws Exception {
+    Game game = new Game(5, 5);
+    scheduler = new SimulationScheduler(game);
+    scheduler.setMode(SimulationScheduler.Mode.AS_FAST_AS_POSSIBLE);
+
+    scheduler.start();
+    Thread.sleep(200);
+    scheduler.stop();
+
+    assertTrue(game.getGenerations() > 100);
+    assertEquals(Double.POSITIVE_INFINITY, scheduler.getTargetRate());
+  }
+
+  @Test
+  public void setTargetRate_whenNotPositive_throwsException() {
+    scheduler = new SimulationScheduler(new Game(5, 5));
+    try {
+      scheduler.setTargetRate(0);
+      fail("A rate of zero should throw an exception");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void start_afterShutdown_throwsException() {
+    scheduler = new SimulationScheduler(new Game(5, 5));
+    scheduler.shutdown();
+    try {
+      scheduler.start();
+      fail("Starting a scheduler that has been shut down should throw an exception");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * A game whose generations take a fixed time and that records how many of them overlap.
+   */
+  private static class SlowGame extends Game {
+
+    private final long millis;
+    private final AtomicInteger concurrentSteps = new AtomicInteger();
+    private final AtomicInteger maxConcurrentSteps = new AtomicInteger();
+
+    SlowGame(long millis) {
+      super(5, 5);
+      this.millis = millis;
+    }
+
+    @Override
+    public void next() {
+      maxConcurrentSteps.accumulateAndGet(concurrentSteps.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      super.next();
+      concurrentSteps.decrementAndGet();
+    }
+  }
+}
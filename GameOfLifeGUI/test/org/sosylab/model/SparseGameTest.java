@@ -0,0 +1,102 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the {@link GridTest} suite against {@link SparseGame} and compares its generations with
+ * {@link Game}.
+ */
+public class SparseGameTest extends GridTest {
+
+  @Override
+  Grid newWorld(int col, int row) {
+    return new SparseGame(col, row);
+  }
+
+  @Test
+  public void next_randomSoupAwayFromEdges_equalsGame() {
+    Game expected = new Game(60, 60);
+    SparseGame actual = new SparseGame(60, 60);
+    Random random = new Random(42);
+    for (int row = 20; row < 40; row++) {
+      for (int col = 20; col < 40; col++) {
+        if (random.nextBoolean()) {
+          expected.setCellAlive(col, row);
+          actual.setCellAlive(col, row);
+        }
+      }
+    }
+
+    // The soup does not reach the edges of the bounded game within these generations
+    for (int i = 0; i < 15; i++) {
+      expected.next();
+      actual.next();
+      assertEquals(expected.toString(), actual.toString());
+    }
+  }
+
+  @Test
+  public void next_whenPatternLeavesGrid_keepsItInUniverse() {
+    SparseGame world = new SparseGame(10, 10);
+    placeGlider(world, 4, 4);
+
+    for (int i = 0; i < 100; i++) {
+      world.next();
+    }
+
+    assertEquals(0, world.getPopulation().size());
+    assertEquals(5, world.getUniversePopulation());
+  }
+
+  @Test
+  public void moveViewport_followsGlider() {
+    SparseGame world = new SparseGame(10, 10);
+    placeGlider(world, 4, 4);
+    String start = world.toString();
+
+    // The glider moves one cell up and left every four generations
+    for (int i = 0; i < 400; i++) {
+      world.next();
+    }
+    world.moveViewport(-100, -100);
+
+    assertEquals(start, world.toString());
+    assertEquals(-100, world.getViewportColumn());
+    assertEquals(-100, world.getViewportRow());
+  }
+
+  @Test
+  public void resize_doesNotRemoveCells() {
+    SparseGame world = new SparseGame(10, 10);
+    world.setCellAlive(8, 8);
+
+    world.resize(5, 5);
+    world.resize(10, 10);
+
+    assertTrue(world.isCellAlive(8, 8));
+  }
+
+  @Test
+  public void moveViewport_whenBounded_throwsException() {
+    Grid world = new Game(10, 10);
+    assertFalse(world.isUnbounded());
+    try {
+      world.moveViewport(1, 1);
+      fail("moveViewport on a bounded grid should throw an exception");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  private void placeGlider(Model model, int offsetColumns, int offsetRows) {
+    for (Cell cell : Shapes.getShapeByName("glider").getShapePopulation()) {
+      model.setCellAlive(cell.getColumn() + offsetColumns, cell.getRow() + offsetRows);
+    }
+  }
+}
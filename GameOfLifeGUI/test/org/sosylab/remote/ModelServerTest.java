@@ -0,0 +1,235 @@
+package org.sosylab.remote;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.time.Duration;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sosylab.model.BitGridGame;
+import org.sosylab.model.Game;
+import org.sosylab.model.GenerationSnapshot;
+import org.sosylab.model.Model;
+
+/**
+ * Tests for the {@link ModelServer}.
+ */
+public class ModelServerTest {
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private ModelServer server;
+
+  @AfterEach
+  public void stopServer() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void post_changesModelAndReturnsState() throws Exception {
+    Game game = new Game(10, 10);
+    startServer(game);
+
+    post("/cells", "3 4\n4 4\n5 4\n");
+    assertTrue(game.isCellAlive(4, 4));
+    HttpResponse<String> response = post("/step?generations=3", "");
+
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"columns\":10,\"rows\":10,\"generation\":3,\"population\":3,"
+        + "\"rule\":\"B3/S23\",\"topology\":\"DEAD_EDGE\",\"viewers\":0}", response.body());
+    assertTrue(game.isCellAlive(4, 5));
+
+    post("/resize?columns=30&rows=20", "");
+    post("/shape?name=glider&col=10&row=10&transform=rotate_90", "");
+    post("/shape?format=rle&col=20&row=0", "x = 2, y = 2\n2o$2o!");
+    post("/cells?alive=false", "4 3\n4 4\n4 5\n");
+
+    assertEquals(30, game.getColumns());
+    assertEquals(20, game.getRows());
+    assertEquals(9, game.getPopulation().size());
+    assertTrue(game.isCellAlive(21, 1));
+  }
+
+  @Test
+  public void request_whenInvalid_returnsReason() throws Exception {
+    startServer(new Game(10, 10));
+
+    HttpResponse<String> response = post("/cells", "10 0");
+    assertEquals(400, response.statusCode());
+    assertEquals("Parameters for column and row may not exceed the maximum number of columns and "
+        + "rows", response.body());
+
+    assertEquals("The parameter generations must be a number",
+        post("/step?generations=many", "").body());
+    HttpResponse<String> tooMany = post("/step?generations="
+        + (ModelServer.MAX_STEP_GENERATIONS + 1), "");
+    assertEquals(400, tooMany.statusCode());
+    assertEquals("The parameter generations may not exceed " + ModelServer.MAX_STEP_GENERATIONS,
+        tooMany.body());
+    assertEquals("The parameter rows is missing", post("/resize?columns=5", "").body());
+    assertEquals("The shape is not recognized", post("/shape?name=unicorn", "").body());
+    assertEquals(405, get("/step").statusCode());
+    assertEquals(404, get("/unknown").statusCode());
+  }
+
+  @Test
+  public void stream_framesReproduceModel() throws Exception {
+    Model model = soup(new BitGridGame(100, 70), 3);
+    startServer(model);
+
+    try (InputStream stream = openStream()) {
+      GenerationSnapshot first = readFrame(stream, null);
+      assertEquals(0, first.getGeneration());
+      assertEquals(1, server.getViewers());
+
+      for (int i = 0; i < 50; i++) {
+        model.next();
+      }
+      GenerationSnapshot current = first;
+      while (current.getGeneration() < 50) {
+        current = readFrame(stream, current);
+      }
+      assertEquals(model.getSnapshot().toString(), current.toString());
+
+      model.resize(40, 30);
+      current = readFrame(stream, current);
+      assertEquals(40, current.getColumns());
+      assertEquals(model.getSnapshot().toString(), current.toString());
+    }
+  }
+
+  @Test
+  public void stream_whenViewerDoesNotRead_dropsFramesWithoutBlocking() throws Exception {
+    Model model = soup(new BitGridGame(256, 256), 5);
+    startServer(model);
+
+    try (InputStream stream = openStream()) {
+      readFrame(stream, null);
+      assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+        for (int i = 0; i < 5000; i++) {
+          model.next();
+        }
+      });
+    }
+
+    assertTrue(server.getDroppedFrames() > 0);
+    assertTrue(server.getSentFrames() < 5000);
+  }
+
+  @Test
+  public void stream_whenTooManyViewers_isRejected() throws Exception {
+    Game game = new Game(10, 10);
+    server = new ModelServer(game, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+    server.start();
+
+    try (InputStream stream = openStream()) {
+      readFrame(stream, null);
+      assertEquals(503, get("/stream").statusCode());
+    }
+  }
+
+  @Test
+  public void constructor_whenViewersAreNotPositive_throwsException() throws IOException {
+    try {
+      new ModelServer(new Game(10, 10), null, 0);
+      fail("Zero viewers should throw an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of viewers must be positive", e.getMessage());
+    }
+  }
+
+  private void startServer(Model model) throws IOException {
+    server = new ModelServer(model, 0);
+    server.start();
+  }
+
+  private HttpResponse<String> post(String path, String body)
+      throws IOException, InterruptedException {
+    return client.send(HttpRequest.newBuilder(uri(path))
+        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return client.send(HttpRequest.newBuilder(uri(path)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private InputStream openStream() throws IOException, InterruptedException {
+    HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri("/stream"))
+        .build(), HttpResponse.BodyHandlers.ofInputStream());
+    assertEquals(200, response.statusCode());
+    return response.body();
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + server.getPort() + path);
+  }
+
+  private static Model soup(Model model, int seed) {
+    Random random = new Random(seed);
+    for (int row = 0; row < model.getRows(); row++) {
+      for (int col = 0; col < model.getColumns(); col++) {
+        if (random.nextDouble() < 0.3) {
+          model.setCellAlive(col, row);
+        }
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Reads a frame and applies it to the snapshot of the frame before, as a viewer would.
+   */
+  private static GenerationSnapshot readFrame(InputStream stream, GenerationSnapshot previous)
+      throws IOException {
+    ByteBuffer length = read(stream, Integer.BYTES);
+    ByteBuffer frame = read(stream, length.getInt());
+    byte type = frame.get();
+    int columns = frame.getInt();
+    int rows = frame.getInt();
+    long generation = frame.getLong();
+    int count = frame.getInt();
+    long[] words;
+    if (type == DeltaFrames.KEY_FRAME) {
+      words = new long[count];
+      frame.asLongBuffer().get(words);
+    } else {
+      assertEquals(DeltaFrames.DELTA_FRAME, type);
+      LongBuffer previousWords = previous.getWords();
+      words = new long[previousWords.remaining()];
+      previousWords.get(words);
+      for (int i = 0; i < count; i++) {
+        int index = frame.getInt();
+        words[index] ^= frame.getLong();
+      }
+    }
+    assertEquals(GenerationSnapshot.wordsPerRow(columns) * rows, words.length);
+    GenerationSnapshot snapshot = GenerationSnapshot.fromWords(columns, rows, generation,
+        LongBuffer.wrap(words));
+    return snapshot;
+  }
+
+  private static ByteBuffer read(InputStream stream, int size) throws IOException {
+    byte[] bytes = stream.readNBytes(size);
+    if (bytes.length < size) {
+      fail("The stream has ended");
+    }
+    return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
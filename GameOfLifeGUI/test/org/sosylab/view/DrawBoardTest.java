@@ -0,0 +1,67 @@
+package org.sosylab.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sosylab.model.Cell;
+import org.sosylab.model.Game;
+
+/**
+ * Tests which areas the {@link DrawBoard} repaints after cells have changed.
+ */
+public class DrawBoardTest {
+
+  @Test
+  public void repaintCells_distantChanges_repaintsOnlyTheirAreas() {
+    RecordingDrawBoard board = new RecordingDrawBoard(new Game(300, 200));
+    board.repaints.clear();
+
+    board.repaintCells(List.of(new Cell(0, 0), new Cell(1, 1), new Cell(299, 199)), true);
+
+    int step = board.getCellSize() + DrawBoard.BORDER_SIZE;
+    assertEquals(2, board.repaints.size());
+    assertTrue(board.repaints.contains(new Rectangle(DrawBoard.BORDER_SIZE,
+        DrawBoard.BORDER_SIZE, 2 * step, 2 * step)));
+    assertTrue(board.repaints.contains(new Rectangle(DrawBoard.BORDER_SIZE + 299 * step,
+        DrawBoard.BORDER_SIZE + 199 * step, step, step)));
+  }
+
+  @Test
+  public void repaintCells_changesWithinTile_areRepaintedTogether() {
+    RecordingDrawBoard board = new RecordingDrawBoard(new Game(300, 200));
+    board.repaints.clear();
+
+    board.repaintCells(List.of(new Cell(17, 16), new Cell(20, 18), new Cell(18, 31)), false);
+
+    int step = board.getCellSize() + DrawBoard.BORDER_SIZE;
+    assertEquals(List.of(new Rectangle(DrawBoard.BORDER_SIZE + 17 * step,
+        DrawBoard.BORDER_SIZE + 16 * step, 4 * step, 16 * step)), board.repaints);
+  }
+
+  /**
+   * A draw board that records the areas it is asked to repaint instead of repainting them.
+   */
+  private static final class RecordingDrawBoard extends DrawBoard {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<Rectangle> repaints = new ArrayList<>();
+
+    private RecordingDrawBoard(Game game) {
+      super(game, null);
+    }
+
+    @Override
+    public void repaint(long time, int x, int y, int width, int height) {
+      if (repaints != null) {
+        repaints.add(new Rectangle(x, y, width, height));
+      }
+    }
+  }
+}
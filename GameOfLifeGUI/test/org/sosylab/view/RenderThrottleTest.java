@@ -0,0 +1,50 @@
+package org.sosylab.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sosylab.model.Game;
+import org.sosylab.model.GenerationEvent;
+
+/**
+ * Tests how the {@link RenderThrottle} coalesces the events of the model into frames.
+ */
+public class RenderThrottleTest {
+
+  private final List<GenerationEvent> changedCells = new ArrayList<>();
+  private final List<Boolean> fullRepaints = new ArrayList<>();
+  private final RenderThrottle throttle = new RenderThrottle(60, changedCells::add,
+      () -> fullRepaints.add(true), new RenderStatistics());
+
+  @Test
+  public void renderFrame_withSingleEvent_repaintsChangedCells() {
+    GenerationEvent event = newEvent(1);
+    throttle.submit(event);
+
+    throttle.renderFrame();
+
+    assertEquals(1, changedCells.size());
+    assertSame(event, changedCells.get(0));
+    assertEquals(0, fullRepaints.size());
+  }
+
+  @Test
+  public void renderFrame_withSeveralEvents_repaintsAllOnce() {
+    for (int generation = 1; generation <= 100; generation++) {
+      throttle.submit(newEvent(generation));
+    }
+
+    throttle.renderFrame();
+    throttle.renderFrame();
+
+    assertEquals(0, changedCells.size());
+    assertEquals(1, fullRepaints.size());
+  }
+
+  private GenerationEvent newEvent(long generation) {
+    return new GenerationEvent(new Game(5, 5), generation, List.of(), List.of());
+  }
+}
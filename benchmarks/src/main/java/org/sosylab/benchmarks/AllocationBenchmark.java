@@ -0,0 +1,70 @@
+package org.sosylab.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+
+/**
+ * Measures the allocations of computing a generation without any attached listener, which is the
+ * steady state of a simulation that is not shown. Run it with the GC profiler to see the bytes
+ * allocated per generation:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar AllocationBenchmark -prof gc
+ * </pre>
+ *
+ * <p>The figure of interest is <code>gc.alloc.rate.norm</code>, which should be close to zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+  @Param({"game", "bitgrid", "sparse"})
+  public String engine;
+
+  /**
+   * Size of the board; a soup of 1024 x 1024 cells with a density of 0.1 holds about 100k living
+   * cells.
+   */
+  @Param({"1024"})
+  public int size;
+
+  private Model model;
+
+  /**
+   * Creates the soup once, so that the allocations of filling it do not distort the figures of the
+   * measured generations.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    model = Engines.createByName(engine, size, size);
+    Soups.fill(model, 0.1);
+  }
+
+  /**
+   * Computes the next generation.
+   *
+   * @return the model, so that the computation is not eliminated
+   */
+  @Benchmark
+  public Model next() {
+    model.next();
+    return model;
+  }
+}
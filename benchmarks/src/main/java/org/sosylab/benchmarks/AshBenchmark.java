@@ -0,0 +1,64 @@
+package org.sosylab.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+
+/**
+ * Benchmarks the generations of a board that has mostly settled into ash, i.e. still lifes and
+ * oscillators with little activity left, which is how most random soups end up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AshBenchmark {
+
+  @Param({"game", "bitgrid"})
+  public String engine;
+
+  @Param({"512", "1024"})
+  public int size;
+
+  /**
+   * The number of generations the soup runs before the measurement, so that it has settled.
+   */
+  @Param({"10000"})
+  public int settle;
+
+  private Model model;
+
+  /**
+   * Creates a soup and lets it settle.
+   */
+  @Setup
+  public void setUp() {
+    model = Engines.createByName(engine, size, size);
+    Soups.fill(model, 0.3);
+    model.advance(settle);
+  }
+
+  /**
+   * Computes the next generation.
+   *
+   * @return the model, so that the computation is not eliminated
+   */
+  @Benchmark
+  public Model next() {
+    model.next();
+    return model;
+  }
+}
@@ -0,0 +1,51 @@
+package org.sosylab.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the usual JMH command line options. Unless a result format is given
+ * with <code>-rf</code>, the results are written as JSON to {@link #DEFAULT_RESULT_FILE}, so that
+ * runs can be compared with each other.
+ */
+public class BenchmarkMain {
+
+  /**
+   * The file the results are written to if no other file is given with <code>-rff</code>.
+   */
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args JMH command line options
+   * @throws CommandLineOptionException if the options cannot be parsed
+   * @throws RunnerException            if a benchmark fails
+   * @throws IOException                if the benchmark list cannot be read
+   */
+  public static void main(String[] args)
+      throws CommandLineOptionException, RunnerException, IOException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp() || commandLine.shouldList()
+        || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+      Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+      if (!commandLine.getResult().hasValue()) {
+        options.result(DEFAULT_RESULT_FILE);
+      }
+    }
+    new Runner(options.build()).run();
+  }
+}
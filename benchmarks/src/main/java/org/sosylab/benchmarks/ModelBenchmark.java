@@ -0,0 +1,115 @@
+package org.sosylab.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.model.Cell;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+import org.sosylab.model.Rule;
+import org.sosylab.model.Topology;
+
+/**
+ * Benchmarks the hot paths of the model engines on random soups of several sizes and densities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+  @Param({"game", "bitgrid"})
+  public String engine;
+
+  @Param({"64", "256", "1024"})
+  public int size;
+
+  @Param({"0.1", "0.3", "0.5"})
+  public double density;
+
+  /**
+   * The rule of the game; other rules can be compared with e.g. <code>-p rule=B36/S23</code>.
+   */
+  @Param({"B3/S23"})
+  public String rule;
+
+  /**
+   * The way the edges are joined; the others can be compared with e.g.
+   * <code>-p topology=TORUS</code>.
+   */
+  @Param({"DEAD_EDGE"})
+  public String topology;
+
+  private Model model;
+  private boolean shrunk;
+
+  /**
+   * Creates a fresh soup for every iteration, so that the measured generations do not drift too far
+   * away from the initial density.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    model = Engines.createByName(engine, size, size);
+    model.setRule(Rule.parse(rule));
+    model.setTopology(Topology.valueOf(topology));
+    Soups.fill(model, density);
+    shrunk = false;
+  }
+
+  /**
+   * Computes the next generation.
+   *
+   * @return the model, so that the computation is not eliminated
+   */
+  @Benchmark
+  public Model next() {
+    model.next();
+    return model;
+  }
+
+  /**
+   * Copies the living cells.
+   *
+   * @return the population
+   */
+  @Benchmark
+  public Collection<Cell> getPopulation() {
+    return model.getPopulation();
+  }
+
+  /**
+   * Copies the living cells into packed primitives.
+   *
+   * @return the packed cells
+   */
+  @Benchmark
+  public long[] getPackedLiveCells() {
+    return model.getPackedLiveCells();
+  }
+
+  /**
+   * Alternately shrinks the board by one column and row and grows it back to its original size.
+   *
+   * @return the model, so that the resize is not eliminated
+   */
+  @Benchmark
+  public Model resize() {
+    int newSize = shrunk ? size : size - 1;
+    model.resize(newSize, newSize);
+    shrunk = !shrunk;
+    return model;
+  }
+}
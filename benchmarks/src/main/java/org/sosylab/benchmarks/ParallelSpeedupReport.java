@@ -0,0 +1,51 @@
+package org.sosylab.benchmarks;
+
+import org.sosylab.model.BitGridGame;
+
+/**
+ * Prints the time per generation of {@link BitGridGame} for several parallelism levels and the
+ * speedup relative to a single thread.
+ *
+ * <p>Usage: <code>ParallelSpeedupReport [size] [generations]</code>, the board is square and has a
+ * side length of 4096 cells by default.
+ */
+public class ParallelSpeedupReport {
+
+  private static final int[] PARALLELISM_LEVELS = {1, 2, 4, 8};
+  private static final int WARMUP_GENERATIONS = 5;
+  private static final double DENSITY = 0.3;
+
+  /**
+   * Runs the report.
+   *
+   * @param args optional board size and number of measured generations
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+    int generations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    System.out.printf("Board %dx%d, density %.2f, %d generations, %d available processors%n",
+        size, size, DENSITY, generations, Runtime.getRuntime().availableProcessors());
+    System.out.printf("%8s %12s %8s %12s%n", "threads", "ms/gen", "speedup", "population");
+
+    double baseline = 0;
+    for (int parallelism : PARALLELISM_LEVELS) {
+      BitGridGame game = new BitGridGame(size, size, parallelism);
+      Soups.fill(game, DENSITY);
+      for (int i = 0; i < WARMUP_GENERATIONS; i++) {
+        game.next();
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < generations; i++) {
+        game.next();
+      }
+      double millis = (System.nanoTime() - start) / 1e6 / generations;
+      if (parallelism == 1) {
+        baseline = millis;
+      }
+      System.out.printf("%8d %12.2f %8.2f %12d%n", parallelism, millis, baseline / millis,
+          game.getPopulation().size());
+      game.setParallelism(1); // releases the worker threads
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.sosylab.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.model.BitGridGame;
+import org.sosylab.model.Engines;
+import org.sosylab.model.Model;
+import org.sosylab.model.Shape;
+import org.sosylab.model.Shapes;
+import org.sosylab.view.GameOfLifeController;
+
+/**
+ * Benchmarks the placement of shapes through the controller: the built-in shapes and a soup of
+ * 1024 by 1024 cells, which stands for a large imported pattern.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+  @Param({"game", "bitgrid"})
+  public String engine;
+
+  @Param({"glider", "pulsar", "soup"})
+  public String shape;
+
+  private Model model;
+  private GameOfLifeController controller;
+  private Shape selectedShape;
+
+  /**
+   * Creates an empty board, a controller for it and the shape.
+   */
+  @Setup
+  public void setUp() {
+    model = Engines.createByName(engine, 2048, 2048);
+    controller = new GameOfLifeController(model);
+    if (shape.equals("soup")) {
+      BitGridGame soup = new BitGridGame(1024, 1024);
+      Soups.fill(soup, 0.3);
+      selectedShape = new Shape("soup", 1024, 1024, soup.getPopulation());
+    } else {
+      selectedShape = Shapes.getShapeByName(shape);
+    }
+  }
+
+  /**
+   * Places the shape in the middle of the board.
+   *
+   * @return the model, so that the placement is not eliminated
+   */
+  @Benchmark
+  public Model placeShape() {
+    controller.placeShape(selectedShape);
+    return model;
+  }
+}
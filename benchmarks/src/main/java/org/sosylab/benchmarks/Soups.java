@@ -0,0 +1,35 @@
+package org.sosylab.benchmarks;
+
+import java.util.Random;
+import org.sosylab.model.Grid;
+
+/**
+ * Creates reproducible random starting populations for the benchmarks.
+ */
+public class Soups {
+
+  /**
+   * Seed of the random soups, so that every run measures the same boards.
+   */
+  public static final long SEED = 42;
+
+  private Soups() {
+  }
+
+  /**
+   * Sets cells of the grid alive at random.
+   *
+   * @param grid    the grid to fill
+   * @param density the probability of a cell to be alive
+   */
+  public static void fill(Grid grid, double density) {
+    Random random = new Random(SEED);
+    for (int row = 0; row < grid.getRows(); row++) {
+      for (int col = 0; col < grid.getColumns(); col++) {
+        if (random.nextDouble() < density) {
+          grid.setCellAlive(col, row);
+        }
+      }
+    }
+  }
+}
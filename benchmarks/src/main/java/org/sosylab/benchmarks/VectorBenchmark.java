@@ -0,0 +1,98 @@
+package org.sosylab.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.model.BitGridGame;
+import org.sosylab.model.Rule;
+
+/**
+ * Compares the throughput of {@link BitGridGame} with and without the Vector API in cells per
+ * nanosecond, reported as the secondary result <code>next:cells</code>. The forked JVM adds the
+ * incubator module, so that the vectorized game actually uses vectors if the processor supports
+ * them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorBenchmark {
+
+  @Param({"false", "true"})
+  public boolean vectorized;
+
+  @Param({"256", "1024", "4096"})
+  public int size;
+
+  /**
+   * The rule of the game: Conway's rule has a path of its own, other rules such as HighLife are
+   * computed by the evaluator that is prepared when the rule is set.
+   */
+  @Param({"B3/S23", "B36/S23"})
+  public String rule;
+
+  private BitGridGame game;
+
+  /**
+   * Counts the cells whose next generation has been computed.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class CellCounter {
+
+    /**
+     * The number of computed cells.
+     */
+    public long cells;
+
+    /**
+     * Resets the counter before every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      cells = 0;
+    }
+  }
+
+  /**
+   * Creates a random soup.
+   *
+   * @throws IllegalStateException if vectors are requested but not available
+   */
+  @Setup
+  public void setUp() {
+    game = new BitGridGame(size, size);
+    game.setRule(Rule.parse(rule));
+    game.setVectorized(vectorized);
+    if (game.isVectorized() != vectorized) {
+      throw new IllegalStateException("The Vector API is not available");
+    }
+    Soups.fill(game, 0.3);
+  }
+
+  /**
+   * Computes the next generation.
+   *
+   * @param counter counts the computed cells
+   * @return the game, so that the computation is not eliminated
+   */
+  @Benchmark
+  public BitGridGame next(CellCounter counter) {
+    game.next();
+    counter.cells += (long) size * size;
+    return game;
+  }
+}
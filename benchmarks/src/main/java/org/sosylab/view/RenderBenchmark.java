@@ -0,0 +1,82 @@
+package org.sosylab.view;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosylab.benchmarks.Soups;
+import org.sosylab.model.Game;
+import org.sosylab.model.Model;
+
+/**
+ * Benchmarks painting the {@link DrawBoard} headless into a {@link BufferedImage}. It lives in the
+ * package of the view to reach the package-private render settings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+  @Param({"cells", "image"})
+  public String renderMode;
+
+  @Param({"big", "small"})
+  public String cellSize;
+
+  @Param({"0.3"})
+  public double density;
+
+  private DrawBoard drawBoard;
+  private BufferedImage target;
+  private Graphics2D graphics;
+
+  /**
+   * Creates a 300x200 board with a random soup and a draw board for it.
+   */
+  @Setup
+  public void setUp() {
+    Model model = new Game(300, 200);
+    Soups.fill(model, density);
+    drawBoard = new DrawBoard(model, new GameOfLifeController(model));
+    drawBoard.setCellSize(cellSize);
+    drawBoard.setRenderMode(renderMode);
+    drawBoard.adjustPreferredSize();
+    drawBoard.setSize(drawBoard.getPreferredSize());
+    target = new BufferedImage(drawBoard.getWidth(), drawBoard.getHeight(),
+        BufferedImage.TYPE_INT_RGB);
+    graphics = target.createGraphics();
+  }
+
+  /**
+   * Releases the graphics context.
+   */
+  @TearDown
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  /**
+   * Paints the whole board.
+   *
+   * @return the image painted on
+   */
+  @Benchmark
+  public BufferedImage paintComponent() {
+    drawBoard.paintComponent(graphics);
+    return target;
+  }
+}